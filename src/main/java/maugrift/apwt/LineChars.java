@@ -142,6 +142,238 @@ public abstract class LineChars
      */
     public static final char LINE2_CENTER2 = (char) 206;
 
+    /**
+     * The number of arm widths a cell can have in each direction: none, single, or double.
+     */
+    private static final int WIDTHS = 3;
+
+    /**
+     * The number of combinations of arm widths in the four directions.
+     */
+    private static final int COMBINATIONS = WIDTHS * WIDTHS * WIDTHS * WIDTHS;
+
+    /**
+     * Every line character, each followed by the widths of its arms up, down, left, and right.
+     */
+    private static final int[] GLYPHS = {
+            179, 1, 1, 0, 0, 180, 1, 1, 1, 0, 181, 1, 1, 2, 0, 182, 2, 2, 1, 0, 183, 0, 2, 1, 0,
+            184, 0, 1, 2, 0, 185, 2, 2, 2, 0, 186, 2, 2, 0, 0, 187, 0, 2, 2, 0, 188, 2, 0, 2, 0,
+            189, 2, 0, 1, 0, 190, 1, 0, 2, 0, 191, 0, 1, 1, 0, 192, 1, 0, 0, 1, 193, 1, 0, 1, 1,
+            194, 0, 1, 1, 1, 195, 1, 1, 0, 1, 196, 0, 0, 1, 1, 197, 1, 1, 1, 1, 198, 1, 1, 0, 2,
+            199, 2, 2, 0, 1, 200, 2, 0, 0, 2, 201, 0, 2, 0, 2, 202, 2, 0, 2, 2, 203, 0, 2, 2, 2,
+            204, 2, 2, 0, 2, 205, 0, 0, 2, 2, 206, 2, 2, 2, 2, 207, 1, 0, 2, 2, 208, 2, 0, 1, 1,
+            209, 0, 1, 2, 2, 210, 0, 2, 1, 1, 211, 2, 0, 0, 1, 212, 1, 0, 0, 2, 213, 0, 1, 0, 2,
+            214, 0, 2, 0, 1, 215, 2, 2, 1, 1, 216, 1, 1, 2, 2, 217, 1, 0, 1, 0, 218, 0, 1, 0, 1
+    };
+
+    /**
+     * The character for each combination of arm widths, indexed by {@link #index(int, int, int, int)}. Combinations
+     * that CP437 has no character for use the closest character with arms in the same directions, preferring double
+     * lines; a lone arm is drawn as a straight line.
+     */
+    private static final char[] JUNCTIONS = new char[COMBINATIONS];
+
+    /**
+     * The combination of arm widths of each character below 256, indexed by character; 0 for characters that are not
+     * lines.
+     */
+    private static final byte[] ARMS = new byte[256];
+
+    /**
+     * The combination of arm widths made by overlapping each pair of combinations, keeping the wider arm in each
+     * direction, indexed by the first combination times {@link #COMBINATIONS} plus the second.
+     */
+    private static final byte[] MERGED = new byte[COMBINATIONS * COMBINATIONS];
+
+    static
+    {
+        for (int glyph = 0; glyph < GLYPHS.length; glyph += 5)
+        {
+            ARMS[GLYPHS[glyph]] = (byte) index(GLYPHS[glyph + 1], GLYPHS[glyph + 2], GLYPHS[glyph + 3],
+                    GLYPHS[glyph + 4]);
+        }
+
+        JUNCTIONS[0] = ' ';
+        for (int combination = 1; combination < COMBINATIONS; combination++)
+        {
+            int[] wanted = arms(combination);
+            // A lone arm has no character of its own, so it is continued through the cell
+            for (int direction = 0; direction < 4; direction++)
+            {
+                int opposite = direction ^ 1;
+                if (wanted[direction] > 0 && wanted[opposite] == 0 && wanted[direction ^ 2] == 0 &&
+                    wanted[direction ^ 3] == 0)
+                {
+                    wanted[opposite] = wanted[direction];
+                }
+            }
+
+            int bestCost = Integer.MAX_VALUE;
+            int bestWidth = 0;
+            for (int glyph = 0; glyph < GLYPHS.length; glyph += 5)
+            {
+                int cost = 0;
+                int width = 0;
+                for (int direction = 0; direction < 4; direction++)
+                {
+                    int has = GLYPHS[glyph + 1 + direction];
+                    cost += (has == 0) != (wanted[direction] == 0) ? 16 : Math.abs(has - wanted[direction]);
+                    width += has;
+                }
+
+                if (cost < bestCost || (cost == bestCost && width > bestWidth))
+                {
+                    bestCost = cost;
+                    bestWidth = width;
+                    JUNCTIONS[combination] = (char) GLYPHS[glyph];
+                }
+            }
+        }
+
+        for (int first = 0; first < COMBINATIONS; first++)
+        {
+            int[] a = arms(first);
+            for (int second = 0; second < COMBINATIONS; second++)
+            {
+                int[] b = arms(second);
+                MERGED[first * COMBINATIONS + second] = (byte) index(Math.max(a[0], b[0]), Math.max(a[1], b[1]),
+                        Math.max(a[2], b[2]), Math.max(a[3], b[3]));
+            }
+        }
+    }
+
+    /**
+     * Returns the index of a combination of arm widths.
+     *
+     * @param up    the width of the arm extending upwards, from 0 to 2
+     * @param down  the width of the arm extending downwards, from 0 to 2
+     * @param left  the width of the arm extending to the left, from 0 to 2
+     * @param right the width of the arm extending to the right, from 0 to 2
+     * @return the index of the combination
+     */
+    private static int index(int up, int down, int left, int right)
+    {
+        return ((up * WIDTHS + down) * WIDTHS + left) * WIDTHS + right;
+    }
+
+    /**
+     * Returns the arm widths in a combination, in the order up, down, left, right, so that flipping the lowest bit of
+     * a direction gives the opposite direction.
+     *
+     * @param combination the index of the combination
+     * @return the widths of the arms up, down, left, and right
+     */
+    private static int[] arms(int combination)
+    {
+        return new int[]{combination / 27, combination / 9 % WIDTHS, combination / WIDTHS % WIDTHS,
+                combination % WIDTHS};
+    }
+
+    /**
+     * Returns true if the given width is 1 or 2.
+     *
+     * @param width the width to check
+     * @return true if the width is that of a line
+     */
+    private static boolean isWidth(int width)
+    {
+        return width == 1 || width == 2;
+    }
+
+    /**
+     * Returns the line character with arms of the given widths in each direction. Arms that CP437 has no character for,
+     * such as a single line meeting a double line head-on, are drawn with the closest character available.
+     *
+     * @param up    the width of the arm extending upwards; must be from 0 to 2
+     * @param down  the width of the arm extending downwards; must be from 0 to 2
+     * @param left  the width of the arm extending to the left; must be from 0 to 2
+     * @param right the width of the arm extending to the right; must be from 0 to 2
+     * @return a line character with the specified arms, a space if there are none; the UNKNOWN character if invalid
+     */
+    public static char junction(int up, int down, int left, int right)
+    {
+        if (up < 0 || down < 0 || left < 0 || right < 0 || up > 2 || down > 2 || left > 2 || right > 2)
+        {
+            return UNKNOWN;
+        }
+
+        return JUNCTIONS[index(up, down, left, right)];
+    }
+
+    /**
+     * Returns true if the given character is a line character.
+     *
+     * @param c the character to check
+     * @return true if the character is one of the CP437 line characters
+     */
+    public static boolean isLine(char c)
+    {
+        return c < ARMS.length && ARMS[c] != 0;
+    }
+
+    /**
+     * Returns the width of the arm of a line character extending upwards.
+     *
+     * @param c the character to check
+     * @return the width of the arm; 0 if there is none or the character is not a line character
+     */
+    public static int up(char c)
+    {
+        return c < ARMS.length ? ARMS[c] / 27 : 0;
+    }
+
+    /**
+     * Returns the width of the arm of a line character extending downwards.
+     *
+     * @param c the character to check
+     * @return the width of the arm; 0 if there is none or the character is not a line character
+     */
+    public static int down(char c)
+    {
+        return c < ARMS.length ? ARMS[c] / 9 % WIDTHS : 0;
+    }
+
+    /**
+     * Returns the width of the arm of a line character extending to the left.
+     *
+     * @param c the character to check
+     * @return the width of the arm; 0 if there is none or the character is not a line character
+     */
+    public static int left(char c)
+    {
+        return c < ARMS.length ? ARMS[c] / WIDTHS % WIDTHS : 0;
+    }
+
+    /**
+     * Returns the width of the arm of a line character extending to the right.
+     *
+     * @param c the character to check
+     * @return the width of the arm; 0 if there is none or the character is not a line character
+     */
+    public static int right(char c)
+    {
+        return c < ARMS.length ? ARMS[c] % WIDTHS : 0;
+    }
+
+    /**
+     * Returns the character to show where one character is written over another. If both are line characters, the
+     * result joins the arms of both, keeping the wider arm in each direction, so lines that meet form a junction no
+     * matter which is written first. Otherwise, the new character replaces the old one.
+     *
+     * @param under the character already in the cell
+     * @param over  the character being written
+     * @return the character that should be in the cell
+     */
+    public static char merge(char under, char over)
+    {
+        if (under >= ARMS.length || over >= ARMS.length || ARMS[under] == 0 || ARMS[over] == 0)
+        {
+            return over;
+        }
+
+        return JUNCTIONS[MERGED[ARMS[under] * COMBINATIONS + ARMS[over]]];
+    }
+
     /**
      * Returns a horizontal or vertical line character with the provided width.
      *
@@ -162,15 +394,7 @@ public abstract class LineChars
      */
     public static char horizontal(int width)
     {
-        switch (width)
-        {
-            case 1:
-                return LINE1_HORIZONTAL;
-            case 2:
-                return LINE2_HORIZONTAL;
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(width) ? JUNCTIONS[index(0, 0, width, width)] : UNKNOWN;
     }
 
     /**
@@ -181,15 +405,7 @@ public abstract class LineChars
      */
     public static char vertical(int width)
     {
-        switch (width)
-        {
-            case 1:
-                return LINE1_VERTICAL;
-            case 2:
-                return LINE2_VERTICAL;
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(width) ? JUNCTIONS[index(width, width, 0, 0)] : UNKNOWN;
     }
 
     /**
@@ -200,15 +416,7 @@ public abstract class LineChars
      */
     public static char topLeft(int width)
     {
-        switch (width)
-        {
-            case 1:
-                return LINE1_TL;
-            case 2:
-                return LINE2_TL;
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(width) ? JUNCTIONS[index(0, width, 0, width)] : UNKNOWN;
     }
 
     /**
@@ -219,15 +427,7 @@ public abstract class LineChars
      */
     public static char topRight(int width)
     {
-        switch (width)
-        {
-            case 1:
-                return LINE1_TR;
-            case 2:
-                return LINE2_TR;
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(width) ? JUNCTIONS[index(0, width, width, 0)] : UNKNOWN;
     }
 
     /**
@@ -238,15 +438,7 @@ public abstract class LineChars
      */
     public static char bottomLeft(int width)
     {
-        switch (width)
-        {
-            case 1:
-                return LINE1_BL;
-            case 2:
-                return LINE2_BL;
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(width) ? JUNCTIONS[index(width, 0, 0, width)] : UNKNOWN;
     }
 
     /**
@@ -257,15 +449,7 @@ public abstract class LineChars
      */
     public static char bottomRight(int width)
     {
-        switch (width)
-        {
-            case 1:
-                return LINE1_BR;
-            case 2:
-                return LINE2_BR;
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(width) ? JUNCTIONS[index(width, 0, width, 0)] : UNKNOWN;
     }
 
     /**
@@ -278,31 +462,8 @@ public abstract class LineChars
      */
     public static char splitUp(int widthHorizontal, int widthVertical)
     {
-        switch (widthHorizontal)
-        {
-            case 1:
-                switch (widthVertical)
-                {
-                    case 1:
-                        return LINE1_SPLIT_U;
-                    case 2:
-                        return LINE1_SWITCH_U;
-                    default:
-                        return UNKNOWN;
-                }
-            case 2:
-                switch (widthVertical)
-                {
-                    case 1:
-                        return LINE2_SWITCH_U;
-                    case 2:
-                        return LINE2_SPLIT_U;
-                    default:
-                        return UNKNOWN;
-                }
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(widthHorizontal) && isWidth(widthVertical) ?
+                JUNCTIONS[index(widthVertical, 0, widthHorizontal, widthHorizontal)] : UNKNOWN;
     }
 
     /**
@@ -315,31 +476,8 @@ public abstract class LineChars
      */
     public static char splitDown(int widthHorizontal, int widthVertical)
     {
-        switch (widthHorizontal)
-        {
-            case 1:
-                switch (widthVertical)
-                {
-                    case 1:
-                        return LINE1_SPLIT_D;
-                    case 2:
-                        return LINE1_SWITCH_D;
-                    default:
-                        return UNKNOWN;
-                }
-            case 2:
-                switch (widthVertical)
-                {
-                    case 1:
-                        return LINE2_SWITCH_D;
-                    case 2:
-                        return LINE2_SPLIT_D;
-                    default:
-                        return UNKNOWN;
-                }
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(widthHorizontal) && isWidth(widthVertical) ?
+                JUNCTIONS[index(0, widthVertical, widthHorizontal, widthHorizontal)] : UNKNOWN;
     }
 
     /**
@@ -352,31 +490,8 @@ public abstract class LineChars
      */
     public static char splitLeft(int widthVertical, int widthHorizontal)
     {
-        switch (widthVertical)
-        {
-            case 1:
-                switch (widthHorizontal)
-                {
-                    case 1:
-                        return LINE1_SPLIT_L;
-                    case 2:
-                        return LINE1_SWITCH_L;
-                    default:
-                        return UNKNOWN;
-                }
-            case 2:
-                switch (widthHorizontal)
-                {
-                    case 1:
-                        return LINE2_SWITCH_L;
-                    case 2:
-                        return LINE2_SPLIT_L;
-                    default:
-                        return UNKNOWN;
-                }
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(widthHorizontal) && isWidth(widthVertical) ?
+                JUNCTIONS[index(widthVertical, widthVertical, widthHorizontal, 0)] : UNKNOWN;
     }
 
     /**
@@ -389,31 +504,8 @@ public abstract class LineChars
      */
     public static char splitRight(int widthVertical, int widthHorizontal)
     {
-        switch (widthVertical)
-        {
-            case 1:
-                switch (widthHorizontal)
-                {
-                    case 1:
-                        return LINE1_SPLIT_R;
-                    case 2:
-                        return LINE1_SWITCH_R;
-                    default:
-                        return UNKNOWN;
-                }
-            case 2:
-                switch (widthHorizontal)
-                {
-                    case 1:
-                        return LINE2_SWITCH_R;
-                    case 2:
-                        return LINE2_SPLIT_R;
-                    default:
-                        return UNKNOWN;
-                }
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(widthHorizontal) && isWidth(widthVertical) ?
+                JUNCTIONS[index(widthVertical, widthVertical, 0, widthHorizontal)] : UNKNOWN;
     }
 
     /**
@@ -424,15 +516,7 @@ public abstract class LineChars
      */
     public static char center(int width)
     {
-        switch (width)
-        {
-            case 1:
-                return LINE1_CENTER1;
-            case 2:
-                return LINE2_CENTER2;
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(width) ? JUNCTIONS[index(width, width, width, width)] : UNKNOWN;
     }
 
     /**
@@ -444,30 +528,7 @@ public abstract class LineChars
      */
     public static char center(int horizontal, int vertical)
     {
-        switch (vertical)
-        {
-            case 1:
-                switch (horizontal)
-                {
-                    case 1:
-                        return LINE1_CENTER1;
-                    case 2:
-                        return LINE1_CENTER2;
-                    default:
-                        return UNKNOWN;
-                }
-            case 2:
-                switch (horizontal)
-                {
-                    case 1:
-                        return LINE2_CENTER1;
-                    case 2:
-                        return LINE2_CENTER2;
-                    default:
-                        return UNKNOWN;
-                }
-            default:
-                return UNKNOWN;
-        }
+        return isWidth(horizontal) && isWidth(vertical) ?
+                JUNCTIONS[index(vertical, vertical, horizontal, horizontal)] : UNKNOWN;
     }
-}
\ No newline at end of file
+}
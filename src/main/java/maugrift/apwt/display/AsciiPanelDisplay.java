@@ -1,7 +1,6 @@
 package maugrift.apwt.display;
 
 import asciiPanel.AsciiPanel;
-import maugrift.apwt.glyphs.ColorChar;
 import maugrift.apwt.screens.Screen;
 
 import javax.swing.*;
@@ -103,7 +102,7 @@ public class AsciiPanelDisplay extends JFrame implements KeyListener, Display
     @Override
     public void write(int x, int y, char c, Color foreground, Color background)
     {
-        panel.write(c, x, y, foreground, background);
+        panel.write(c, x, y, resolveForeground(foreground), resolveBackground(background));
     }
 
     @Override
@@ -0,0 +1,355 @@
+package maugrift.apwt.display;
+
+import maugrift.apwt.screens.Screen;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * An off-screen {@link Display} that stores every written character and its colors in memory. Its contents can be read
+ * back, saved, and drawn to another {@link Display} at any time.
+ *
+ * @author Maugrift
+ */
+public class BufferedDisplay implements Display
+{
+    /**
+     * The width of the {@link BufferedDisplay} in characters.
+     */
+    private final int width;
+
+    /**
+     * The height of the {@link BufferedDisplay} in characters.
+     */
+    private final int height;
+
+    /**
+     * The characters in each cell, in rows from top to bottom.
+     */
+    private final char[] characters;
+
+    /**
+     * The foreground color of each cell, in rows from top to bottom.
+     */
+    private final Color[] foregrounds;
+
+    /**
+     * The background color of each cell, in rows from top to bottom.
+     */
+    private final Color[] backgrounds;
+
+    /**
+     * The color used for unspecified foregrounds.
+     */
+    private final Color defaultForeground;
+
+    /**
+     * The color used for unspecified backgrounds.
+     */
+    private final Color defaultBackground;
+
+    /**
+     * The {@link Display} that the {@link BufferedDisplay} mirrors and {@link #flush() flushes} to; null if it has
+     * none.
+     */
+    private final Display target;
+
+    /**
+     * Creates a blank {@link BufferedDisplay} with the given size and default colors.
+     *
+     * @param width             the width in characters; must be positive
+     * @param height            the height in characters; must be positive
+     * @param defaultForeground the color used for unspecified foregrounds; may not be null
+     * @param defaultBackground the color used for unspecified backgrounds; may not be null
+     */
+    public BufferedDisplay(int width, int height, Color defaultForeground, Color defaultBackground)
+    {
+        this(width, height, defaultForeground, defaultBackground, null);
+    }
+
+    /**
+     * Creates a blank {@link BufferedDisplay} with the same size and default colors as the given {@link Display}, to
+     * which it can be {@link #flush() flushed}.
+     *
+     * @param target the {@link Display} to mirror
+     */
+    public BufferedDisplay(Display target)
+    {
+        this(target.getWidthInCharacters(), target.getHeightInCharacters(), target.getDefaultForegroundColor(),
+                target.getDefaultBackgroundColor(), target);
+    }
+
+    /**
+     * Creates a blank {@link BufferedDisplay} with all fields defined.
+     *
+     * @param width             the width in characters; must be positive
+     * @param height            the height in characters; must be positive
+     * @param defaultForeground the color used for unspecified foregrounds; may not be null
+     * @param defaultBackground the color used for unspecified backgrounds; may not be null
+     * @param target            the {@link Display} to flush to; may be null
+     */
+    private BufferedDisplay(int width, int height, Color defaultForeground, Color defaultBackground, Display target)
+    {
+        if (width < 1 || height < 1)
+        {
+            throw new IllegalArgumentException("Dimensions must be positive; were " + width + " and " + height);
+        }
+
+        if (defaultForeground == null || defaultBackground == null)
+        {
+            throw new NullPointerException("Default colors may not be null");
+        }
+
+        this.width = width;
+        this.height = height;
+        this.defaultForeground = defaultForeground;
+        this.defaultBackground = defaultBackground;
+        this.target = target;
+        characters = new char[width * height];
+        foregrounds = new Color[width * height];
+        backgrounds = new Color[width * height];
+        clear();
+    }
+
+    /**
+     * Returns the {@link Display} that this {@link BufferedDisplay} flushes to.
+     *
+     * @return the {@link Display} that this {@link BufferedDisplay} flushes to, null if it has none
+     */
+    public Display getTarget()
+    {
+        return target;
+    }
+
+    @Override
+    public Screen getScreen()
+    {
+        return target == null ? null : target.getScreen();
+    }
+
+    @Override
+    public int getWidthInCharacters()
+    {
+        return width;
+    }
+
+    @Override
+    public int getHeightInCharacters()
+    {
+        return height;
+    }
+
+    @Override
+    public Color getDefaultForegroundColor()
+    {
+        return defaultForeground;
+    }
+
+    @Override
+    public Color getDefaultBackgroundColor()
+    {
+        return defaultBackground;
+    }
+
+    @Override
+    public void write(int x, int y, char c, Color foreground, Color background)
+    {
+        int cell = checkedCell(x, y);
+        characters[cell] = c;
+        foregrounds[cell] = resolveForeground(foreground);
+        backgrounds[cell] = resolveBackground(background);
+    }
+
+    @Override
+    public void write(int x, int y, char[] characters, int start, int end, Color foreground, Color background)
+    {
+        if (start >= end)
+        {
+            return;
+        }
+
+        int cell = checkedCell(x, y);
+        checkedCell(x + end - start - 1, y);
+        System.arraycopy(characters, start, this.characters, cell, end - start);
+        Arrays.fill(foregrounds, cell, cell + end - start, resolveForeground(foreground));
+        Arrays.fill(backgrounds, cell, cell + end - start, resolveBackground(background));
+    }
+
+    @Override
+    public void writeColumn(int x, int y, char[] characters, int start, int end, Color foreground, Color background)
+    {
+        if (start >= end)
+        {
+            return;
+        }
+
+        int cell = checkedCell(x, y);
+        checkedCell(x, y + end - start - 1);
+        Color resolvedForeground = resolveForeground(foreground);
+        Color resolvedBackground = resolveBackground(background);
+        for (int i = start; i < end; i++, cell += width)
+        {
+            this.characters[cell] = characters[i];
+            foregrounds[cell] = resolvedForeground;
+            backgrounds[cell] = resolvedBackground;
+        }
+    }
+
+    @Override
+    public void fill(int x, int y, int width, int height, char c, Color foreground, Color background)
+    {
+        if (width <= 0 || height <= 0)
+        {
+            return;
+        }
+
+        checkedCell(x, y);
+        checkedCell(x + width - 1, y + height - 1);
+        Color resolvedForeground = resolveForeground(foreground);
+        Color resolvedBackground = resolveBackground(background);
+        for (int row = y; row < y + height; row++)
+        {
+            int cell = row * this.width + x;
+            Arrays.fill(characters, cell, cell + width, c);
+            Arrays.fill(foregrounds, cell, cell + width, resolvedForeground);
+            Arrays.fill(backgrounds, cell, cell + width, resolvedBackground);
+        }
+    }
+
+    /**
+     * Returns the character at the given coordinates.
+     *
+     * @param x the x value, in characters; must be on the display
+     * @param y the y value, in characters; must be on the display
+     * @return the character at the given coordinates
+     */
+    public char getCharAt(int x, int y)
+    {
+        return characters[checkedCell(x, y)];
+    }
+
+    /**
+     * Returns the foreground color at the given coordinates.
+     *
+     * @param x the x value, in characters; must be on the display
+     * @param y the y value, in characters; must be on the display
+     * @return the foreground color at the given coordinates
+     */
+    public Color getForegroundAt(int x, int y)
+    {
+        return foregrounds[checkedCell(x, y)];
+    }
+
+    /**
+     * Returns the background color at the given coordinates.
+     *
+     * @param x the x value, in characters; must be on the display
+     * @param y the y value, in characters; must be on the display
+     * @return the background color at the given coordinates
+     */
+    public Color getBackgroundAt(int x, int y)
+    {
+        return backgrounds[checkedCell(x, y)];
+    }
+
+    /**
+     * Fills every cell with a space in the default colors.
+     */
+    public void clear()
+    {
+        Arrays.fill(characters, ' ');
+        Arrays.fill(foregrounds, defaultForeground);
+        Arrays.fill(backgrounds, defaultBackground);
+    }
+
+    /**
+     * Draws every cell of this {@link BufferedDisplay} to the given {@link Display}, with the top-left cell at the
+     * given coordinates. Cells that fall outside of the given {@link Display} are skipped.
+     *
+     * @param display the {@link Display} to draw to
+     * @param x       the x value, in characters, at which to draw the top-left cell
+     * @param y       the y value, in characters, at which to draw the top-left cell
+     */
+    public void drawTo(Display display, int x, int y)
+    {
+        int startX = Math.max(0, -x);
+        int startY = Math.max(0, -y);
+        int endX = Math.min(width, display.getWidthInCharacters() - x);
+        int endY = Math.min(height, display.getHeightInCharacters() - y);
+
+        for (int row = startY; row < endY; row++)
+        {
+            int cell = row * width + startX;
+            for (int column = startX; column < endX; column++, cell++)
+            {
+                display.write(x + column, y + row, characters[cell], foregrounds[cell], backgrounds[cell]);
+            }
+        }
+    }
+
+    /**
+     * Copies an area of this {@link BufferedDisplay} to the same area of another {@link BufferedDisplay} of the same
+     * size. Parts of the area outside of the displays are skipped.
+     *
+     * @param destination the {@link BufferedDisplay} to copy to; must be the same size as this one
+     * @param x           the x value, in characters, of the left side of the area
+     * @param y           the y value, in characters, of the top of the area
+     * @param width       the width of the area in characters
+     * @param height      the height of the area in characters
+     */
+    public void copyArea(BufferedDisplay destination, int x, int y, int width, int height)
+    {
+        if (destination.width != this.width || destination.height != this.height)
+        {
+            throw new IllegalArgumentException("Displays must be the same size");
+        }
+
+        int startX = Math.max(0, x);
+        int startY = Math.max(0, y);
+        int endX = Math.min(this.width, x + width);
+        int endY = Math.min(this.height, y + height);
+        if (startX >= endX)
+        {
+            return;
+        }
+
+        for (int row = startY; row < endY; row++)
+        {
+            int cell = row * this.width + startX;
+            System.arraycopy(characters, cell, destination.characters, cell, endX - startX);
+            System.arraycopy(foregrounds, cell, destination.foregrounds, cell, endX - startX);
+            System.arraycopy(backgrounds, cell, destination.backgrounds, cell, endX - startX);
+        }
+    }
+
+    /**
+     * Draws every cell of this {@link BufferedDisplay} to the {@link Display} it was created from.
+     */
+    public void flush()
+    {
+        if (target == null)
+        {
+            throw new IllegalStateException("BufferedDisplay has no target to flush to");
+        }
+
+        drawTo(target, 0, 0);
+    }
+
+    /**
+     * Returns the index into the cell arrays of the given coordinates, checking that they are on the display.
+     *
+     * @param x the x value, in characters
+     * @param y the y value, in characters
+     * @return the index of the cell at the given coordinates
+     */
+    private int checkedCell(int x, int y)
+    {
+        if (!contains(x, y))
+        {
+            throw new IndexOutOfBoundsException(
+                    "Coordinates must be within the " + width + "x" + height + " display; were " + x + " and " + y);
+        }
+
+        return y * width + x;
+    }
+}
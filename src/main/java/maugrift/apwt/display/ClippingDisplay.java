@@ -0,0 +1,203 @@
+package maugrift.apwt.display;
+
+import maugrift.apwt.screens.Screen;
+
+import java.awt.*;
+
+/**
+ * A {@link Display} that passes writes to another {@link Display}, discarding any that fall outside of it. It reports
+ * every cell as part of the {@link Display}, so borders and lines that only partly fit are still drawn rather than
+ * rejected, and remembers whether any write was discarded.
+ *
+ * @author Maugrift
+ */
+public class ClippingDisplay implements Display
+{
+    /**
+     * The {@link Display} that writes are passed to.
+     */
+    private final Display target;
+
+    /**
+     * True if a write has been discarded since the last call to {@link #reset()}.
+     */
+    private boolean clipped;
+
+    /**
+     * Creates a {@link ClippingDisplay} that writes to the given {@link Display}.
+     *
+     * @param target the {@link Display} to write to
+     */
+    public ClippingDisplay(Display target)
+    {
+        this.target = target;
+    }
+
+    /**
+     * Returns the {@link Display} that writes are passed to.
+     *
+     * @return the {@link Display} that writes are passed to
+     */
+    public Display getTarget()
+    {
+        return target;
+    }
+
+    /**
+     * Returns true if a write has been discarded since the last call to {@link #reset()}.
+     *
+     * @return true if any part of a write fell outside of the target {@link Display}
+     */
+    public boolean isClipped()
+    {
+        return clipped;
+    }
+
+    /**
+     * Forgets whether any writes have been discarded.
+     */
+    public void reset()
+    {
+        clipped = false;
+    }
+
+    @Override
+    public Screen getScreen()
+    {
+        return target.getScreen();
+    }
+
+    @Override
+    public int getWidthInCharacters()
+    {
+        return target.getWidthInCharacters();
+    }
+
+    @Override
+    public int getHeightInCharacters()
+    {
+        return target.getHeightInCharacters();
+    }
+
+    /**
+     * Returns true for every x value, since writes outside of the target {@link Display} are discarded rather than
+     * rejected.
+     *
+     * @param x the x value to check
+     * @return true
+     */
+    @Override
+    public boolean containsX(int x)
+    {
+        return true;
+    }
+
+    /**
+     * Returns true for every y value, since writes outside of the target {@link Display} are discarded rather than
+     * rejected.
+     *
+     * @param y the y value to check
+     * @return true
+     */
+    @Override
+    public boolean containsY(int y)
+    {
+        return true;
+    }
+
+    @Override
+    public Color getDefaultForegroundColor()
+    {
+        return target.getDefaultForegroundColor();
+    }
+
+    @Override
+    public Color getDefaultBackgroundColor()
+    {
+        return target.getDefaultBackgroundColor();
+    }
+
+    @Override
+    public void write(int x, int y, char c, Color foreground, Color background)
+    {
+        if (target.contains(x, y))
+        {
+            target.write(x, y, c, foreground, background);
+        }
+        else
+        {
+            clipped = true;
+        }
+    }
+
+    @Override
+    public void write(int x, int y, char[] characters, int start, int end, Color foreground, Color background)
+    {
+        if (start >= end)
+        {
+            return;
+        }
+
+        int left = Math.max(x, 0);
+        int right = Math.min(x + end - start, getWidthInCharacters());
+        if (!target.containsY(y) || left >= right)
+        {
+            clipped = true;
+            return;
+        }
+
+        if (left > x || right < x + end - start)
+        {
+            clipped = true;
+        }
+
+        target.write(left, y, characters, start + left - x, start + right - x, foreground, background);
+    }
+
+    @Override
+    public void writeColumn(int x, int y, char[] characters, int start, int end, Color foreground, Color background)
+    {
+        if (start >= end)
+        {
+            return;
+        }
+
+        int top = Math.max(y, 0);
+        int bottom = Math.min(y + end - start, getHeightInCharacters());
+        if (!target.containsX(x) || top >= bottom)
+        {
+            clipped = true;
+            return;
+        }
+
+        if (top > y || bottom < y + end - start)
+        {
+            clipped = true;
+        }
+
+        target.writeColumn(x, top, characters, start + top - y, start + bottom - y, foreground, background);
+    }
+
+    @Override
+    public void fill(int x, int y, int width, int height, char c, Color foreground, Color background)
+    {
+        if (width <= 0 || height <= 0)
+        {
+            return;
+        }
+
+        int left = Math.max(x, 0);
+        int top = Math.max(y, 0);
+        int right = Math.min(x + width, getWidthInCharacters());
+        int bottom = Math.min(y + height, getHeightInCharacters());
+        if (left > x || top > y || right < x + width || bottom < y + height)
+        {
+            clipped = true;
+        }
+
+        if (left < right && top < bottom)
+        {
+            target.fill(left, top, right - left, bottom - top, c, foreground, background);
+        }
+    }
+}
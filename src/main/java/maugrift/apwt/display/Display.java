@@ -3,12 +3,12 @@ package maugrift.apwt.display;
 import maugrift.apwt.ExtChars;
 import maugrift.apwt.glyphs.ColorChar;
 import maugrift.apwt.glyphs.ColorString;
+import maugrift.apwt.glyphs.ColorStringBuilder;
 import maugrift.apwt.screens.Screen;
 import maugrift.apwt.windows.Border;
 import maugrift.apwt.windows.Line;
 
 import java.awt.*;
-import java.util.List;
 
 /**
  * An interface for writing to terminals that requires only a few overrides by implementing classes. It derives
@@ -106,13 +106,40 @@ public interface Display
     Color getDefaultBackgroundColor();
 
     /**
-     * Writes a character to this {@link Display}, using the given foreground and background colors.
+     * Returns the given foreground color, or this {@link Display}'s default foreground color if it is null. Null colors
+     * act as a placeholder for the default color of whichever {@link Display} they are written to, so they are
+     * resolved here at write time rather than stored.
+     *
+     * @param foreground the foreground color to resolve; may be null
+     * @return the given foreground color, or the default foreground color if it is null
+     */
+    default Color resolveForeground(Color foreground)
+    {
+        return foreground == null ? getDefaultForegroundColor() : foreground;
+    }
+
+    /**
+     * Returns the given background color, or this {@link Display}'s default background color if it is null. Null colors
+     * act as a placeholder for the default color of whichever {@link Display} they are written to, so they are
+     * resolved here at write time rather than stored.
+     *
+     * @param background the background color to resolve; may be null
+     * @return the given background color, or the default background color if it is null
+     */
+    default Color resolveBackground(Color background)
+    {
+        return background == null ? getDefaultBackgroundColor() : background;
+    }
+
+    /**
+     * Writes a character to this {@link Display}, using the given foreground and background colors. Null colors must be
+     * treated as this {@link Display}'s default colors.
      *
      * @param x          the x value, in characters, at which the character will be written
      * @param y          the y value, in characters, at which the character will be written
      * @param c          the char to write
-     * @param foreground the foreground color
-     * @param background the background color
+     * @param foreground the foreground color; if null, the default foreground color
+     * @param background the background color; if null, the default background color
      */
     void write(int x, int y, char c, Color foreground, Color background);
 
@@ -126,7 +153,7 @@ public interface Display
      */
     default void write(int x, int y, char c, Color foreground)
     {
-        write(x, y, c, foreground, getDefaultBackgroundColor());
+        write(x, y, c, resolveForeground(foreground), getDefaultBackgroundColor());
     }
 
     /**
@@ -138,11 +165,81 @@ public interface Display
      */
     default void write(int x, int y, char c)
     {
-        write(x, y, new ColorChar(c));
+        write(x, y, c, getDefaultForegroundColor(), getDefaultBackgroundColor());
+    }
+
+    /**
+     * Writes a run of characters in the same colors to this {@link Display}, left to right. Implementations that can
+     * copy a whole run at once should override this, as borders and lines are drawn with it.
+     *
+     * @param x          the x value, in characters, at which the first character will be written
+     * @param y          the y value, in characters, at which the characters will be written
+     * @param characters the characters to write
+     * @param start      the index of the first character to write
+     * @param end        the index after the last character to write
+     * @param foreground the foreground color; if null, the default foreground color
+     * @param background the background color; if null, the default background color
+     */
+    default void write(int x, int y, char[] characters, int start, int end, Color foreground, Color background)
+    {
+        Color resolvedForeground = resolveForeground(foreground);
+        Color resolvedBackground = resolveBackground(background);
+        for (int i = start; i < end; i++)
+        {
+            write(x + i - start, y, characters[i], resolvedForeground, resolvedBackground);
+        }
     }
 
     /**
-     * Writes a {@link maugrift.apwt.glyphs.ColorChar} to this {@link Display}.
+     * Writes a run of characters in the same colors to this {@link Display}, top to bottom. Implementations that can
+     * copy a whole run at once should override this, as borders and lines are drawn with it.
+     *
+     * @param x          the x value, in characters, at which the characters will be written
+     * @param y          the y value, in characters, at which the first character will be written
+     * @param characters the characters to write
+     * @param start      the index of the first character to write
+     * @param end        the index after the last character to write
+     * @param foreground the foreground color; if null, the default foreground color
+     * @param background the background color; if null, the default background color
+     */
+    default void writeColumn(int x, int y, char[] characters, int start, int end, Color foreground, Color background)
+    {
+        Color resolvedForeground = resolveForeground(foreground);
+        Color resolvedBackground = resolveBackground(background);
+        for (int i = start; i < end; i++)
+        {
+            write(x, y + i - start, characters[i], resolvedForeground, resolvedBackground);
+        }
+    }
+
+    /**
+     * Fills a rectangle of this {@link Display} with one character in the same colors. Implementations that can fill
+     * a whole row at once should override this, as the insides of borders are filled with it.
+     *
+     * @param x          the x value, in characters, of the left side of the rectangle
+     * @param y          the y value, in characters, of the top of the rectangle
+     * @param width      the width of the rectangle in characters
+     * @param height     the height of the rectangle in characters
+     * @param c          the character to fill the rectangle with
+     * @param foreground the foreground color; if null, the default foreground color
+     * @param background the background color; if null, the default background color
+     */
+    default void fill(int x, int y, int width, int height, char c, Color foreground, Color background)
+    {
+        Color resolvedForeground = resolveForeground(foreground);
+        Color resolvedBackground = resolveBackground(background);
+        for (int row = y; row < y + height; row++)
+        {
+            for (int column = x; column < x + width; column++)
+            {
+                write(column, row, c, resolvedForeground, resolvedBackground);
+            }
+        }
+    }
+
+    /**
+     * Writes a {@link maugrift.apwt.glyphs.ColorChar} to this {@link Display}. Unspecified (null) colors are drawn with
+     * this {@link Display}'s default colors; the {@link maugrift.apwt.glyphs.ColorChar} itself is not modified.
      *
      * @param cc the {@link maugrift.apwt.glyphs.ColorChar} to write
      * @param x  the x value, in characters, at which the {@link maugrift.apwt.glyphs.ColorChar} will be written
@@ -150,8 +247,7 @@ public interface Display
      */
     default void write(int x, int y, ColorChar cc)
     {
-        cc.syncDefaults(this);
-        write(x, y, cc.getChar(), cc.getForeground(), cc.getBackground());
+        write(x, y, cc.getChar(), resolveForeground(cc.getForeground()), resolveBackground(cc.getBackground()));
     }
 
     /**
@@ -226,16 +322,66 @@ public interface Display
      */
     default void write(int x, int y, ColorString s)
     {
-        if (s == null || s.getCharacters() == null || s.getCharacters().isEmpty())
+        if (s == null)
+        {
+            return;
+        }
+
+        for (int i = 0; i < s.length(); i++)
+        {
+            write(x + i, y, s.charAt(i), resolveForeground(s.getForegroundAt(i)),
+                    resolveBackground(s.getBackgroundAt(i)));
+        }
+    }
+
+    /**
+     * Writes part of a {@link maugrift.apwt.glyphs.ColorString} to this {@link Display}, with its first character at
+     * the given coordinates.
+     *
+     * @param x     the x value, in characters, at which the first character will be written
+     * @param y     the y value, in characters, at which the first character will be written
+     * @param s     the {@link maugrift.apwt.glyphs.ColorString} to write
+     * @param start the index of the first character to write
+     * @param end   the index after the last character to write
+     */
+    default void write(int x, int y, ColorString s, int start, int end)
+    {
+        if (s == null)
         {
             return;
         }
 
-        List<ColorChar> chars = s.getCharacters();
+        if (start < 0 || end > s.length() || start > end)
+        {
+            throw new IndexOutOfBoundsException("Range: [" + start + ", " + end + "), Length: " + s.length());
+        }
 
-        for (int i = 0; i < chars.size(); i++)
+        for (int i = start; i < end; i++)
         {
-            write(x + i, y, chars.get(i));
+            write(x + i - start, y, s.charAt(i), resolveForeground(s.getForegroundAt(i)),
+                    resolveBackground(s.getBackgroundAt(i)));
+        }
+    }
+
+    /**
+     * Writes the characters of a {@link maugrift.apwt.glyphs.ColorStringBuilder} to this {@link Display} without
+     * creating an intermediate {@link maugrift.apwt.glyphs.ColorString}.
+     *
+     * @param s the {@link maugrift.apwt.glyphs.ColorStringBuilder} to write
+     * @param x the x value, in characters, at which the {@link maugrift.apwt.glyphs.ColorStringBuilder} will be written
+     * @param y the y value, in characters, at which the {@link maugrift.apwt.glyphs.ColorStringBuilder} will be written
+     */
+    default void write(int x, int y, ColorStringBuilder s)
+    {
+        if (s == null)
+        {
+            return;
+        }
+
+        for (int i = 0; i < s.length(); i++)
+        {
+            write(x + i, y, s.charAt(i), resolveForeground(s.getForegroundAt(i)),
+                    resolveBackground(s.getBackgroundAt(i)));
         }
     }
 
@@ -325,9 +471,7 @@ public interface Display
         {
             if (s[line] != null)
             {
-                // Create a copy to avoid changing the original parameters
-                ColorString copy = new ColorString(s[line]).syncDefaults(this);
-                write(x - (copy.length() / 2), y - (s.length / 2) + line, copy);
+                write(x - (s[line].length() / 2), y - (s.length / 2) + line, s[line]);
             }
         }
     }
@@ -390,49 +534,12 @@ public interface Display
             throw new IllegalArgumentException("Endpoint dimension does not match line horizontal/vertical field");
         }
 
-        border.syncDefaults(this);
-
-        write(x1, y1, new ColorChar(border.end1, border.getForeground(), border.getBackground()));
-        write(x2, y2, new ColorChar(border.end2, border.getForeground(), border.getBackground()));
-
-        int start, end;
+        Color foreground = resolveForeground(border.getForeground());
+        Color background = resolveBackground(border.getBackground());
 
-        if (!border.horizontal)
-        {
-            if (y1 < y2)
-            {
-                start = y1;
-                end = y2;
-            }
-            else
-            {
-                start = y2;
-                end = y1;
-            }
-
-            for (int i = start + 1; i < end; i++)
-            {
-                write(x1, i, new ColorChar(border.line, border.getForeground(), border.getBackground()));
-            }
-        }
-        else
-        {
-            if (x1 < x2)
-            {
-                start = x1;
-                end = x2;
-            }
-            else
-            {
-                start = x2;
-                end = x1;
-            }
-
-            for (int i = start + 1; i < end; i++)
-            {
-                write(i, y1, new ColorChar(border.line, border.getForeground(), border.getBackground()));
-            }
-        }
+        boolean reversed = x1 > x2 || y1 > y2;
+        int length = Math.abs(x2 - x1) + Math.abs(y2 - y1) + 1;
+        Stamp.of(border, length, reversed).draw(this, Math.min(x1, x2), Math.min(y1, y2), foreground, background);
 
         return true;
     }
@@ -488,36 +595,15 @@ public interface Display
             bottom = y1;
         }
 
-        border.syncDefaults(this);
-
-        write(left, top, new ColorChar(border.cornerTL, border.getForeground(), border.getBackground()));
-        write(right, top, new ColorChar(border.cornerTR, border.getForeground(), border.getBackground()));
-        write(left, bottom, new ColorChar(border.cornerBL, border.getForeground(), border.getBackground()));
-        write(right, bottom, new ColorChar(border.cornerBR, border.getForeground(), border.getBackground()));
-
-        for (int x = left + 1; x < right; x++)
-        {
-            write(x, top, new ColorChar(border.edgeT, border.getForeground(), border.getBackground()));
-            write(x, bottom, new ColorChar(border.edgeB, border.getForeground(), border.getBackground()));
-        }
-
-        for (int y = top + 1; y < bottom; y++)
-        {
-            write(left, y, new ColorChar(border.edgeL, border.getForeground(), border.getBackground()));
-            write(right, y, new ColorChar(border.edgeR, border.getForeground(), border.getBackground()));
-        }
+        Color foreground = resolveForeground(border.getForeground());
+        Color background = resolveBackground(border.getBackground());
 
-        if (fill == null)
-        {
-            return true;
-        }
+        Stamp.of(border, right - left + 1, bottom - top + 1).draw(this, left, top, foreground, background);
 
-        for (int y = top + 1; y < bottom; y++)
+        if (fill != null && right - left > 1 && bottom - top > 1)
         {
-            for (int x = left + 1; x < right; x++)
-            {
-                write(x, y, new ColorChar(ExtChars.BLOCK, fill));
-            }
+            fill(left + 1, top + 1, right - left - 1, bottom - top - 1, ExtChars.BLOCK, fill,
+                    getDefaultBackgroundColor());
         }
 
         return true;
@@ -560,8 +646,7 @@ public interface Display
      */
     default boolean drawBorder(int x1, int y1, int x2, int y2, Border border)
     {
-        border.syncDefaults(this);
-        return drawBorder(x1, y1, x2, y2, border, border.getBackground());
+        return drawBorder(x1, y1, x2, y2, border, resolveBackground(border.getBackground()));
     }
 
     /**
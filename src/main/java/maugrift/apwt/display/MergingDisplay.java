@@ -0,0 +1,264 @@
+package maugrift.apwt.display;
+
+import maugrift.apwt.LineChars;
+import maugrift.apwt.screens.Screen;
+
+import java.awt.*;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A {@link Display} that passes writes to another {@link Display}, joining line characters written over each other
+ * with {@link LineChars#merge(char, char)}. Borders and separators drawn through it meet in the correct T and cross
+ * junctions whichever order they are drawn in, so adjacent windows can share their borders.
+ * <p>
+ * Only characters written through the {@link MergingDisplay} since the last call to {@link #reset()} are merged with;
+ * reset it at the start of each frame. Characters other than lines simply replace what was there, so the contents of
+ * a window still cover any lines beneath them.
+ * <p>
+ * To join the borders of adjacent windows, create one {@link MergingDisplay} for the target {@link Display}, give it to
+ * every window, and reset it once per frame, such as before a {@link Screen} displays its output. Windows given a
+ * {@link MergingDisplay} draw through it as it is; windows that need merging only among their own lines use the one
+ * returned by {@link #shared(Display)}, so their buffers are not repeated for each window.
+ *
+ * @author Maugrift
+ */
+public class MergingDisplay implements Display
+{
+    /**
+     * The {@link MergingDisplay MergingDisplays} returned by {@link #shared(Display)}, by target. The values are weakly
+     * referenced, as each refers to its key.
+     */
+    private static final Map<Display, WeakReference<MergingDisplay>> SHARED = new WeakHashMap<>();
+
+    /**
+     * The {@link Display} that writes are passed to.
+     */
+    private final Display target;
+
+    /**
+     * The width of the target {@link Display} when the {@link MergingDisplay} was created.
+     */
+    private final int width;
+
+    /**
+     * The last character written to each cell, in rows from top to bottom.
+     */
+    private final char[] chars;
+
+    /**
+     * The frame in which each cell was last written; cells from earlier frames are not merged with.
+     */
+    private final int[] frames;
+
+    /**
+     * The number of the current frame.
+     */
+    private int frame;
+
+    /**
+     * Holds the merged characters of a run while it is passed on to the target {@link Display}.
+     */
+    private char[] run;
+
+    /**
+     * Creates a {@link MergingDisplay} that writes to the given {@link Display}.
+     *
+     * @param target the {@link Display} to write to
+     */
+    public MergingDisplay(Display target)
+    {
+        this.target = target;
+        width = target.getWidthInCharacters();
+        chars = new char[width * target.getHeightInCharacters()];
+        frames = new int[chars.length];
+        frame = 1;
+        run = new char[Math.max(width, target.getHeightInCharacters())];
+    }
+
+    /**
+     * Returns a {@link MergingDisplay} writing to the given {@link Display}, shared by every caller with the same
+     * target, so that any number of windows merging their own lines hold one buffer between them. Since it is shared,
+     * each caller should {@link #reset()} it before drawing, and lines are then only merged within one caller's
+     * drawing.
+     *
+     * @param target the {@link Display} to write to
+     * @return the shared {@link MergingDisplay} for the target
+     */
+    public static MergingDisplay shared(Display target)
+    {
+        synchronized (SHARED)
+        {
+            WeakReference<MergingDisplay> reference = SHARED.get(target);
+            MergingDisplay merger = reference == null ? null : reference.get();
+            if (merger == null)
+            {
+                merger = new MergingDisplay(target);
+                SHARED.put(target, new WeakReference<>(merger));
+            }
+            return merger;
+        }
+    }
+
+    /**
+     * Returns the {@link Display} that writes are passed to.
+     *
+     * @return the {@link Display} that writes are passed to
+     */
+    public Display getTarget()
+    {
+        return target;
+    }
+
+    /**
+     * Forgets every character written so far, so that the next ones replace whatever is on the target {@link Display}
+     * rather than merging with it. Takes the same time however much was written.
+     */
+    public void reset()
+    {
+        frame++;
+        if (frame == 0)
+        {
+            Arrays.fill(frames, 0);
+            frame = 1;
+        }
+    }
+
+    @Override
+    public Screen getScreen()
+    {
+        return target.getScreen();
+    }
+
+    @Override
+    public int getWidthInCharacters()
+    {
+        return target.getWidthInCharacters();
+    }
+
+    @Override
+    public int getHeightInCharacters()
+    {
+        return target.getHeightInCharacters();
+    }
+
+    @Override
+    public boolean containsX(int x)
+    {
+        return target.containsX(x);
+    }
+
+    @Override
+    public boolean containsY(int y)
+    {
+        return target.containsY(y);
+    }
+
+    @Override
+    public Color getDefaultForegroundColor()
+    {
+        return target.getDefaultForegroundColor();
+    }
+
+    @Override
+    public Color getDefaultBackgroundColor()
+    {
+        return target.getDefaultBackgroundColor();
+    }
+
+    @Override
+    public void write(int x, int y, char c, Color foreground, Color background)
+    {
+        target.write(x, y, merge(x, y, c), foreground, background);
+    }
+
+    @Override
+    public void write(int x, int y, char[] characters, int start, int end, Color foreground, Color background)
+    {
+        target.write(x, y, mergeRun(x, y, 1, 0, characters, start, end), 0, end - start, foreground, background);
+    }
+
+    @Override
+    public void writeColumn(int x, int y, char[] characters, int start, int end, Color foreground, Color background)
+    {
+        target.writeColumn(x, y, mergeRun(x, y, 0, 1, characters, start, end), 0, end - start, foreground,
+                background);
+    }
+
+    @Override
+    public void fill(int x, int y, int width, int height, char c, Color foreground, Color background)
+    {
+        // Only lines need merging; anything else, such as the inside of a border, replaces the cells in one fill
+        if (LineChars.isLine(c))
+        {
+            Display.super.fill(x, y, width, height, c, foreground, background);
+            return;
+        }
+
+        int left = Math.max(x, 0);
+        int right = Math.min(x + width, this.width);
+        for (int row = Math.max(y, 0); row < y + height && (row + 1) * this.width <= chars.length; row++)
+        {
+            if (left < right)
+            {
+                Arrays.fill(frames, row * this.width + left, row * this.width + right, 0);
+            }
+        }
+
+        target.fill(x, y, width, height, c, foreground, background);
+    }
+
+    /**
+     * Merges a run of characters into the cells it covers, and returns the characters that should be written.
+     *
+     * @param x          the x value of the first cell
+     * @param y          the y value of the first cell
+     * @param dx         1 if the run goes right, otherwise 0
+     * @param dy         1 if the run goes down, otherwise 0
+     * @param characters the characters being written
+     * @param start      the index of the first character to write
+     * @param end        the index after the last character to write
+     * @return an array starting with the characters to write
+     */
+    private char[] mergeRun(int x, int y, int dx, int dy, char[] characters, int start, int end)
+    {
+        if (run.length < end - start)
+        {
+            run = new char[end - start];
+        }
+
+        for (int i = start; i < end; i++, x += dx, y += dy)
+        {
+            run[i - start] = merge(x, y, characters[i]);
+        }
+        return run;
+    }
+
+    /**
+     * Merges a character into a cell, and returns the character that should be written.
+     *
+     * @param x the x value of the cell
+     * @param y the y value of the cell
+     * @param c the character being written
+     * @return the character joined with any line already written to the cell this frame
+     */
+    private char merge(int x, int y, char c)
+    {
+        if (x < 0 || y < 0 || x >= width || y * width + x >= chars.length)
+        {
+            return c;
+        }
+
+        int index = y * width + x;
+        if (frames[index] == frame)
+        {
+            c = LineChars.merge(chars[index], c);
+        }
+
+        chars[index] = c;
+        frames[index] = frame;
+        return c;
+    }
+}
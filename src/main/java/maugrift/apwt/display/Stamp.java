@@ -0,0 +1,251 @@
+package maugrift.apwt.display;
+
+import maugrift.apwt.windows.Border;
+import maugrift.apwt.windows.Line;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The characters of a {@link Border} or {@link Line} of a particular size, laid out as runs that can be written to a
+ * {@link Display} in bulk. Stamps are cached by their characters and size, so a window drawn every frame builds its
+ * {@link Border} only once. Since {@link Border} and {@link Line} fields are public and may change, stamps are keyed by
+ * the characters they hold rather than by the object they came from. Colors are not part of a stamp, and are given when
+ * it is drawn.
+ *
+ * @author Maugrift
+ */
+final class Stamp
+{
+    /**
+     * The number of stamps kept in the cache before it is emptied.
+     */
+    private static final int CACHE_SIZE = 256;
+
+    /**
+     * Cached stamps. Reads do not lock, since every window looks up its stamps on every frame; when the cache grows
+     * past {@link #CACHE_SIZE} it is simply emptied, as stamps are cheap to rebuild.
+     */
+    private static final Map<Key, Stamp> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * The characters of each run.
+     */
+    private final char[][] runs;
+
+    /**
+     * The x offset of the first character of each run.
+     */
+    private final int[] runX;
+
+    /**
+     * The y offset of the first character of each run.
+     */
+    private final int[] runY;
+
+    /**
+     * True for each run written downward rather than rightward.
+     */
+    private final boolean[] vertical;
+
+    /**
+     * Creates a {@link Stamp} from its runs.
+     *
+     * @param runs     the characters of each run
+     * @param runX     the x offset of the first character of each run
+     * @param runY     the y offset of the first character of each run
+     * @param vertical true for each run written downward rather than rightward
+     */
+    private Stamp(char[][] runs, int[] runX, int[] runY, boolean[] vertical)
+    {
+        this.runs = runs;
+        this.runX = runX;
+        this.runY = runY;
+        this.vertical = vertical;
+    }
+
+    /**
+     * Returns the {@link Stamp} of a {@link Border} with the given outer size, building it only if it is not cached.
+     *
+     * @param border the {@link Border} to stamp
+     * @param width  the number of columns from the left edge to the right edge, inclusive; must be at least 2
+     * @param height the number of rows from the top edge to the bottom edge, inclusive; must be at least 2
+     * @return the {@link Stamp} of the {@link Border}
+     */
+    static Stamp of(Border border, int width, int height)
+    {
+        char[] characters = {border.edgeT, border.edgeB, border.edgeL, border.edgeR, border.cornerTL,
+                border.cornerTR, border.cornerBL, border.cornerBR};
+        Key key = new Key(characters, width, height);
+        Stamp stamp = get(key);
+        if (stamp != null)
+        {
+            return stamp;
+        }
+
+        char[] top = new char[width];
+        Arrays.fill(top, border.edgeT);
+        top[0] = border.cornerTL;
+        top[width - 1] = border.cornerTR;
+
+        char[] bottom = new char[width];
+        Arrays.fill(bottom, border.edgeB);
+        bottom[0] = border.cornerBL;
+        bottom[width - 1] = border.cornerBR;
+
+        char[] left = new char[height - 2];
+        Arrays.fill(left, border.edgeL);
+
+        char[] right = new char[height - 2];
+        Arrays.fill(right, border.edgeR);
+
+        stamp = new Stamp(new char[][] {top, bottom, left, right}, new int[] {0, 0, 0, width - 1},
+                new int[] {0, height - 1, 1, 1}, new boolean[] {false, false, true, true});
+        put(key, stamp);
+        return stamp;
+    }
+
+    /**
+     * Returns the {@link Stamp} of a {@link Line} of the given length, building it only if it is not cached. The
+     * {@link Line}'s first end is placed at the start of the run unless the {@link Line} is reversed.
+     *
+     * @param line     the {@link Line} to stamp
+     * @param length   the number of characters from one end to the other, inclusive; must be at least 2
+     * @param reversed if true, the {@link Line}'s second end is placed at the top or left
+     * @return the {@link Stamp} of the {@link Line}
+     */
+    static Stamp of(Line line, int length, boolean reversed)
+    {
+        char first = reversed ? line.end2 : line.end1;
+        char last = reversed ? line.end1 : line.end2;
+        char[] characters = {first, line.line, last, line.horizontal ? 'h' : 'v'};
+        Key key = new Key(characters, length, 0);
+        Stamp stamp = get(key);
+        if (stamp != null)
+        {
+            return stamp;
+        }
+
+        char[] run = new char[length];
+        Arrays.fill(run, line.line);
+        run[0] = first;
+        run[length - 1] = last;
+
+        stamp = new Stamp(new char[][] {run}, new int[] {0}, new int[] {0}, new boolean[] {!line.horizontal});
+        put(key, stamp);
+        return stamp;
+    }
+
+    /**
+     * Writes the {@link Stamp} to a {@link Display}.
+     *
+     * @param display    the {@link Display} to write to
+     * @param x          the x value, in characters, of the top left corner
+     * @param y          the y value, in characters, of the top left corner
+     * @param foreground the foreground color
+     * @param background the background color
+     */
+    void draw(Display display, int x, int y, Color foreground, Color background)
+    {
+        for (int run = 0; run < runs.length; run++)
+        {
+            char[] characters = runs[run];
+            if (vertical[run])
+            {
+                display.writeColumn(x + runX[run], y + runY[run], characters, 0, characters.length, foreground,
+                        background);
+            }
+            else
+            {
+                display.write(x + runX[run], y + runY[run], characters, 0, characters.length, foreground,
+                        background);
+            }
+        }
+    }
+
+    /**
+     * Returns a cached {@link Stamp}.
+     *
+     * @param key the characters and size of the {@link Stamp}
+     * @return the cached {@link Stamp}, or null if there is none
+     */
+    private static Stamp get(Key key)
+    {
+        return CACHE.get(key);
+    }
+
+    /**
+     * Caches a {@link Stamp}.
+     *
+     * @param key   the characters and size of the {@link Stamp}
+     * @param stamp the {@link Stamp} to cache
+     */
+    private static void put(Key key, Stamp stamp)
+    {
+        if (CACHE.size() >= CACHE_SIZE)
+        {
+            CACHE.clear();
+        }
+        CACHE.put(key, stamp);
+    }
+
+    /**
+     * The characters and size that identify a {@link Stamp}.
+     */
+    private static final class Key
+    {
+        /**
+         * The characters of the {@link Border} or {@link Line}.
+         */
+        private final char[] characters;
+
+        /**
+         * The width or length.
+         */
+        private final int width;
+
+        /**
+         * The height, or 0 for a {@link Line}.
+         */
+        private final int height;
+
+        /**
+         * Creates a {@link Key}.
+         *
+         * @param characters the characters of the {@link Border} or {@link Line}
+         * @param width      the width or length
+         * @param height     the height, or 0 for a {@link Line}
+         */
+        Key(char[] characters, int width, int height)
+        {
+            this.characters = characters;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+
+            Key other = (Key) o;
+            return width == other.width && height == other.height && Arrays.equals(characters, other.characters);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (Arrays.hashCode(characters) * 31 + width) * 31 + height;
+        }
+    }
+}
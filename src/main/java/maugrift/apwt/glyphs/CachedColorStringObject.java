@@ -0,0 +1,137 @@
+package maugrift.apwt.glyphs;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link ColorStringObject} that remembers the {@link ColorString} it last rendered and returns it again until its
+ * {@link #getVersion() version} changes. Subclasses implement {@link #renderColorString()} and call {@link
+ * #invalidate()} whenever a change would alter the output, or override {@link #getVersion()} to derive the version from
+ * state they already track.
+ * <p>
+ * The cached {@link ColorString} is {@link ColorString#freeze() frozen} and kept internal, so it can be read from any
+ * thread. Each call to {@link #toColorString()} returns a copy of it that shares its arrays until the caller first
+ * modifies it, so callers may change the result freely at the cost of one small allocation.
+ *
+ * @author Maugrift
+ */
+public abstract class CachedColorStringObject implements ColorStringObject
+{
+    /**
+     * The version incremented by {@link #invalidate()}.
+     */
+    private final AtomicInteger version;
+
+    /**
+     * The last rendered {@link ColorString} and the version it was rendered at; null if nothing has been rendered.
+     */
+    private volatile Rendering rendering;
+
+    /**
+     * Creates a {@link CachedColorStringObject} with nothing cached.
+     */
+    public CachedColorStringObject()
+    {
+        version = new AtomicInteger();
+    }
+
+    /**
+     * Renders a new {@link ColorString} representing this object. Called by {@link #toColorString()} only when the
+     * cached rendering is missing or out of date.
+     *
+     * @return a new {@link ColorString} representing this object
+     */
+    protected abstract ColorString renderColorString();
+
+    /**
+     * Returns the current version of this object. The cached {@link ColorString} is reused for as long as this value
+     * stays the same.
+     *
+     * @return the current version of this object
+     */
+    public int getVersion()
+    {
+        return version.get();
+    }
+
+    /**
+     * Discards the cached {@link ColorString}, so that the next call to {@link #toColorString()} renders a new one.
+     */
+    public void invalidate()
+    {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Returns a {@link ColorString} representing this object for the caller to keep or change, rendering it first if
+     * this object has changed since it was last rendered. The characters are only copied if the result is modified.
+     *
+     * @return a new {@link ColorString} representing this object
+     */
+    @Override
+    public ColorString toColorString()
+    {
+        return new ColorString(getRendering());
+    }
+
+    /**
+     * Returns the {@link ColorString} of a {@link ColorStringObject} for reading only. For a {@link
+     * CachedColorStringObject}, this is the frozen cached {@link ColorString} itself, so nothing is allocated; use it
+     * only where the characters are copied straight away, such as when appending.
+     *
+     * @param o the {@link ColorStringObject} to read
+     * @return a {@link ColorString} representing the object, which must not be kept or modified
+     */
+    static ColorString read(ColorStringObject o)
+    {
+        return o instanceof CachedColorStringObject ? ((CachedColorStringObject) o).getRendering() : o.toColorString();
+    }
+
+    /**
+     * Returns the cached, frozen {@link ColorString} representing this object, rendering it first if this object has
+     * changed since it was last rendered.
+     *
+     * @return the frozen {@link ColorString} representing this object
+     */
+    private ColorString getRendering()
+    {
+        int current = getVersion();
+        Rendering cached = rendering;
+        if (cached != null && cached.version == current)
+        {
+            return cached.string;
+        }
+
+        // If the version changes during rendering, the stale stamp makes the next call render again
+        ColorString string = renderColorString().freeze();
+        rendering = new Rendering(current, string);
+        return string;
+    }
+
+    /**
+     * A rendered {@link ColorString} paired with the version it was rendered at, published as a single unit.
+     */
+    private static final class Rendering
+    {
+        /**
+         * The version of the object when the {@link ColorString} was rendered.
+         */
+        final int version;
+
+        /**
+         * The rendered {@link ColorString}.
+         */
+        final ColorString string;
+
+        /**
+         * Creates a {@link Rendering} of the given {@link ColorString} at the given version.
+         *
+         * @param version the version of the object when the {@link ColorString} was rendered
+         * @param string  the rendered {@link ColorString}
+         */
+        Rendering(int version, ColorString string)
+        {
+            this.version = version;
+            this.string = string;
+        }
+    }
+}
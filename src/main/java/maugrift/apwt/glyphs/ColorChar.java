@@ -100,8 +100,41 @@ public class ColorChar extends ColoredObject
     @Override
     public int hashCode()
     {
-        int hash = 5;
-        hash = 31 * hash + this.character;
+        return hash(character, getForeground(), getBackground());
+    }
+
+    /**
+     * Returns the hash of a character with the given colors, matching {@link #hashCode()} without requiring a {@link
+     * ColorChar} to exist.
+     *
+     * @param character  the character
+     * @param foreground the foreground color, may be null
+     * @param background the background color, may be null
+     * @return the hash of the character and its colors
+     */
+    static int hash(char character, Color foreground, Color background)
+    {
+        int hash = character;
+        hash = 31 * hash + (foreground == null ? 0 : foreground.getRGB());
+        hash = 31 * hash + (background == null ? 0 : background.getRGB());
+        return mix(hash);
+    }
+
+    /**
+     * Spreads the bits of a hash so that hashes differing only in a few low bits, such as neighboring characters or
+     * similar colors, land in different buckets.
+     *
+     * @param hash the hash to mix
+     * @return the mixed hash
+     */
+    static int mix(int hash)
+    {
+        // Finalization step of MurmurHash3
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
         return hash;
     }
 
@@ -5,38 +5,155 @@ import maugrift.apwt.display.Display;
 import java.awt.*;
 import java.util.*;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * A List of {@link ColorChar ColorChars} that can be used as a multicolored String. It can also be used as a system of
- * mapping characters to colors.
+ * A sequence of {@link ColorChar ColorChars} that can be used as a multicolored String. It can also be used as a system
+ * of mapping characters to colors. Characters and their colors are stored in parallel arrays, so colors can be changed
+ * in place over any range without copying characters.
+ * <p>
+ * A {@link ColorString} can be {@link #freeze() frozen}, after which any attempt to modify it throws an
+ * UnsupportedOperationException. Frozen {@link ColorString ColorStrings} never change, so they can be read from any
+ * number of threads without locking once safely published, for instance through a volatile field, a concurrent
+ * collection or {@link javax.swing.SwingUtilities#invokeLater(Runnable)}. Copies and sub-sequences of a frozen {@link
+ * ColorString} share its arrays instead of copying them; a copy only copies the arrays when it is first modified.
  *
  * @author Maugrift
  */
 public class ColorString implements CharSequence
 {
     /**
-     * The List of specific {@link ColorChar ColorChars} in the {@link ColorString}.
+     * The capacity of the arrays of an empty {@link ColorString}.
      */
-    private List<ColorChar> characters;
+    private static final int DEFAULT_CAPACITY = 16;
 
     /**
-     * Creates a {@link ColorString} from an existing List of {@link ColorChar ColorChars}.
+     * The characters in the {@link ColorString}, starting at {@link #offset}; only {@link #length} are used.
+     */
+    private char[] characters;
+
+    /**
+     * The foreground color of each character, null where unspecified.
+     */
+    private Color[] foregrounds;
+
+    /**
+     * The background color of each character, null where unspecified.
+     */
+    private Color[] backgrounds;
+
+    /**
+     * The index in the arrays of the first character. Always 0 unless the arrays are {@link #shared}.
+     */
+    private int offset;
+
+    /**
+     * The number of characters in the {@link ColorString}.
+     */
+    private int length;
+
+    /**
+     * True if the {@link ColorString} can no longer be modified.
+     */
+    private boolean frozen;
+
+    /**
+     * True if the arrays may also be used by a frozen {@link ColorString} or a {@link ColorStringBuilder}, in which
+     * case they are copied before the first modification.
+     */
+    private boolean shared;
+
+    /**
+     * The cached hash of the {@link ColorString}, or 0 if it has not been computed since the last change. A single
+     * int is used so that frozen {@link ColorString ColorStrings} can cache their hash from any thread.
+     */
+    private int hash;
+
+    /**
+     * The number of times the characters have changed, so that a {@link TextWrapper} can tell whether the breaks it
+     * computed for this {@link ColorString} still apply without comparing every character.
+     */
+    private int version;
+
+    /**
+     * True if searches should build and use a {@link SearchIndex}.
+     */
+    private boolean indexed;
+
+    /**
+     * The index of the current characters, built on the first search after they change; null if not yet built.
+     */
+    private SearchIndex index;
+
+    /**
+     * Creates a {@link ColorString} that takes ownership of the given arrays without copying them.
+     *
+     * @param characters  the characters; only the first length are used
+     * @param foregrounds the foreground color of each character
+     * @param backgrounds the background color of each character
+     * @param length      the number of characters in use
+     */
+    ColorString(char[] characters, Color[] foregrounds, Color[] backgrounds, int length)
+    {
+        this(characters, foregrounds, backgrounds, 0, length);
+    }
+
+    /**
+     * Creates a {@link ColorString} over a range of the given arrays without copying them. If the arrays are used
+     * elsewhere, the {@link ColorString} must be frozen or marked as {@link #shared}.
+     *
+     * @param characters  the characters
+     * @param foregrounds the foreground color of each character
+     * @param backgrounds the background color of each character
+     * @param offset      the index in the arrays of the first character
+     * @param length      the number of characters in use
+     */
+    ColorString(char[] characters, Color[] foregrounds, Color[] backgrounds, int offset, int length)
+    {
+        this.characters = characters;
+        this.foregrounds = foregrounds;
+        this.backgrounds = backgrounds;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Creates a {@link ColorString} from an existing List of {@link ColorChar ColorChars}. The characters and their
+     * colors are copied, so later changes to the List or its {@link ColorChar ColorChars} do not affect the {@link
+     * ColorString}.
      *
      * @param s the List of {@link ColorChar ColorChars} that will be used in the {@link ColorString}
      */
     public ColorString(List<ColorChar> s)
     {
-        characters = s;
+        this(s.size());
+        for (ColorChar c : s)
+        {
+            append(c.getChar(), c.getForeground(), c.getBackground());
+        }
     }
 
     /**
-     * Creates a {@link ColorString} from another {@link ColorString}.
+     * Creates a modifiable {@link ColorString} from another {@link ColorString}. If the other {@link ColorString} is
+     * frozen, its arrays are shared until the copy is first modified.
      *
      * @param copying the {@link ColorString} to copy
      */
     public ColorString(ColorString copying)
     {
-        this(new ArrayList<>(copying.characters));
+        this(copying.characters, copying.foregrounds, copying.backgrounds, copying.offset, copying.length);
+        if (copying.frozen)
+        {
+            shared = true;
+            index = copying.index;
+        }
+        else
+        {
+            unshare();
+        }
+        hash = copying.hash;
+        indexed = copying.indexed;
     }
 
     /**
@@ -47,37 +164,41 @@ public class ColorString implements CharSequence
      */
     public ColorString(ColorStringObject o)
     {
-        this(o.toColorString());
+        this(CachedColorStringObject.read(o));
     }
 
     /**
-     * Creates a {@link ColorString} from an array of {@link ColorChar ColorChars}, converting it into a List.
+     * Creates a {@link ColorString} from an array of {@link ColorChar ColorChars}, copying their characters and
+     * colors.
      *
-     * @param c the array of {@link ColorChar ColorChars} that will be converted in the List used by the {@link
-     *          ColorString}
+     * @param c the array of {@link ColorChar ColorChars} that will be copied into the {@link ColorString}
      */
     public ColorString(ColorChar[] c)
     {
-        this(new ArrayList<>(Arrays.asList(c)));
+        this(Arrays.asList(c));
     }
 
     /**
      * Creates a {@link ColorString} from a String, consisting of multiple characters with the specified colors.
      *
-     * @param s          the String that will be converted into the List used by the {@link ColorString}
+     * @param s          the String that will be converted into the {@link ColorString}
      * @param foreground the color of the characters in the String
      * @param background the color of the background
      */
     public ColorString(String s, Color foreground, Color background)
     {
-        this(colorString(s, foreground, background));
+        this(s.length());
+        s.getChars(0, s.length(), characters, 0);
+        Arrays.fill(foregrounds, 0, s.length(), foreground);
+        Arrays.fill(backgrounds, 0, s.length(), background);
+        length = s.length();
     }
 
     /**
      * Creates a {@link ColorString} from a String, consisting of multiple characters with the specified foreground
      * color.
      *
-     * @param s          the String that will be converted into the List used by the {@link ColorString}
+     * @param s          the String that will be converted into the {@link ColorString}
      * @param foreground the color of the characters in the String
      */
     public ColorString(String s, Color foreground)
@@ -88,7 +209,7 @@ public class ColorString implements CharSequence
     /**
      * Creates a {@link ColorString} from a String, consisting of multiple characters without a specified color.
      *
-     * @param s the String that will be converted into the List used by the {@link ColorString}
+     * @param s the String that will be converted into the {@link ColorString}
      */
     public ColorString(String s)
     {
@@ -98,30 +219,95 @@ public class ColorString implements CharSequence
     /**
      * Creates a {@link ColorString} from a {@link ColorChar}, consisting of a single colored character.
      *
-     * @param c the {@link ColorChar} that will be added to the List used by the {@link ColorString}
+     * @param c the {@link ColorChar} that will be copied into the {@link ColorString}
      */
     public ColorString(ColorChar c)
     {
-        this();
+        this(1);
         add(c);
     }
 
     /**
-     * Creates a {@link ColorString} with an empty ArrayList.
+     * Creates an empty {@link ColorString}.
      */
     public ColorString()
     {
-        this(new ArrayList<>());
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty {@link ColorString} with room for the given number of characters.
+     *
+     * @param capacity the number of characters to make room for
+     */
+    private ColorString(int capacity)
+    {
+        this(new char[capacity], new Color[capacity], new Color[capacity], 0);
     }
 
     /**
-     * Returns the List of {@link ColorChar ColorChars} used by the {@link ColorString}.
+     * Returns a List view of the {@link ColorString}'s {@link ColorChar ColorChars}. The view is backed by the {@link
+     * ColorString}, so it may be used to add, remove and replace characters. Each {@link ColorChar} it returns writes
+     * any change to its character or colors back to the index it was read from, so {@code
+     * getCharacters().get(i).setForeground(color)} recolors the character at i; after characters are added or removed
+     * before that index, it refers to whichever character has moved there. To recolor many characters at once, the
+     * range methods such as {@link #recolor(int, int, Color, Color)} are faster. If the {@link ColorString} is frozen,
+     * the view and the {@link ColorChar ColorChars} it returns are read-only.
      *
-     * @return the {@link ColorString}'s List of {@link ColorChar ColorChars}
+     * @return a List view of the {@link ColorString}'s {@link ColorChar ColorChars}
      */
-    public List getCharacters()
+    public List<ColorChar> getCharacters()
     {
-        return characters;
+        return new AbstractList<ColorChar>()
+        {
+            @Override
+            public ColorChar get(int index)
+            {
+                checkIndex(index);
+                return new LiveColorChar(index);
+            }
+
+            @Override
+            public int size()
+            {
+                return length;
+            }
+
+            @Override
+            public ColorChar set(int index, ColorChar element)
+            {
+                ColorChar previous = getColorCharAt(index);
+                mutate();
+                characters[index] = element.getChar();
+                foregrounds[index] = element.getForeground();
+                backgrounds[index] = element.getBackground();
+                charactersModified();
+                return previous;
+            }
+
+            @Override
+            public void add(int index, ColorChar element)
+            {
+                insert(index, element);
+                modCount++;
+            }
+
+            @Override
+            public ColorChar remove(int index)
+            {
+                ColorChar removed = getColorCharAt(index);
+                delete(index, index + 1);
+                modCount++;
+                return removed;
+            }
+
+            @Override
+            protected void removeRange(int fromIndex, int toIndex)
+            {
+                delete(fromIndex, toIndex);
+                modCount++;
+            }
+        };
     }
 
     /**
@@ -132,7 +318,8 @@ public class ColorString implements CharSequence
      */
     public ColorString add(char c)
     {
-        characters.add(new ColorChar(c));
+        append(c, null, null);
+        charactersModified();
         return this;
     }
 
@@ -144,7 +331,8 @@ public class ColorString implements CharSequence
      */
     public ColorString add(ColorChar c)
     {
-        characters.add(c);
+        append(c.getChar(), c.getForeground(), c.getBackground());
+        charactersModified();
         return this;
     }
 
@@ -156,7 +344,7 @@ public class ColorString implements CharSequence
      */
     public ColorString add(String s)
     {
-        return add(new ColorString(s));
+        return insert(length, s);
     }
 
     /**
@@ -167,7 +355,7 @@ public class ColorString implements CharSequence
      */
     public ColorString add(ColorStringObject o)
     {
-        return add(o.toColorString());
+        return add(CachedColorStringObject.read(o));
     }
 
     /**
@@ -178,8 +366,7 @@ public class ColorString implements CharSequence
      */
     public ColorString add(ColorString s)
     {
-        characters.addAll(Arrays.asList(s.toCharArray()));
-        return this;
+        return insert(length, s);
     }
 
     /**
@@ -191,7 +378,9 @@ public class ColorString implements CharSequence
      */
     public ColorString insert(int index, char c)
     {
-        characters.add(index, new ColorChar(c));
+        open(index, 1);
+        characters[index] = c;
+        charactersModified();
         return this;
     }
 
@@ -204,7 +393,11 @@ public class ColorString implements CharSequence
      */
     public ColorString insert(int index, ColorChar c)
     {
-        characters.add(index, c);
+        open(index, 1);
+        characters[index] = c.getChar();
+        foregrounds[index] = c.getForeground();
+        backgrounds[index] = c.getBackground();
+        charactersModified();
         return this;
     }
 
@@ -217,7 +410,10 @@ public class ColorString implements CharSequence
      */
     public ColorString insert(int index, String s)
     {
-        return insert(index, new ColorString(s));
+        open(index, s.length());
+        s.getChars(0, s.length(), characters, index);
+        charactersModified();
+        return this;
     }
 
     /**
@@ -230,7 +426,7 @@ public class ColorString implements CharSequence
      */
     public ColorString insert(int index, ColorStringObject o)
     {
-        return insert(index, o.toColorString());
+        return insert(index, CachedColorStringObject.read(o));
     }
 
     /**
@@ -242,7 +438,17 @@ public class ColorString implements CharSequence
      */
     public ColorString insert(int index, ColorString s)
     {
-        characters.addAll(index, Arrays.asList(s.toCharArray()));
+        if (s == this)
+        {
+            s = new ColorString(s);
+        }
+
+        int count = s.length;
+        open(index, count);
+        System.arraycopy(s.characters, s.offset, characters, index, count);
+        System.arraycopy(s.foregrounds, s.offset, foregrounds, index, count);
+        System.arraycopy(s.backgrounds, s.offset, backgrounds, index, count);
+        charactersModified();
         return this;
     }
 
@@ -254,13 +460,7 @@ public class ColorString implements CharSequence
      */
     public ColorString setForeground(Color foreground)
     {
-        for (int i = 0; i < characters.size(); i++)
-        {
-            ColorChar newChar = new ColorChar(characters.get(i));
-            newChar.setForeground(foreground);
-            characters.set(i, newChar);
-        }
-        return this;
+        return setForeground(0, length, foreground);
     }
 
     /**
@@ -271,13 +471,7 @@ public class ColorString implements CharSequence
      */
     public ColorString setBackground(Color background)
     {
-        for (int i = 0; i < characters.size(); i++)
-        {
-            ColorChar newChar = new ColorChar(characters.get(i));
-            newChar.setBackground(background);
-            characters.set(i, newChar);
-        }
-        return this;
+        return setBackground(0, length, background);
     }
 
     /**
@@ -289,235 +483,1185 @@ public class ColorString implements CharSequence
      */
     public ColorString setColors(Color foreground, Color background)
     {
-        return setForeground(foreground).setBackground(background);
+        return recolor(0, length, foreground, background);
     }
 
     /**
-     * Sets any unspecified (null) colors of each {@link ColorChar} to the default colors of the provided {@link
-     * Display}.
+     * Sets the foreground color of the characters in the given range.
      *
-     * @param display the {@link Display} with which to sync default colors
+     * @param start      the index of the first character to recolor
+     * @param end        the index after the last character to recolor
+     * @param foreground the foreground color to assign; null for unspecified
      * @return this for convenient chaining
      */
-    public ColorString syncDefaults(Display display)
+    public ColorString setForeground(int start, int end, Color foreground)
     {
-        for (ColorChar c : characters)
-        {
-            c.syncDefaults(display);
-        }
+        checkRange(start, end);
+        mutate();
+        Arrays.fill(foregrounds, start, end, foreground);
+        modified();
         return this;
     }
 
     /**
-     * Returns the first {@link ColorChar} found in the {@link ColorString} with a character that matches the one
-     * provided.
+     * Sets the background color of the characters in the given range.
      *
-     * @param character the character to look for in the {@link ColorString}'s {@link ColorChar ColorChars}
-     * @return the first {@link ColorChar} found in the {@link ColorString} with a character that matches the one
-     * provided, null if none are found
+     * @param start      the index of the first character to recolor
+     * @param end        the index after the last character to recolor
+     * @param background the background color to assign; null for unspecified
+     * @return this for convenient chaining
      */
-    public ColorChar getColorChar(char character)
+    public ColorString setBackground(int start, int end, Color background)
     {
-        for (ColorChar cc : characters)
-        {
-            if (cc.getChar() == character)
-            {
-                return cc;
-            }
-        }
-
-        return null;
+        checkRange(start, end);
+        mutate();
+        Arrays.fill(backgrounds, start, end, background);
+        modified();
+        return this;
     }
 
     /**
-     * Returns the {@link ColorString}'s List as an array of {@link ColorChar ColorChars}.
+     * Sets both colors of the characters in the given range.
      *
-     * @return the {@link ColorString}'s List as an array of {@link ColorChar ColorChars}
+     * @param start      the index of the first character to recolor
+     * @param end        the index after the last character to recolor
+     * @param foreground the foreground color to assign; null for unspecified
+     * @param background the background color to assign; null for unspecified
+     * @return this for convenient chaining
      */
-    public ColorChar[] toCharArray()
+    public ColorString recolor(int start, int end, Color foreground, Color background)
     {
-        return characters.toArray(new ColorChar[characters.size()]);
+        return setForeground(start, end, foreground).setBackground(start, end, background);
     }
 
-    @Override
-    public String toString()
+    /**
+     * Colors the foregrounds of the characters in the given range with a linear gradient, from the first color at
+     * start to the second at the last character of the range.
+     *
+     * @param start the index of the first character to recolor
+     * @param end   the index after the last character to recolor
+     * @param from  the color of the first character; may not be null
+     * @param to    the color of the last character; may not be null
+     * @return this for convenient chaining
+     */
+    public ColorString foregroundGradient(int start, int end, Color from, Color to)
     {
-        if (characters.isEmpty())
-        {
-            return "";
-        }
+        checkRange(start, end);
+        mutate();
+        gradient(foregrounds, start, end, from, to);
+        modified();
+        return this;
+    }
 
-        StringBuilder builder = new StringBuilder();
-        for (ColorChar character : characters)
-        {
-            builder.append(character.getChar());
-        }
-        return builder.toString();
+    /**
+     * Colors the backgrounds of the characters in the given range with a linear gradient, from the first color at
+     * start to the second at the last character of the range.
+     *
+     * @param start the index of the first character to recolor
+     * @param end   the index after the last character to recolor
+     * @param from  the color of the first character; may not be null
+     * @param to    the color of the last character; may not be null
+     * @return this for convenient chaining
+     */
+    public ColorString backgroundGradient(int start, int end, Color from, Color to)
+    {
+        checkRange(start, end);
+        mutate();
+        gradient(backgrounds, start, end, from, to);
+        modified();
+        return this;
     }
 
-    @Override
-    public int length()
+    /**
+     * Blends the foregrounds of the characters in the given range toward a color. Unspecified foregrounds are left
+     * unspecified.
+     *
+     * @param start  the index of the first character to recolor
+     * @param end    the index after the last character to recolor
+     * @param color  the color to blend toward; may not be null
+     * @param amount the fraction of the new color in the result, from 0.0 (unchanged) to 1.0 (replaced)
+     * @return this for convenient chaining
+     */
+    public ColorString blendForeground(int start, int end, Color color, double amount)
     {
-        return characters.size();
+        checkRange(start, end);
+        mutate();
+        blend(foregrounds, start, end, color, amount);
+        modified();
+        return this;
     }
 
-    @Override
-    public char charAt(int index)
+    /**
+     * Blends the backgrounds of the characters in the given range toward a color. Unspecified backgrounds are left
+     * unspecified.
+     *
+     * @param start  the index of the first character to recolor
+     * @param end    the index after the last character to recolor
+     * @param color  the color to blend toward; may not be null
+     * @param amount the fraction of the new color in the result, from 0.0 (unchanged) to 1.0 (replaced)
+     * @return this for convenient chaining
+     */
+    public ColorString blendBackground(int start, int end, Color color, double amount)
     {
-        return characters.get(index).getChar();
+        checkRange(start, end);
+        mutate();
+        blend(backgrounds, start, end, color, amount);
+        modified();
+        return this;
     }
 
     /**
-     * Returns the {@link ColorChar} at the given index of this
-	 * {@link ColorString}.
+     * Sets any unspecified (null) colors of each {@link ColorChar} to the default colors of the provided {@link
+     * Display}. See {@link ColoredObject#syncDefaults(Display)} for why this is rarely needed.
      *
-	 * @param index the index at which to retrieve the {@link ColorChar}; must
-	 *              be a valid index into the {@link ColorString}
-     * @return      the {@link ColorChar} at the given index
+     * @param display the {@link Display} with which to sync default colors
+     * @return this for convenient chaining
      */
-    public ColorChar getColorCharAt(int index)
+    public ColorString syncDefaults(Display display)
     {
-        return characters.get(index);
+        mutate();
+        for (int i = 0; i < length; i++)
+        {
+            foregrounds[i] = display.resolveForeground(foregrounds[i]);
+            backgrounds[i] = display.resolveBackground(backgrounds[i]);
+        }
+        modified();
+        return this;
     }
 
-    @Override
-    public ColorString subSequence(int start, int end)
+    /**
+     * Returns a copy of the first {@link ColorChar} found in the {@link ColorString} with a character that matches the
+     * one provided.
+     *
+     * @param character the character to look for in the {@link ColorString}'s {@link ColorChar ColorChars}
+     * @return a copy of the first {@link ColorChar} found in the {@link ColorString} with a character that matches the
+     * one provided, null if none are found
+     */
+    public ColorChar getColorChar(char character)
     {
-        return new ColorString(characters.subList(start, end));
+        int i = indexOf(character);
+        return i == -1 ? null : getColorCharAt(i);
     }
 
-    @Override
-    public boolean equals(Object o)
+    /**
+     * Sets whether searches should use an index of where each character occurs. The index is built by the first search
+     * after the characters change and reused until they change again; changing only colors keeps it. Indexing costs
+     * an int per character and pays off when the same {@link ColorString} is searched many times, such as when
+     * highlighting a search term in a log as it is typed.
+     *
+     * @param indexed true to index searches
+     * @return this for convenient chaining
+     */
+    public ColorString setIndexed(boolean indexed)
     {
-        if (!(o instanceof ColorString))
+        this.indexed = indexed;
+        if (!indexed)
         {
-            return false;
+            index = null;
         }
+        return this;
+    }
 
-        ColorString cs = (ColorString) o;
-        return characters.equals(cs.characters);
+    /**
+     * Returns true if searches use an index; see {@link #setIndexed(boolean)}.
+     *
+     * @return true if searches use an index
+     */
+    public boolean isIndexed()
+    {
+        return indexed;
     }
 
-    @Override
-    public int hashCode()
+    /**
+     * Returns the index of the first occurrence of the given character.
+     *
+     * @param c the character to find
+     * @return the index of the first occurrence, -1 if there is none
+     */
+    public int indexOf(char c)
     {
-        int hash = 7;
-        hash = 71 * hash + Objects.hashCode(this.characters);
-        return hash;
+        return indexOf(c, 0);
     }
 
     /**
-     * Converts the String into a List of {@link ColorChar ColorChars}, each with the provided foreground and background
-     * colors.
+     * Returns the index of the first occurrence of the given character at or after the given index.
      *
-     * @return a List of {@link ColorChar ColorChars} with the characters of the String and the provided foreground and
-     * background colors
+     * @param c    the character to find
+     * @param from the index at which to start searching; may be negative or past the end
+     * @return the index of the first occurrence at or after from, -1 if there is none
      */
-    private static List<ColorChar> colorString(String s, Color foreground, Color background)
+    public int indexOf(char c, int from)
     {
-        List<ColorChar> list = new ArrayList<>(s.length());
+        from = Math.max(from, 0);
+        SearchIndex searchIndex = getIndex();
+        if (searchIndex != null)
+        {
+            return searchIndex.next(c, from);
+        }
 
-        for (char c : s.toCharArray())
+        for (int i = from; i < length; i++)
         {
-            list.add(new ColorChar(c, foreground, background));
+            if (characters[offset + i] == c)
+            {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        return list;
+    /**
+     * Returns the index of the last occurrence of the given character.
+     *
+     * @param c the character to find
+     * @return the index of the last occurrence, -1 if there is none
+     */
+    public int lastIndexOf(char c)
+    {
+        return lastIndexOf(c, length - 1);
     }
 
     /**
-     * Converts the array of Strings provided into a single {@link ColorString} without specified colors.
+     * Returns the index of the last occurrence of the given character at or before the given index.
      *
-     * @param s the array of Strings to convert into a {@link ColorString}
-     * @return a {@link ColorString} consisting of {@link ColorChar ColorChars} with the characters of the String
+     * @param c    the character to find
+     * @param from the index at which to start searching backward; may be negative or past the end
+     * @return the index of the last occurrence at or before from, -1 if there is none
      */
-    public static ColorString toColorString(String... s)
+    public int lastIndexOf(char c, int from)
     {
-        List<ColorChar> chars = new ArrayList<>();
-        for (String ss : s)
+        from = Math.min(from, length - 1);
+        SearchIndex searchIndex = getIndex();
+        if (searchIndex != null)
+        {
+            return searchIndex.previous(c, from);
+        }
+
+        for (int i = from; i >= 0; i--)
         {
-            for (int i = 0; i < ss.length(); i++)
+            if (characters[offset + i] == c)
             {
-                chars.add(new ColorChar(ss.charAt(i)));
+                return i;
             }
         }
+        return -1;
+    }
 
-        return new ColorString(chars.toArray(new ColorChar[chars.size()]));
+    /**
+     * Returns the index of the first occurrence of the given text, ignoring colors.
+     *
+     * @param text the text to find
+     * @return the index at which the first occurrence starts, -1 if there is none
+     */
+    public int indexOf(CharSequence text)
+    {
+        return indexOf(text, 0);
     }
 
     /**
-     * Converts the array of Strings provided into an array of {@link ColorString ColorStrings}, one for each String.
+     * Returns the index of the first occurrence of the given text that starts at or after the given index, ignoring
+     * colors.
      *
-     * @param s the array of Strings to convert into an array of {@link ColorString ColorStrings}
-     * @return an array of {@link ColorString ColorStrings}, one for each String, with the characters of the Strings and
-     * no specified colors
+     * @param text the text to find
+     * @param from the index at which to start searching; may be negative or past the end
+     * @return the index at which the first occurrence starts, -1 if there is none
      */
-    public static ColorString[] toColorStringArray(String... s)
+    public int indexOf(CharSequence text, int from)
     {
-        ColorString[] lines = new ColorString[s.length];
+        from = Math.max(from, 0);
+        int textLength = text.length();
+        if (textLength == 0)
+        {
+            return Math.min(from, length);
+        }
 
-        for (int i = 0; i < s.length; i++)
+        int last = length - textLength;
+        SearchIndex searchIndex = getIndex();
+        if (searchIndex == null)
         {
-            lines[i] = new ColorString(s[i]);
+            for (int i = indexOf(text.charAt(0), from); i != -1 && i <= last; i = indexOf(text.charAt(0), i + 1))
+            {
+                if (matches(text, i))
+                {
+                    return i;
+                }
+            }
+            return -1;
         }
 
-        return lines;
+        // Only visit the positions of the text's rarest character
+        int offset = 0;
+        for (int i = 1; i < textLength; i++)
+        {
+            if (searchIndex.count(text.charAt(i)) < searchIndex.count(text.charAt(offset)))
+            {
+                offset = i;
+            }
+        }
+
+        char rarest = text.charAt(offset);
+        for (int i = searchIndex.next(rarest, from + offset); i != -1 && i - offset <= last;
+             i = searchIndex.next(rarest, i + 1))
+        {
+            if (matches(text, i - offset))
+            {
+                return i - offset;
+            }
+        }
+        return -1;
     }
 
     /**
-     * Converts the 2D array of {@link ColorChar ColorChars} provided into an array of {@link ColorString ColorStrings},
-     * with each {@link ColorChar}[] as a single {@link ColorString}.
+     * Returns true if the {@link ColorString} contains the given text, ignoring colors.
      *
-     * @param a the array of {@link ColorChar ColorChars} to convert into an array of {@link ColorString ColorStrings}
-     * @return an array of {@link ColorString ColorStrings}, one for each {@link ColorChar}
+     * @param text the text to find
+     * @return true if the text occurs in the {@link ColorString}
      */
-    public static ColorString[] toColorStringArray(ColorChar[]... a)
+    public boolean contains(CharSequence text)
     {
-        ColorString[] lines = new ColorString[a.length];
+        return indexOf(text) != -1;
+    }
 
-        for (int line = 0; line < a.length; line++)
+    /**
+     * Finds every match of a regular expression, returning each as a new {@link ColorString} that keeps the colors of
+     * the matched characters. Empty matches are skipped.
+     *
+     * @param pattern the regular expression to match
+     * @return a List of the matches, in order
+     */
+    public List<ColorString> find(Pattern pattern)
+    {
+        List<ColorString> matches = new ArrayList<>();
+        Matcher matcher = pattern.matcher(this);
+        while (matcher.find())
         {
-            lines[line] = new ColorString(a[line]);
+            if (matcher.end() > matcher.start())
+            {
+                matches.add(subSequence(matcher.start(), matcher.end()));
+            }
         }
-
-        return lines;
+        return matches;
     }
 
     /**
-     * Converts the List of Strings provided into a List of {@link ColorString ColorStrings}, one for each String.
+     * Recolors every occurrence of the given text. Null colors leave the existing color of the matched characters
+     * unchanged.
      *
-     * @param s the List of Strings to convert into a List of {@link ColorString ColorStrings}
-     * @return a List of {@link ColorString ColorStrings}, one for each String, with the characters of the Strings and
-     * no specified colors
+     * @param text       the text to highlight; if empty, nothing is highlighted
+     * @param foreground the foreground color of matches; null to keep the current foregrounds
+     * @param background the background color of matches; null to keep the current backgrounds
+     * @return the number of occurrences highlighted
      */
-    public static List<ColorString> toColorStringList(List<String> s)
+    public int highlight(CharSequence text, Color foreground, Color background)
     {
-        List<ColorString> lines = new LinkedList<>();
+        int textLength = text.length();
+        if (textLength == 0)
+        {
+            return 0;
+        }
 
-        for (String cur : s)
+        mutate();
+        int count = 0;
+        for (int i = indexOf(text, 0); i != -1; i = indexOf(text, i + textLength))
         {
-            lines.add(new ColorString(cur));
+            paint(i, i + textLength, foreground, background);
+            count++;
         }
 
-        return lines;
+        if (count > 0)
+        {
+            modified();
+        }
+        return count;
     }
 
     /**
-     * Converts the 2D array of {@link ColorChar ColorChars} provided into a List of {@link ColorString ColorStrings},
-     * with each {@link ColorChar}[] as a single {@link ColorString}.
+     * Recolors every match of a regular expression. Null colors leave the existing color of the matched characters
+     * unchanged. Empty matches are skipped.
      *
-     * @param a the array of {@link ColorChar ColorChars} to convert into a List of {@link ColorString ColorStrings}
-     * @return a List of {@link ColorString ColorStrings}, one for each {@link ColorChar}
+     * @param pattern    the regular expression to highlight
+     * @param foreground the foreground color of matches; null to keep the current foregrounds
+     * @param background the background color of matches; null to keep the current backgrounds
+     * @return the number of matches highlighted
      */
-    public static List<ColorString> toColorStringList(ColorChar[]... a)
+    public int highlight(Pattern pattern, Color foreground, Color background)
     {
-        List<ColorString> lines = new LinkedList<>();
-
-        for (ColorChar[] cur : a)
+        mutate();
+        int count = 0;
+        Matcher matcher = pattern.matcher(this);
+        while (matcher.find())
         {
-            lines.add(new ColorString(cur));
-        }
+            if (matcher.end() > matcher.start())
+            {
+                paint(matcher.start(), matcher.end(), foreground, background);
+                count++;
+            }
+        }
+
+        if (count > 0)
+        {
+            modified();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the {@link ColorString}'s characters as a new array of {@link ColorChar ColorChars}.
+     *
+     * @return the {@link ColorString}'s characters as an array of {@link ColorChar ColorChars}
+     */
+    public ColorChar[] toCharArray()
+    {
+        ColorChar[] array = new ColorChar[length];
+        for (int i = 0; i < length; i++)
+        {
+            array[i] = getColorCharAt(i);
+        }
+        return array;
+    }
+
+    @Override
+    public String toString()
+    {
+        return new String(characters, offset, length);
+    }
+
+    @Override
+    public int length()
+    {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index)
+    {
+        checkIndex(index);
+        return characters[offset + index];
+    }
+
+    /**
+     * Returns a copy of the {@link ColorChar} at the given index of this {@link ColorString}.
+     *
+     * @param index the index at which to retrieve the {@link ColorChar}; must be a valid index into the {@link
+     *              ColorString}
+     * @return a new {@link ColorChar} with the character and colors at the given index
+     */
+    public ColorChar getColorCharAt(int index)
+    {
+        checkIndex(index);
+        return new ColorChar(characters[offset + index], foregrounds[offset + index], backgrounds[offset + index]);
+    }
+
+    /**
+     * Returns the foreground color of the character at the given index of this {@link ColorString}.
+     *
+     * @param index the index of the character; must be a valid index into the {@link ColorString}
+     * @return the foreground color of the character, null if unspecified
+     */
+    public Color getForegroundAt(int index)
+    {
+        checkIndex(index);
+        return foregrounds[offset + index];
+    }
+
+    /**
+     * Returns the background color of the character at the given index of this {@link ColorString}.
+     *
+     * @param index the index of the character; must be a valid index into the {@link ColorString}
+     * @return the background color of the character, null if unspecified
+     */
+    public Color getBackgroundAt(int index)
+    {
+        checkIndex(index);
+        return backgrounds[offset + index];
+    }
+
+    /**
+     * Returns a new {@link ColorString} containing the given range of this {@link ColorString}. If this {@link
+     * ColorString} is frozen, the result is also frozen and shares its arrays, so taking it costs the same regardless
+     * of length; otherwise the range is copied.
+     *
+     * @param start the index of the first character to include
+     * @param end   the index after the last character to include
+     * @return a new {@link ColorString} with the characters in the given range
+     */
+    @Override
+    public ColorString subSequence(int start, int end)
+    {
+        checkRange(start, end);
+        if (frozen)
+        {
+            return new ColorString(characters, foregrounds, backgrounds, offset + start, end - start).freeze();
+        }
+
+        return new ColorString(Arrays.copyOfRange(characters, offset + start, offset + end),
+                Arrays.copyOfRange(foregrounds, offset + start, offset + end),
+                Arrays.copyOfRange(backgrounds, offset + start, offset + end), end - start);
+    }
+
+    /**
+     * Freezes this {@link ColorString}, so that any later attempt to modify it throws an
+     * UnsupportedOperationException. This takes constant time, as nothing is copied.
+     *
+     * @return this for convenient chaining
+     */
+    public ColorString freeze()
+    {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Returns true if this {@link ColorString} is {@link #freeze() frozen}.
+     *
+     * @return true if this {@link ColorString} can no longer be modified
+     */
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    /**
+     * Returns a frozen {@link ColorString} with the same contents as this one: this {@link ColorString} if it is
+     * already frozen, otherwise a frozen copy.
+     *
+     * @return a frozen {@link ColorString} with the same contents
+     */
+    public ColorString toFrozen()
+    {
+        return frozen ? this : new ColorString(this).freeze();
+    }
+
+    /**
+     * Prepares the arrays for modification. Throws if the {@link ColorString} is frozen and copies the arrays if they
+     * are shared, after which {@link #offset} is 0. Called at the start of every method that modifies the {@link
+     * ColorString}.
+     */
+    private void mutate()
+    {
+        if (frozen)
+        {
+            throw new UnsupportedOperationException("Frozen ColorStrings cannot be modified");
+        }
+
+        if (shared)
+        {
+            unshare();
+        }
+    }
+
+    /**
+     * Replaces the arrays with copies of the characters in use, starting at index 0.
+     */
+    private void unshare()
+    {
+        characters = Arrays.copyOfRange(characters, offset, offset + length);
+        foregrounds = Arrays.copyOfRange(foregrounds, offset, offset + length);
+        backgrounds = Arrays.copyOfRange(backgrounds, offset, offset + length);
+        offset = 0;
+        shared = false;
+    }
+
+    /**
+     * Discards cached values derived from the characters and their colors. Called by every method that may change
+     * colors only.
+     */
+    private void modified()
+    {
+        hash = 0;
+    }
+
+    /**
+     * Discards all cached values, including the {@link SearchIndex}. Called by every method that may change the
+     * characters themselves.
+     */
+    private void charactersModified()
+    {
+        hash = 0;
+        index = null;
+        version++;
+    }
+
+    /**
+     * Returns the number of times the characters of this {@link ColorString} have changed. Changes to colors alone are
+     * not counted.
+     *
+     * @return the number of times the characters have changed
+     */
+    int getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Returns the {@link SearchIndex} of the current characters, building it if needed.
+     *
+     * @return the {@link SearchIndex}, null if the {@link ColorString} is not indexed
+     */
+    private SearchIndex getIndex()
+    {
+        if (indexed && index == null)
+        {
+            index = new SearchIndex(characters, offset, length);
+        }
+        return index;
+    }
+
+    /**
+     * Returns true if the given text occurs at the given index, which must leave room for all of it.
+     *
+     * @param text  the text to compare
+     * @param start the index at which the text would start
+     * @return true if the characters starting at start match the text
+     */
+    private boolean matches(CharSequence text, int start)
+    {
+        for (int i = 0; i < text.length(); i++)
+        {
+            if (characters[offset + start + i] != text.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets the colors of a range, skipping null colors. Must follow a call to {@link #mutate()}; does not call {@link
+     * #modified()}.
+     *
+     * @param start      the index of the first character to recolor
+     * @param end        the index after the last character to recolor
+     * @param foreground the foreground color to assign; null to keep the current foregrounds
+     * @param background the background color to assign; null to keep the current backgrounds
+     */
+    private void paint(int start, int end, Color foreground, Color background)
+    {
+        if (foreground != null)
+        {
+            Arrays.fill(foregrounds, start, end, foreground);
+        }
+        if (background != null)
+        {
+            Arrays.fill(backgrounds, start, end, background);
+        }
+    }
+
+    /**
+     * Adds a character to the end of the arrays, growing them if needed. Does not call {@link
+     * #charactersModified()}.
+     *
+     * @param c          the character to add
+     * @param foreground the foreground color of the character
+     * @param background the background color of the character
+     */
+    private void append(char c, Color foreground, Color background)
+    {
+        mutate();
+        ensureCapacity(length + 1);
+        characters[length] = c;
+        foregrounds[length] = foreground;
+        backgrounds[length] = background;
+        length++;
+    }
+
+    /**
+     * Opens a gap of uncolored characters at the given index, shifting later characters to the right. Does not call
+     * {@link #charactersModified()}.
+     *
+     * @param index the index at which to open the gap
+     * @param count the number of characters in the gap
+     */
+    private void open(int index, int count)
+    {
+        if (index < 0 || index > length)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length);
+        }
+
+        mutate();
+        ensureCapacity(length + count);
+        int moved = length - index;
+        System.arraycopy(characters, index, characters, index + count, moved);
+        System.arraycopy(foregrounds, index, foregrounds, index + count, moved);
+        System.arraycopy(backgrounds, index, backgrounds, index + count, moved);
+        Arrays.fill(foregrounds, index, index + count, null);
+        Arrays.fill(backgrounds, index, index + count, null);
+        length += count;
+    }
+
+    /**
+     * Removes the characters in the given range, shifting later characters to the left.
+     *
+     * @param start the index of the first character to remove
+     * @param end   the index after the last character to remove
+     */
+    private void delete(int start, int end)
+    {
+        checkRange(start, end);
+        mutate();
+        int moved = length - end;
+        System.arraycopy(characters, end, characters, start, moved);
+        System.arraycopy(foregrounds, end, foregrounds, start, moved);
+        System.arraycopy(backgrounds, end, backgrounds, start, moved);
+        int newLength = length - (end - start);
+        // Release the colors past the end so they can be collected
+        Arrays.fill(foregrounds, newLength, length, null);
+        Arrays.fill(backgrounds, newLength, length, null);
+        length = newLength;
+        charactersModified();
+    }
+
+    /**
+     * Grows the arrays, if needed, so that they can hold at least the given number of characters.
+     *
+     * @param capacity the number of characters the arrays must be able to hold
+     */
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity <= characters.length)
+        {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, characters.length * 2 + 2);
+        characters = Arrays.copyOf(characters, newCapacity);
+        foregrounds = Arrays.copyOf(foregrounds, newCapacity);
+        backgrounds = Arrays.copyOf(backgrounds, newCapacity);
+    }
+
+    /**
+     * Checks that the given index refers to a character in the {@link ColorString}.
+     *
+     * @param index the index to check
+     */
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= length)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length);
+        }
+    }
+
+    /**
+     * Checks that the given range lies within the {@link ColorString}.
+     *
+     * @param start the index of the first character in the range
+     * @param end   the index after the last character in the range
+     */
+    private void checkRange(int start, int end)
+    {
+        if (start < 0 || end > length || start > end)
+        {
+            throw new IndexOutOfBoundsException("Range: [" + start + ", " + end + "), Length: " + length);
+        }
+    }
+
+    /**
+     * Fills a range of a color array with a linear gradient between two colors, including their alpha.
+     *
+     * @param colors the array of colors to fill
+     * @param start  the index of the first color to set
+     * @param end    the index after the last color to set
+     * @param from   the color at start
+     * @param to     the color at end - 1
+     */
+    private static void gradient(Color[] colors, int start, int end, Color from, Color to)
+    {
+        int steps = end - start - 1;
+        for (int i = start; i < end; i++)
+        {
+            colors[i] = steps == 0 ? from : mix(from, to, (double) (i - start) / steps);
+        }
+    }
+
+    /**
+     * Blends each color in a range of a color array toward another color, skipping nulls. Runs of the same color are
+     * blended once and share the result.
+     *
+     * @param colors the array of colors to blend
+     * @param start  the index of the first color to blend
+     * @param end    the index after the last color to blend
+     * @param color  the color to blend toward
+     * @param amount the fraction of the new color in the result
+     */
+    private static void blend(Color[] colors, int start, int end, Color color, double amount)
+    {
+        Color source = null;
+        Color result = null;
+        for (int i = start; i < end; i++)
+        {
+            if (colors[i] == null)
+            {
+                continue;
+            }
+
+            if (colors[i] != source)
+            {
+                source = colors[i];
+                result = mix(source, color, amount);
+            }
+            colors[i] = result;
+        }
+    }
+
+    /**
+     * Mixes two colors by linear interpolation of each of their components, including alpha.
+     *
+     * @param from   the first color
+     * @param to     the second color
+     * @param amount the fraction of the second color in the result, from 0.0 to 1.0
+     * @return the mixed color
+     */
+    public static Color mix(Color from, Color to, double amount)
+    {
+        int a = from.getRGB();
+        int b = to.getRGB();
+        int mixed = 0;
+        for (int shift = 0; shift < 32; shift += 8)
+        {
+            int ca = a >>> shift & 0xFF;
+            int cb = b >>> shift & 0xFF;
+            mixed |= (int) Math.round(ca + (cb - ca) * amount) << shift;
+        }
+        return new Color(mixed, true);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+
+        if (!(o instanceof ColorString))
+        {
+            return false;
+        }
+
+        ColorString cs = (ColorString) o;
+        if (length != cs.length || (hash != 0 && cs.hash != 0 && hash != cs.hash))
+        {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++)
+        {
+            int a = offset + i;
+            int b = cs.offset + i;
+            if (characters[a] != cs.characters[b] || !Objects.equals(foregrounds[a], cs.foregrounds[b]) ||
+                !Objects.equals(backgrounds[a], cs.backgrounds[b]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash covering every character and its colors. The hash is computed once and reused until the {@link
+     * ColorString} is modified.
+     *
+     * @return the hash of the {@link ColorString}
+     */
+    @Override
+    public int hashCode()
+    {
+        int h = hash;
+        if (h == 0)
+        {
+            h = 1;
+            for (int i = offset; i < offset + length; i++)
+            {
+                h = 31 * h + ColorChar.hash(characters[i], foregrounds[i], backgrounds[i]);
+            }
+            h = ColorChar.mix(h);
+            hash = h;
+        }
+
+        return h;
+    }
+
+    /**
+     * Converts the array of Strings provided into a single {@link ColorString} without specified colors.
+     *
+     * @param s the array of Strings to convert into a {@link ColorString}
+     * @return a {@link ColorString} consisting of {@link ColorChar ColorChars} with the characters of the String
+     */
+    public static ColorString toColorString(String... s)
+    {
+        ColorString string = new ColorString();
+        for (String ss : s)
+        {
+            string.add(ss);
+        }
+
+        return string;
+    }
+
+    /**
+     * Converts the array of Strings provided into an array of {@link ColorString ColorStrings}, one for each String.
+     *
+     * @param s the array of Strings to convert into an array of {@link ColorString ColorStrings}
+     * @return an array of {@link ColorString ColorStrings}, one for each String, with the characters of the Strings and
+     * no specified colors
+     */
+    public static ColorString[] toColorStringArray(String... s)
+    {
+        ColorString[] lines = new ColorString[s.length];
+
+        for (int i = 0; i < s.length; i++)
+        {
+            lines[i] = new ColorString(s[i]);
+        }
+
+        return lines;
+    }
+
+    /**
+     * Converts the 2D array of {@link ColorChar ColorChars} provided into an array of {@link ColorString ColorStrings},
+     * with each {@link ColorChar}[] as a single {@link ColorString}.
+     *
+     * @param a the array of {@link ColorChar ColorChars} to convert into an array of {@link ColorString ColorStrings}
+     * @return an array of {@link ColorString ColorStrings}, one for each {@link ColorChar}
+     */
+    public static ColorString[] toColorStringArray(ColorChar[]... a)
+    {
+        ColorString[] lines = new ColorString[a.length];
+
+        for (int line = 0; line < a.length; line++)
+        {
+            lines[line] = new ColorString(a[line]);
+        }
+
+        return lines;
+    }
+
+    /**
+     * Converts the List of Strings provided into a List of {@link ColorString ColorStrings}, one for each String.
+     *
+     * @param s the List of Strings to convert into a List of {@link ColorString ColorStrings}
+     * @return a List of {@link ColorString ColorStrings}, one for each String, with the characters of the Strings and
+     * no specified colors
+     */
+    public static List<ColorString> toColorStringList(List<String> s)
+    {
+        List<ColorString> lines = new LinkedList<>();
+
+        for (String cur : s)
+        {
+            lines.add(new ColorString(cur));
+        }
+
+        return lines;
+    }
+
+    /**
+     * Converts the 2D array of {@link ColorChar ColorChars} provided into a List of {@link ColorString ColorStrings},
+     * with each {@link ColorChar}[] as a single {@link ColorString}.
+     *
+     * @param a the array of {@link ColorChar ColorChars} to convert into a List of {@link ColorString ColorStrings}
+     * @return a List of {@link ColorString ColorStrings}, one for each {@link ColorChar}
+     */
+    public static List<ColorString> toColorStringList(ColorChar[]... a)
+    {
+        List<ColorString> lines = new LinkedList<>();
+
+        for (ColorChar[] cur : a)
+        {
+            lines.add(new ColorString(cur));
+        }
 
         return lines;
     }
+
+    /**
+     * A {@link ColorChar} returned by {@link #getCharacters()}, which writes every change back to its index of the
+     * {@link ColorString}.
+     */
+    private final class LiveColorChar extends ColorChar
+    {
+        /**
+         * The index of the character in the {@link ColorString}.
+         */
+        private final int index;
+
+        /**
+         * Creates a {@link LiveColorChar} holding the character at the given index.
+         *
+         * @param index the index of the character; must be a valid index into the {@link ColorString}
+         */
+        LiveColorChar(int index)
+        {
+            super(characters[offset + index], foregrounds[offset + index], backgrounds[offset + index]);
+            this.index = index;
+        }
+
+        @Override
+        public void setChar(char character)
+        {
+            checkIndex(index);
+            mutate();
+            characters[index] = character;
+            charactersModified();
+            super.setChar(character);
+        }
+
+        @Override
+        public void setForeground(Color color)
+        {
+            checkIndex(index);
+            mutate();
+            foregrounds[index] = color;
+            modified();
+            super.setForeground(color);
+        }
+
+        @Override
+        public void setBackground(Color color)
+        {
+            checkIndex(index);
+            mutate();
+            backgrounds[index] = color;
+            modified();
+            super.setBackground(color);
+        }
+
+        @Override
+        public void setColors(Color foreground, Color background)
+        {
+            setForeground(foreground);
+            setBackground(background);
+        }
+
+        @Override
+        public void syncDefaults(Display display)
+        {
+            if (getForeground() == null)
+            {
+                setForeground(display.getDefaultForegroundColor());
+            }
+
+            if (getBackground() == null)
+            {
+                setBackground(display.getDefaultBackgroundColor());
+            }
+        }
+    }
+
+    /**
+     * The positions of every character in a {@link ColorString}, grouped by character so that each group can be
+     * binary searched.
+     */
+    private static final class SearchIndex
+    {
+        /**
+         * The distinct characters, in ascending order.
+         */
+        private final char[] keys;
+
+        /**
+         * The offset into {@link #positions} of each key's group, followed by the total number of positions.
+         */
+        private final int[] starts;
+
+        /**
+         * The indices at which each character occurs, grouped in the order of {@link #keys} and ascending within each
+         * group.
+         */
+        private final int[] positions;
+
+        /**
+         * Builds the index of the given characters.
+         *
+         * @param characters the characters to index
+         * @param offset     the index in the array of the first character
+         * @param length     the number of characters in use
+         */
+        SearchIndex(char[] characters, int offset, int length)
+        {
+            char[] sorted = Arrays.copyOfRange(characters, offset, offset + length);
+            Arrays.sort(sorted);
+
+            int distinct = 0;
+            for (int i = 0; i < length; i++)
+            {
+                if (i == 0 || sorted[i] != sorted[i - 1])
+                {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            keys = Arrays.copyOf(sorted, distinct);
+
+            starts = new int[distinct + 1];
+            for (int i = 0; i < length; i++)
+            {
+                starts[Arrays.binarySearch(keys, characters[offset + i]) + 1]++;
+            }
+            for (int i = 1; i <= distinct; i++)
+            {
+                starts[i] += starts[i - 1];
+            }
+
+            // Scanning in order keeps each group ascending
+            positions = new int[length];
+            int[] cursors = Arrays.copyOf(starts, distinct);
+            for (int i = 0; i < length; i++)
+            {
+                positions[cursors[Arrays.binarySearch(keys, characters[offset + i])]++] = i;
+            }
+        }
+
+        /**
+         * Returns the number of times a character occurs.
+         *
+         * @param c the character to count
+         * @return the number of occurrences
+         */
+        int count(char c)
+        {
+            int key = Arrays.binarySearch(keys, c);
+            return key < 0 ? 0 : starts[key + 1] - starts[key];
+        }
+
+        /**
+         * Returns the first index of a character at or after the given index.
+         *
+         * @param c    the character to find
+         * @param from the index at which to start searching; must not be negative
+         * @return the first index of the character at or after from, -1 if there is none
+         */
+        int next(char c, int from)
+        {
+            int key = Arrays.binarySearch(keys, c);
+            if (key < 0)
+            {
+                return -1;
+            }
+
+            int found = Arrays.binarySearch(positions, starts[key], starts[key + 1], from);
+            int position = found >= 0 ? found : -found - 1;
+            return position < starts[key + 1] ? positions[position] : -1;
+        }
+
+        /**
+         * Returns the last index of a character at or before the given index.
+         *
+         * @param c    the character to find
+         * @param from the index at which to start searching backward
+         * @return the last index of the character at or before from, -1 if there is none
+         */
+        int previous(char c, int from)
+        {
+            int key = Arrays.binarySearch(keys, c);
+            if (key < 0 || from < 0)
+            {
+                return -1;
+            }
+
+            int found = Arrays.binarySearch(positions, starts[key], starts[key + 1], from);
+            int position = found >= 0 ? found : -found - 2;
+            return position >= starts[key] ? positions[position] : -1;
+        }
+    }
 }
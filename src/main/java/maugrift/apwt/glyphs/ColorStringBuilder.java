@@ -0,0 +1,561 @@
+package maugrift.apwt.glyphs;
+
+import maugrift.apwt.display.Display;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * A reusable, mutable sequence of colored characters for building text that changes every frame, such as status bars.
+ * Characters and colors are kept in parallel arrays that grow as needed and are kept when the builder is {@link
+ * #clear() cleared}, so a builder that is cleared and refilled each frame stops allocating once its arrays are large
+ * enough. Numbers are appended digit by digit without creating Strings, and the result can be written directly to a
+ * {@link Display} with {@link Display#write(int, int, ColorStringBuilder)}. When the text needs to outlive the frame,
+ * {@link #freeze()} hands it over as a frozen {@link ColorString} without copying.
+ *
+ * @author Maugrift
+ */
+public class ColorStringBuilder implements CharSequence
+{
+    /**
+     * The number of characters a {@link ColorStringBuilder} can hold before it first needs to grow.
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The number of decimal places used by {@link #append(double)}.
+     */
+    public static final int DEFAULT_PRECISION = 2;
+
+    /**
+     * The largest number of decimal places supported by {@link #append(double, int)}.
+     */
+    public static final int MAX_PRECISION = 18;
+
+    /**
+     * Powers of ten used to scale the fractional part of doubles, indexed by exponent.
+     */
+    private static final long[] POWERS_OF_TEN = new long[MAX_PRECISION + 1];
+
+    static
+    {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+        {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * The characters in the {@link ColorStringBuilder}; only the first {@link #length} are in use.
+     */
+    private char[] characters;
+
+    /**
+     * The foreground color of each character, null for the {@link Display}'s default.
+     */
+    private Color[] foregrounds;
+
+    /**
+     * The background color of each character, null for the {@link Display}'s default.
+     */
+    private Color[] backgrounds;
+
+    /**
+     * The number of characters currently in the {@link ColorStringBuilder}.
+     */
+    private int length;
+
+    /**
+     * True if the arrays are used by a frozen {@link ColorString}, in which case they are replaced before the next
+     * change.
+     */
+    private boolean shared;
+
+    /**
+     * The foreground color given to appended characters that do not have their own colors.
+     */
+    private Color foreground;
+
+    /**
+     * The background color given to appended characters that do not have their own colors.
+     */
+    private Color background;
+
+    /**
+     * Creates an empty {@link ColorStringBuilder} that can hold the given number of characters before growing.
+     *
+     * @param capacity the initial capacity; must be non-negative
+     */
+    public ColorStringBuilder(int capacity)
+    {
+        if (capacity < 0)
+        {
+            throw new IllegalArgumentException("Capacity must be >= 0; was " + capacity);
+        }
+
+        characters = new char[capacity];
+        foregrounds = new Color[capacity];
+        backgrounds = new Color[capacity];
+    }
+
+    /**
+     * Creates an empty {@link ColorStringBuilder} with the {@link #DEFAULT_CAPACITY default capacity}.
+     */
+    public ColorStringBuilder()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns the foreground color given to appended characters.
+     *
+     * @return the current foreground color, null for the {@link Display}'s default
+     */
+    public Color getForeground()
+    {
+        return foreground;
+    }
+
+    /**
+     * Returns the background color given to appended characters.
+     *
+     * @return the current background color, null for the {@link Display}'s default
+     */
+    public Color getBackground()
+    {
+        return background;
+    }
+
+    /**
+     * Sets the foreground color given to characters appended after this call.
+     *
+     * @param foreground the new foreground color, null for the {@link Display}'s default
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder setForeground(Color foreground)
+    {
+        this.foreground = foreground;
+        return this;
+    }
+
+    /**
+     * Sets the background color given to characters appended after this call.
+     *
+     * @param background the new background color, null for the {@link Display}'s default
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder setBackground(Color background)
+    {
+        this.background = background;
+        return this;
+    }
+
+    /**
+     * Sets both colors given to characters appended after this call.
+     *
+     * @param foreground the new foreground color, null for the {@link Display}'s default
+     * @param background the new background color, null for the {@link Display}'s default
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder setColors(Color foreground, Color background)
+    {
+        this.foreground = foreground;
+        this.background = background;
+        return this;
+    }
+
+    /**
+     * Returns the colors given to appended characters to the {@link Display}'s defaults.
+     *
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder resetColors()
+    {
+        return setColors(null, null);
+    }
+
+    /**
+     * Removes all characters and resets the current colors, keeping the allocated arrays for reuse.
+     *
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder clear()
+    {
+        if (shared)
+        {
+            // The contents belong to a frozen ColorString, so fresh arrays are needed but nothing has to be copied
+            characters = new char[characters.length];
+            foregrounds = new Color[foregrounds.length];
+            backgrounds = new Color[backgrounds.length];
+            shared = false;
+        }
+        else
+        {
+            // Release color references so that cleared builders do not keep them alive
+            Arrays.fill(foregrounds, 0, length, null);
+            Arrays.fill(backgrounds, 0, length, null);
+        }
+        length = 0;
+        return resetColors();
+    }
+
+    /**
+     * Shortens the {@link ColorStringBuilder} to the given length.
+     *
+     * @param newLength the new length; must be between 0 and the current length
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder truncate(int newLength)
+    {
+        if (newLength < 0 || newLength > length)
+        {
+            throw new IndexOutOfBoundsException("Length must be between 0 and " + length + "; was " + newLength);
+        }
+
+        if (!shared)
+        {
+            Arrays.fill(foregrounds, newLength, length, null);
+            Arrays.fill(backgrounds, newLength, length, null);
+        }
+        length = newLength;
+        return this;
+    }
+
+    /**
+     * Ensures that the {@link ColorStringBuilder} can hold at least the given number of characters without growing.
+     * Also copies the arrays if they were handed over by {@link #freeze()}, so it is called before every change.
+     *
+     * @param capacity the minimum capacity
+     */
+    public void ensureCapacity(int capacity)
+    {
+        if (capacity <= characters.length && !shared)
+        {
+            return;
+        }
+
+        int newCapacity = capacity <= characters.length ? characters.length : Math.max(capacity,
+                characters.length * 2 + 2);
+        char[] newCharacters = new char[newCapacity];
+        Color[] newForegrounds = new Color[newCapacity];
+        Color[] newBackgrounds = new Color[newCapacity];
+        System.arraycopy(characters, 0, newCharacters, 0, length);
+        System.arraycopy(foregrounds, 0, newForegrounds, 0, length);
+        System.arraycopy(backgrounds, 0, newBackgrounds, 0, length);
+        characters = newCharacters;
+        foregrounds = newForegrounds;
+        backgrounds = newBackgrounds;
+        shared = false;
+    }
+
+    /**
+     * Appends a character with the current colors.
+     *
+     * @param c the character to append
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder append(char c)
+    {
+        return append(c, foreground, background);
+    }
+
+    /**
+     * Appends a character with the given colors, leaving the current colors unchanged.
+     *
+     * @param c          the character to append
+     * @param foreground the foreground color of the character
+     * @param background the background color of the character
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder append(char c, Color foreground, Color background)
+    {
+        ensureCapacity(length + 1);
+        characters[length] = c;
+        foregrounds[length] = foreground;
+        backgrounds[length] = background;
+        length++;
+        return this;
+    }
+
+    /**
+     * Appends a {@link ColorChar} with its own colors.
+     *
+     * @param c the {@link ColorChar} to append
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder append(ColorChar c)
+    {
+        return append(c.getChar(), c.getForeground(), c.getBackground());
+    }
+
+    /**
+     * Appends a sequence of characters. {@link ColorString ColorStrings} and {@link ColorStringBuilder
+     * ColorStringBuilders} keep their own colors; any other sequence is given the current colors.
+     *
+     * @param s the characters to append; if null, nothing is appended
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder append(CharSequence s)
+    {
+        return s == null ? this : append(s, 0, s.length());
+    }
+
+    /**
+     * Appends part of a sequence of characters. {@link ColorString ColorStrings} and {@link ColorStringBuilder
+     * ColorStringBuilders} keep their own colors; any other sequence is given the current colors.
+     *
+     * @param s     the characters to append
+     * @param start the index of the first character to append
+     * @param end   the index after the last character to append
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder append(CharSequence s, int start, int end)
+    {
+        ensureCapacity(length + end - start);
+
+        if (s instanceof ColorString)
+        {
+            ColorString colored = (ColorString) s;
+            for (int i = start; i < end; i++)
+            {
+                append(colored.charAt(i), colored.getForegroundAt(i), colored.getBackgroundAt(i));
+            }
+        }
+        else if (s instanceof ColorStringBuilder)
+        {
+            ColorStringBuilder colored = (ColorStringBuilder) s;
+            for (int i = start; i < end; i++)
+            {
+                append(colored.characters[i], colored.foregrounds[i], colored.backgrounds[i]);
+            }
+        }
+        else
+        {
+            for (int i = start; i < end; i++)
+            {
+                append(s.charAt(i), foreground, background);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Appends the {@link ColorString} produced by a {@link ColorStringObject}, keeping its colors.
+     *
+     * @param o the {@link ColorStringObject} to append
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder append(ColorStringObject o)
+    {
+        return append(CachedColorStringObject.read(o));
+    }
+
+    /**
+     * Appends the decimal representation of an int with the current colors.
+     *
+     * @param value the int to append
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder append(int value)
+    {
+        return append((long) value);
+    }
+
+    /**
+     * Appends the decimal representation of a long with the current colors.
+     *
+     * @param value the long to append
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder append(long value)
+    {
+        // Digits are produced from the negative value so that Long.MIN_VALUE does not overflow
+        if (value < 0)
+        {
+            append('-');
+        }
+        else
+        {
+            value = -value;
+        }
+
+        int digits = 1;
+        for (long remaining = value / 10; remaining != 0; remaining /= 10)
+        {
+            digits++;
+        }
+
+        ensureCapacity(length + digits);
+        int end = length + digits;
+        for (int i = end - 1; i >= length; i--)
+        {
+            characters[i] = (char) ('0' - (value % 10));
+            foregrounds[i] = foreground;
+            backgrounds[i] = background;
+            value /= 10;
+        }
+
+        length = end;
+        return this;
+    }
+
+    /**
+     * Appends a double rounded to {@link #DEFAULT_PRECISION} decimal places with the current colors.
+     *
+     * @param value the double to append
+     * @return this for convenient chaining
+     * @see #append(double, int)
+     */
+    public ColorStringBuilder append(double value)
+    {
+        return append(value, DEFAULT_PRECISION);
+    }
+
+    /**
+     * Appends a double rounded to the given number of decimal places with the current colors. Values too large to be
+     * scaled into a long are appended with {@link Double#toString(double)}, which is the only case that allocates.
+     *
+     * @param value    the double to append
+     * @param decimals the number of digits to show after the decimal point; must be between 0 and {@link
+     *                 #MAX_PRECISION}
+     * @return this for convenient chaining
+     */
+    public ColorStringBuilder append(double value, int decimals)
+    {
+        if (decimals < 0 || decimals > MAX_PRECISION)
+        {
+            throw new IllegalArgumentException("Decimals must be between 0 and " + MAX_PRECISION + "; was " + decimals);
+        }
+
+        if (Double.isNaN(value))
+        {
+            return append("NaN");
+        }
+
+        if (Double.isInfinite(value))
+        {
+            return append(value > 0 ? "Infinity" : "-Infinity");
+        }
+
+        long scale = POWERS_OF_TEN[decimals];
+        double scaled = Math.abs(value) * scale;
+        if (scaled >= Long.MAX_VALUE)
+        {
+            return append(Double.toString(value));
+        }
+
+        long rounded = Math.round(scaled);
+        if (value < 0 && rounded != 0)
+        {
+            append('-');
+        }
+
+        append(rounded / scale);
+
+        if (decimals > 0)
+        {
+            append('.');
+            long fraction = rounded % scale;
+            for (int place = decimals - 1; place >= 0; place--)
+            {
+                append((char) ('0' + (fraction / POWERS_OF_TEN[place]) % 10));
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the foreground color of the character at the given index.
+     *
+     * @param index the index of the character
+     * @return the foreground color of the character, null for the {@link Display}'s default
+     */
+    public Color getForegroundAt(int index)
+    {
+        checkIndex(index);
+        return foregrounds[index];
+    }
+
+    /**
+     * Returns the background color of the character at the given index.
+     *
+     * @param index the index of the character
+     * @return the background color of the character, null for the {@link Display}'s default
+     */
+    public Color getBackgroundAt(int index)
+    {
+        checkIndex(index);
+        return backgrounds[index];
+    }
+
+    /**
+     * Creates a new {@link ColorString} with the contents of this {@link ColorStringBuilder}.
+     *
+     * @return a new {@link ColorString} with the contents of this {@link ColorStringBuilder}
+     */
+    public ColorString toColorString()
+    {
+        return subSequence(0, length);
+    }
+
+    /**
+     * Returns a {@link ColorString#freeze() frozen} {@link ColorString} with the contents of this {@link
+     * ColorStringBuilder}. This takes constant time: the {@link ColorString} takes over the builder's arrays, and the
+     * builder copies them only when it is next changed. Clearing the builder afterward allocates new arrays without
+     * copying.
+     *
+     * @return a frozen {@link ColorString} with the contents of this {@link ColorStringBuilder}
+     */
+    public ColorString freeze()
+    {
+        shared = true;
+        return new ColorString(characters, foregrounds, backgrounds, length).freeze();
+    }
+
+    @Override
+    public int length()
+    {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index)
+    {
+        checkIndex(index);
+        return characters[index];
+    }
+
+    @Override
+    public ColorString subSequence(int start, int end)
+    {
+        if (start < 0 || end > length || start > end)
+        {
+            throw new IndexOutOfBoundsException("Invalid range " + start + " to " + end + " for length " + length);
+        }
+
+        return new ColorString(Arrays.copyOfRange(characters, start, end), Arrays.copyOfRange(foregrounds, start, end),
+                Arrays.copyOfRange(backgrounds, start, end), end - start);
+    }
+
+    @Override
+    public String toString()
+    {
+        return new String(characters, 0, length);
+    }
+
+    /**
+     * Throws an IndexOutOfBoundsException if the given index is not that of a character in use.
+     *
+     * @param index the index to check
+     */
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= length)
+        {
+            throw new IndexOutOfBoundsException("Index must be between 0 and " + (length - 1) + "; was " + index);
+        }
+    }
+}
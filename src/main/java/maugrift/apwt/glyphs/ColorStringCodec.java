@@ -0,0 +1,699 @@
+package maugrift.apwt.glyphs;
+
+import maugrift.apwt.display.BufferedDisplay;
+import maugrift.apwt.display.Display;
+
+import java.awt.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads and writes {@link ColorString ColorStrings}, Lists of them, and {@link BufferedDisplay} frames in a compact,
+ * versioned binary format through NIO ByteBuffers.
+ * <p>
+ * Each message starts with a header of the two bytes {@code 'A' 'C'}, the format {@link #VERSION version}, and a byte
+ * giving the kind of message. A palette follows: a varint count, then each distinct color as four bytes of ARGB.
+ * Colors are referred to by their 1-based index in the palette, with 0 standing for an unspecified (null) color. The
+ * body stores characters as single CP437 bytes when all of them are below 256, or as UTF-16 pairs of bytes otherwise,
+ * followed by varint runs of (length, foreground index, background index). All multi-byte values are big-endian
+ * regardless of the byte order of the buffer.
+ * <p>
+ * Encoding allocates nothing once the codec's internal tables have grown to fit the data. A codec keeps state between
+ * calls and must not be shared between threads.
+ *
+ * @author Maugrift
+ */
+public class ColorStringCodec
+{
+    /**
+     * The version of the format written by this codec.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The kind of a message holding a single {@link ColorString}.
+     */
+    private static final int KIND_STRING = 0;
+
+    /**
+     * The kind of a message holding a List of {@link ColorString ColorStrings}.
+     */
+    private static final int KIND_LIST = 1;
+
+    /**
+     * The kind of a message holding a {@link BufferedDisplay} frame.
+     */
+    private static final int KIND_FRAME = 2;
+
+    /**
+     * The character set marker for characters stored as single CP437 bytes.
+     */
+    private static final int CHARSET_CP437 = 0;
+
+    /**
+     * The character set marker for characters stored as UTF-16 pairs of bytes.
+     */
+    private static final int CHARSET_UTF16 = 1;
+
+    /**
+     * The ARGB values of the palette being written, in index order starting from index 1.
+     */
+    private int[] palette;
+
+    /**
+     * The number of colors in the palette being written.
+     */
+    private int paletteSize;
+
+    /**
+     * An open-addressed hash table from ARGB values to palette indices; a slot is empty if its index is 0.
+     */
+    private int[] tableKeys;
+
+    /**
+     * The palette indices stored in each slot of {@link #tableKeys}.
+     */
+    private int[] tableIndices;
+
+    /**
+     * The colors of the palette being read, indexed by palette index; index 0 is always null.
+     */
+    private Color[] decoded;
+
+    /**
+     * Creates a {@link ColorStringCodec}.
+     */
+    public ColorStringCodec()
+    {
+        palette = new int[16];
+        tableKeys = new int[32];
+        tableIndices = new int[32];
+        decoded = new Color[17];
+    }
+
+    /**
+     * Writes a {@link ColorString} to the buffer as a complete message.
+     *
+     * @param buffer the buffer to write to; must have enough space remaining
+     * @param s      the {@link ColorString} to write; may be null
+     */
+    public void write(ByteBuffer buffer, ColorString s)
+    {
+        resetPalette();
+        addToPalette(s);
+        writeHeader(buffer, KIND_STRING);
+        writeString(buffer, s);
+    }
+
+    /**
+     * Writes a List of {@link ColorString ColorStrings} to the buffer as a complete message. Null elements, used as
+     * separators by windows, are preserved.
+     *
+     * @param buffer the buffer to write to; must have enough space remaining
+     * @param lines  the {@link ColorString ColorStrings} to write
+     */
+    public void write(ByteBuffer buffer, List<ColorString> lines)
+    {
+        resetPalette();
+        for (int i = 0; i < lines.size(); i++)
+        {
+            addToPalette(lines.get(i));
+        }
+
+        writeHeader(buffer, KIND_LIST);
+        writeVarint(buffer, lines.size());
+        for (int i = 0; i < lines.size(); i++)
+        {
+            writeString(buffer, lines.get(i));
+        }
+    }
+
+    /**
+     * Writes the contents of a {@link BufferedDisplay} to the buffer as a complete message.
+     *
+     * @param buffer the buffer to write to; must have enough space remaining
+     * @param frame  the {@link BufferedDisplay} to write
+     */
+    public void write(ByteBuffer buffer, BufferedDisplay frame)
+    {
+        int width = frame.getWidthInCharacters();
+        int height = frame.getHeightInCharacters();
+
+        resetPalette();
+        indexOf(frame.getDefaultForegroundColor());
+        indexOf(frame.getDefaultBackgroundColor());
+        boolean narrow = true;
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                narrow &= frame.getCharAt(x, y) < 256;
+                indexOf(frame.getForegroundAt(x, y));
+                indexOf(frame.getBackgroundAt(x, y));
+            }
+        }
+
+        writeHeader(buffer, KIND_FRAME);
+        writeVarint(buffer, width);
+        writeVarint(buffer, height);
+        writeVarint(buffer, indexOf(frame.getDefaultForegroundColor()));
+        writeVarint(buffer, indexOf(frame.getDefaultBackgroundColor()));
+
+        buffer.put((byte) (narrow ? CHARSET_CP437 : CHARSET_UTF16));
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                writeChar(buffer, frame.getCharAt(x, y), narrow);
+            }
+        }
+
+        int cells = width * height;
+        int runStart = 0;
+        for (int cell = 1; cell <= cells; cell++)
+        {
+            int startX = runStart % width;
+            int startY = runStart / width;
+            if (cell < cells && sameColor(frame.getForegroundAt(cell % width, cell / width),
+                    frame.getForegroundAt(startX, startY)) && sameColor(frame.getBackgroundAt(cell % width,
+                    cell / width), frame.getBackgroundAt(startX, startY)))
+            {
+                continue;
+            }
+
+            writeVarint(buffer, cell - runStart);
+            writeVarint(buffer, indexOf(frame.getForegroundAt(startX, startY)));
+            writeVarint(buffer, indexOf(frame.getBackgroundAt(startX, startY)));
+            runStart = cell;
+        }
+    }
+
+    /**
+     * Reads a message written by {@link #write(ByteBuffer, ColorString)}.
+     *
+     * @param buffer the buffer to read from
+     * @return the {@link ColorString} that was written; may be null
+     */
+    public ColorString readColorString(ByteBuffer buffer)
+    {
+        readHeader(buffer, KIND_STRING);
+        return readString(buffer);
+    }
+
+    /**
+     * Reads a message written by {@link #write(ByteBuffer, List)}.
+     *
+     * @param buffer the buffer to read from
+     * @return a new List of the {@link ColorString ColorStrings} that were written
+     */
+    public List<ColorString> readList(ByteBuffer buffer)
+    {
+        readHeader(buffer, KIND_LIST);
+        int size = readVarint(buffer);
+        List<ColorString> lines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+        {
+            lines.add(readString(buffer));
+        }
+        return lines;
+    }
+
+    /**
+     * Reads a message written by {@link #write(ByteBuffer, BufferedDisplay)} into a new {@link BufferedDisplay}.
+     *
+     * @param buffer the buffer to read from
+     * @return a new {@link BufferedDisplay} with the size, default colors, and contents of the frame
+     */
+    public BufferedDisplay readFrame(ByteBuffer buffer)
+    {
+        readHeader(buffer, KIND_FRAME);
+        int width = readVarint(buffer);
+        int height = readVarint(buffer);
+        BufferedDisplay frame = new BufferedDisplay(width, height, readColor(buffer), readColor(buffer));
+        readCells(buffer, frame, 0, 0, width, height);
+        return frame;
+    }
+
+    /**
+     * Reads a message written by {@link #write(ByteBuffer, BufferedDisplay)}, drawing the frame directly to a {@link
+     * Display} with its top-left cell at the given coordinates. Cells that fall outside of the {@link Display} are
+     * skipped.
+     *
+     * @param buffer  the buffer to read from
+     * @param display the {@link Display} to draw the frame to
+     * @param x       the x value, in characters, at which to draw the top-left cell
+     * @param y       the y value, in characters, at which to draw the top-left cell
+     */
+    public void readFrame(ByteBuffer buffer, Display display, int x, int y)
+    {
+        readHeader(buffer, KIND_FRAME);
+        int width = readVarint(buffer);
+        int height = readVarint(buffer);
+        readColor(buffer);
+        readColor(buffer);
+        readCells(buffer, display, x, y, width, height);
+    }
+
+    /**
+     * Reads the characters and color runs of a frame, writing each cell that lies on the {@link Display}.
+     *
+     * @param buffer  the buffer to read from
+     * @param display the {@link Display} to draw the frame to
+     * @param x       the x value, in characters, at which to draw the top-left cell
+     * @param y       the y value, in characters, at which to draw the top-left cell
+     * @param width   the width of the frame
+     * @param height  the height of the frame
+     */
+    private void readCells(ByteBuffer buffer, Display display, int x, int y, int width, int height)
+    {
+        boolean narrow = readCharset(buffer);
+        int cells = width * height;
+        int charStart = buffer.position();
+        int runPosition = charStart + cells * (narrow ? 1 : 2);
+
+        // Characters and runs are read in step by keeping a separate position for each
+        int cell = 0;
+        while (cell < cells)
+        {
+            buffer.position(runPosition);
+            int runLength = readVarint(buffer);
+            Color foreground = decoded[checkIndex(readVarint(buffer))];
+            Color background = decoded[checkIndex(readVarint(buffer))];
+            runPosition = buffer.position();
+
+            if (runLength < 1 || cell + runLength > cells)
+            {
+                throw new IllegalArgumentException("Invalid run length " + runLength + " at cell " + cell);
+            }
+
+            buffer.position(charStart + cell * (narrow ? 1 : 2));
+            for (int end = cell + runLength; cell < end; cell++)
+            {
+                char c = readChar(buffer, narrow);
+                int cellX = x + cell % width;
+                int cellY = y + cell / width;
+                if (display.contains(cellX, cellY))
+                {
+                    display.write(cellX, cellY, c, foreground, background);
+                }
+            }
+        }
+
+        buffer.position(runPosition);
+    }
+
+    /**
+     * Adds the colors of a {@link ColorString} to the palette being written.
+     *
+     * @param s the {@link ColorString} whose colors to add; may be null
+     */
+    private void addToPalette(ColorString s)
+    {
+        if (s == null)
+        {
+            return;
+        }
+
+        Color lastForeground = null;
+        Color lastBackground = null;
+        for (int i = 0; i < s.length(); i++)
+        {
+            Color foreground = s.getForegroundAt(i);
+            Color background = s.getBackgroundAt(i);
+            if (foreground != lastForeground)
+            {
+                indexOf(foreground);
+                lastForeground = foreground;
+            }
+            if (background != lastBackground)
+            {
+                indexOf(background);
+                lastBackground = background;
+            }
+        }
+    }
+
+    /**
+     * Writes a {@link ColorString} whose colors are already in the palette.
+     *
+     * @param buffer the buffer to write to
+     * @param s      the {@link ColorString} to write; may be null
+     */
+    private void writeString(ByteBuffer buffer, ColorString s)
+    {
+        // Lengths are stored plus one so that 0 can stand for null
+        if (s == null)
+        {
+            writeVarint(buffer, 0);
+            return;
+        }
+
+        int length = s.length();
+        writeVarint(buffer, length + 1);
+        if (length == 0)
+        {
+            return;
+        }
+
+        boolean narrow = true;
+        for (int i = 0; i < length && narrow; i++)
+        {
+            narrow = s.charAt(i) < 256;
+        }
+
+        buffer.put((byte) (narrow ? CHARSET_CP437 : CHARSET_UTF16));
+        for (int i = 0; i < length; i++)
+        {
+            writeChar(buffer, s.charAt(i), narrow);
+        }
+
+        int runStart = 0;
+        for (int i = 1; i <= length; i++)
+        {
+            if (i < length && sameColor(s.getForegroundAt(i), s.getForegroundAt(runStart)) &&
+                sameColor(s.getBackgroundAt(i), s.getBackgroundAt(runStart)))
+            {
+                continue;
+            }
+
+            writeVarint(buffer, i - runStart);
+            writeVarint(buffer, indexOf(s.getForegroundAt(runStart)));
+            writeVarint(buffer, indexOf(s.getBackgroundAt(runStart)));
+            runStart = i;
+        }
+    }
+
+    /**
+     * Reads a {@link ColorString} written by {@link #writeString(ByteBuffer, ColorString)}.
+     *
+     * @param buffer the buffer to read from
+     * @return the {@link ColorString} that was written; may be null
+     */
+    private ColorString readString(ByteBuffer buffer)
+    {
+        int length = readVarint(buffer) - 1;
+        if (length < 0)
+        {
+            return null;
+        }
+
+        char[] characters = new char[length];
+        Color[] foregrounds = new Color[length];
+        Color[] backgrounds = new Color[length];
+        if (length > 0)
+        {
+            boolean narrow = readCharset(buffer);
+            for (int i = 0; i < length; i++)
+            {
+                characters[i] = readChar(buffer, narrow);
+            }
+
+            int i = 0;
+            while (i < length)
+            {
+                int runLength = readVarint(buffer);
+                Color foreground = decoded[checkIndex(readVarint(buffer))];
+                Color background = decoded[checkIndex(readVarint(buffer))];
+                if (runLength < 1 || i + runLength > length)
+                {
+                    throw new IllegalArgumentException("Invalid run length " + runLength + " at character " + i);
+                }
+
+                Arrays.fill(foregrounds, i, i + runLength, foreground);
+                Arrays.fill(backgrounds, i, i + runLength, background);
+                i += runLength;
+            }
+        }
+
+        return new ColorString(characters, foregrounds, backgrounds, length);
+    }
+
+    /**
+     * Writes the message header and the palette.
+     *
+     * @param buffer the buffer to write to
+     * @param kind   the kind of message
+     */
+    private void writeHeader(ByteBuffer buffer, int kind)
+    {
+        buffer.put((byte) 'A');
+        buffer.put((byte) 'C');
+        buffer.put((byte) VERSION);
+        buffer.put((byte) kind);
+        writeVarint(buffer, paletteSize);
+        for (int i = 0; i < paletteSize; i++)
+        {
+            int argb = palette[i];
+            buffer.put((byte) (argb >>> 24));
+            buffer.put((byte) (argb >>> 16));
+            buffer.put((byte) (argb >>> 8));
+            buffer.put((byte) argb);
+        }
+    }
+
+    /**
+     * Reads and checks the message header, then reads the palette.
+     *
+     * @param buffer the buffer to read from
+     * @param kind   the kind of message expected
+     */
+    private void readHeader(ByteBuffer buffer, int kind)
+    {
+        if (buffer.get() != 'A' || buffer.get() != 'C')
+        {
+            throw new IllegalArgumentException("Buffer does not contain an encoded ColorString message");
+        }
+
+        int version = buffer.get() & 0xFF;
+        if (version != VERSION)
+        {
+            throw new IllegalArgumentException("Unsupported format version " + version + "; expected " + VERSION);
+        }
+
+        int actualKind = buffer.get() & 0xFF;
+        if (actualKind != kind)
+        {
+            throw new IllegalArgumentException("Message is of kind " + actualKind + "; expected " + kind);
+        }
+
+        int size = readVarint(buffer);
+        if (size + 1 > decoded.length)
+        {
+            decoded = new Color[size + 1];
+        }
+
+        for (int i = 1; i <= size; i++)
+        {
+            int argb = (buffer.get() & 0xFF) << 24 | (buffer.get() & 0xFF) << 16 | (buffer.get() & 0xFF) << 8 |
+                       (buffer.get() & 0xFF);
+            // Reuse the Color from the previous message where possible
+            if (decoded[i] == null || decoded[i].getRGB() != argb)
+            {
+                decoded[i] = new Color(argb, true);
+            }
+        }
+
+        paletteSize = size;
+    }
+
+    /**
+     * Reads a palette index and returns the color it refers to.
+     *
+     * @param buffer the buffer to read from
+     * @return the color referred to, null if unspecified
+     */
+    private Color readColor(ByteBuffer buffer)
+    {
+        return decoded[checkIndex(readVarint(buffer))];
+    }
+
+    /**
+     * Checks that a palette index read from a message refers to a color in its palette.
+     *
+     * @param index the palette index
+     * @return the palette index
+     */
+    private int checkIndex(int index)
+    {
+        if (index > paletteSize)
+        {
+            throw new IllegalArgumentException("Palette index " + index + " exceeds palette size " + paletteSize);
+        }
+
+        return index;
+    }
+
+    /**
+     * Empties the palette being written.
+     */
+    private void resetPalette()
+    {
+        paletteSize = 0;
+        Arrays.fill(tableIndices, 0);
+    }
+
+    /**
+     * Returns true if two colors would be written as the same palette index, even if they are different instances.
+     *
+     * @param a the first color; may be null
+     * @param b the second color; may be null
+     * @return true if both are null, or both have the same ARGB value
+     */
+    private static boolean sameColor(Color a, Color b)
+    {
+        return a == b || (a != null && b != null && a.getRGB() == b.getRGB());
+    }
+
+    /**
+     * Returns the palette index of a color, adding it to the palette if it is not yet there.
+     *
+     * @param color the color to look up; may be null
+     * @return the palette index of the color, 0 if null
+     */
+    private int indexOf(Color color)
+    {
+        if (color == null)
+        {
+            return 0;
+        }
+
+        int argb = color.getRGB();
+        int mask = tableKeys.length - 1;
+        int slot = ColorChar.mix(argb) & mask;
+        while (tableIndices[slot] != 0)
+        {
+            if (tableKeys[slot] == argb)
+            {
+                return tableIndices[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (paletteSize == palette.length)
+        {
+            palette = Arrays.copyOf(palette, palette.length * 2);
+        }
+
+        palette[paletteSize] = argb;
+        paletteSize++;
+        tableKeys[slot] = argb;
+        tableIndices[slot] = paletteSize;
+
+        if (paletteSize * 2 > tableKeys.length)
+        {
+            growTable();
+        }
+
+        return paletteSize;
+    }
+
+    /**
+     * Doubles the size of the color hash table, reinserting the palette.
+     */
+    private void growTable()
+    {
+        tableKeys = new int[tableKeys.length * 2];
+        tableIndices = new int[tableIndices.length * 2];
+        int mask = tableKeys.length - 1;
+        for (int i = 0; i < paletteSize; i++)
+        {
+            int slot = ColorChar.mix(palette[i]) & mask;
+            while (tableIndices[slot] != 0)
+            {
+                slot = (slot + 1) & mask;
+            }
+            tableKeys[slot] = palette[i];
+            tableIndices[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Reads a character set marker.
+     *
+     * @param buffer the buffer to read from
+     * @return true if characters are stored as single CP437 bytes
+     */
+    private static boolean readCharset(ByteBuffer buffer)
+    {
+        int charset = buffer.get();
+        if (charset != CHARSET_CP437 && charset != CHARSET_UTF16)
+        {
+            throw new IllegalArgumentException("Unknown character set " + charset);
+        }
+
+        return charset == CHARSET_CP437;
+    }
+
+    /**
+     * Writes a character as one or two bytes.
+     *
+     * @param buffer the buffer to write to
+     * @param c      the character to write
+     * @param narrow true to write a single CP437 byte
+     */
+    private static void writeChar(ByteBuffer buffer, char c, boolean narrow)
+    {
+        if (!narrow)
+        {
+            buffer.put((byte) (c >>> 8));
+        }
+        buffer.put((byte) c);
+    }
+
+    /**
+     * Reads a character written by {@link #writeChar(ByteBuffer, char, boolean)}.
+     *
+     * @param buffer the buffer to read from
+     * @param narrow true if the character is a single CP437 byte
+     * @return the character
+     */
+    private static char readChar(ByteBuffer buffer, boolean narrow)
+    {
+        if (narrow)
+        {
+            return (char) (buffer.get() & 0xFF);
+        }
+
+        return (char) ((buffer.get() & 0xFF) << 8 | (buffer.get() & 0xFF));
+    }
+
+    /**
+     * Writes a non-negative int using 7 bits per byte, with the high bit set on every byte but the last.
+     *
+     * @param buffer the buffer to write to
+     * @param value  the value to write; must be non-negative
+     */
+    private static void writeVarint(ByteBuffer buffer, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an int written by {@link #writeVarint(ByteBuffer, int)}.
+     *
+     * @param buffer the buffer to read from
+     * @return the value read
+     */
+    private static int readVarint(ByteBuffer buffer)
+    {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7)
+        {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+            {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -105,7 +105,8 @@ public abstract class ColoredObject
 
     /**
      * Sets any unspecified (null) colors of the {@link ColoredObject} to the default colors of the provided {@link
-     * Display}.
+     * Display}. This is never required for drawing, since a {@link Display} resolves null colors to its own defaults
+     * at write time; use it only when the resolved colors must be stored on the object itself.
      *
      * @param display the {@link Display} with which to sync default colors
      */
@@ -0,0 +1,383 @@
+package maugrift.apwt.glyphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps text to a maximum width, remembering the line breaks it computes so that wrapping the same text to the same
+ * width again is a lookup. Lines are broken at newlines, at spaces (which are dropped at the break) and after hyphens
+ * within words; words longer than the width are split wherever they overflow. Since breaks are computed from
+ * characters alone, wrapping a {@link ColorString} keeps every color span intact.
+ * <p>
+ * Only Strings and {@link ColorString ColorStrings} are cached. A {@link ColorString} is remembered by identity along
+ * with a count of changes to its characters, so looking up the same {@link ColorString} again takes constant time,
+ * and recoloring it does not discard its breaks. Other sequences, which may change without notice, are wrapped anew
+ * every time.
+ *
+ * @author Maugrift
+ */
+public class TextWrapper
+{
+    /**
+     * The number of (text, width) pairs remembered by a {@link TextWrapper} created with the default constructor.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    /**
+     * The maximum number of (text, width) pairs to remember.
+     */
+    private final int cacheSize;
+
+    /**
+     * The computed breaks of recently wrapped text, in least-recently-used order.
+     */
+    private final Map<Key, int[]> cache;
+
+    /**
+     * Creates a {@link TextWrapper} that remembers the breaks of up to the given number of (text, width) pairs.
+     *
+     * @param cacheSize the maximum number of (text, width) pairs to remember; if 0, nothing is cached
+     */
+    public TextWrapper(int cacheSize)
+    {
+        if (cacheSize < 0)
+        {
+            throw new IllegalArgumentException("Cache size must be >= 0; was " + cacheSize);
+        }
+
+        this.cacheSize = cacheSize;
+        cache = new LinkedHashMap<Key, int[]>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest)
+            {
+                return size() > TextWrapper.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link TextWrapper} that remembers up to {@link #DEFAULT_CACHE_SIZE} (text, width) pairs.
+     */
+    public TextWrapper()
+    {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Returns the line breaks of the given text wrapped to the given width, computing them only if they are not
+     * already cached. The result is laid out as described in {@link #computeBreaks(CharSequence, int)} and is shared,
+     * so it must not be modified.
+     *
+     * @param text  the text to wrap
+     * @param width the maximum number of characters on a line; must be positive
+     * @return the start and end index of each line
+     */
+    public int[] getBreaks(CharSequence text, int width)
+    {
+        if (!(text instanceof ColorString || text instanceof String))
+        {
+            return computeBreaks(text, width);
+        }
+
+        Key key = new Key(text, width);
+        synchronized (cache)
+        {
+            int[] breaks = cache.get(key);
+            if (breaks != null)
+            {
+                return breaks;
+            }
+        }
+
+        int[] breaks = computeBreaks(text, width);
+        synchronized (cache)
+        {
+            cache.put(key, breaks);
+        }
+        return breaks;
+    }
+
+    /**
+     * Returns the number of lines the given text occupies when wrapped to the given width.
+     *
+     * @param text  the text to wrap
+     * @param width the maximum number of characters on a line; must be positive
+     * @return the number of lines in the wrapped text
+     */
+    public int countLines(CharSequence text, int width)
+    {
+        return getBreaks(text, width).length / 2;
+    }
+
+    /**
+     * Wraps a {@link ColorString} to the given width.
+     *
+     * @param text  the {@link ColorString} to wrap
+     * @param width the maximum number of characters on a line; must be positive
+     * @return a List of the wrapped lines, each a new {@link ColorString} that is frozen if the text is
+     */
+    public List<ColorString> wrap(ColorString text, int width)
+    {
+        int[] breaks = getBreaks(text, width);
+        List<ColorString> lines = new ArrayList<>(breaks.length / 2);
+        addLines(lines, text, breaks);
+        return lines;
+    }
+
+    /**
+     * Wraps each of the given lines to the given width. Null lines, which windows treat as separators, are kept as
+     * they are. Lines wrapped before at the same width are served from the cache, so reflowing a long list after a
+     * change in width only computes breaks for lines that have not yet been seen at that width.
+     *
+     * @param lines the lines to wrap
+     * @param width the maximum number of characters on a line; must be positive
+     * @return a List of the wrapped lines
+     */
+    public List<ColorString> wrap(List<ColorString> lines, int width)
+    {
+        List<ColorString> wrapped = new ArrayList<>(lines.size());
+        for (ColorString line : lines)
+        {
+            if (line == null)
+            {
+                wrapped.add(null);
+            }
+            else
+            {
+                addLines(wrapped, line, getBreaks(line, width));
+            }
+        }
+        return wrapped;
+    }
+
+    /**
+     * Forgets all remembered line breaks.
+     */
+    public void clearCache()
+    {
+        synchronized (cache)
+        {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Computes the line breaks of the given text wrapped to the given width, without using any cache. The result holds
+     * two values per line: the index of its first character and the index after its last character. Newline
+     * characters, and spaces at which a line was broken, belong to no line.
+     *
+     * @param text  the text to wrap
+     * @param width the maximum number of characters on a line; must be positive
+     * @return the start and end index of each line
+     */
+    public static int[] computeBreaks(CharSequence text, int width)
+    {
+        if (width < 1)
+        {
+            throw new IllegalArgumentException("Width must be >= 1; was " + width);
+        }
+
+        int length = text.length();
+        int[] breaks = new int[(length / width + 1) * 2];
+        int count = 0;
+
+        int lineStart = 0;
+        // The end of the current line and the start of the next if it were broken at the last opportunity
+        int breakEnd = -1;
+        int breakNext = -1;
+        // True if the current line was started by wrapping, in which case its leading spaces are dropped
+        boolean wrapped = false;
+
+        for (int i = 0; i < length; i++)
+        {
+            char c = text.charAt(i);
+
+            if (c == '\n')
+            {
+                int end = i > lineStart && text.charAt(i - 1) == '\r' ? i - 1 : i;
+                breaks = addLine(breaks, count, lineStart, end);
+                count += 2;
+                lineStart = i + 1;
+                breakEnd = -1;
+                wrapped = false;
+                continue;
+            }
+
+            if (wrapped && c == ' ' && i == lineStart)
+            {
+                lineStart++;
+                continue;
+            }
+
+            if (i - lineStart >= width)
+            {
+                if (c == ' ')
+                {
+                    boolean trailingSpaces = text.charAt(i - 1) == ' ' && breakEnd > lineStart;
+                    breaks = addLine(breaks, count, lineStart, trailingSpaces ? breakEnd : i);
+                    count += 2;
+                    lineStart = i + 1;
+                    breakEnd = -1;
+                    wrapped = true;
+                    continue;
+                }
+
+                if (breakEnd > lineStart)
+                {
+                    breaks = addLine(breaks, count, lineStart, breakEnd);
+                    count += 2;
+                    lineStart = breakNext;
+                    while (lineStart < i && text.charAt(lineStart) == ' ')
+                    {
+                        lineStart++;
+                    }
+                }
+                else
+                {
+                    breaks = addLine(breaks, count, lineStart, i);
+                    count += 2;
+                    lineStart = i;
+                }
+
+                breakEnd = -1;
+                wrapped = true;
+            }
+
+            if (c == ' ')
+            {
+                if (i > lineStart && text.charAt(i - 1) != ' ')
+                {
+                    breakEnd = i;
+                    breakNext = i + 1;
+                }
+            }
+            else if (c == '-' && i > lineStart && text.charAt(i - 1) != ' ')
+            {
+                breakEnd = i + 1;
+                breakNext = i + 1;
+            }
+        }
+
+        if (lineStart < length || !wrapped)
+        {
+            breaks = addLine(breaks, count, lineStart, length);
+            count += 2;
+        }
+
+        return count == breaks.length ? breaks : Arrays.copyOf(breaks, count);
+    }
+
+    /**
+     * Records a line in an array of breaks, growing the array if it is full.
+     *
+     * @param breaks the array of breaks
+     * @param count  the number of values already in the array
+     * @param start  the index of the line's first character
+     * @param end    the index after the line's last character
+     * @return the array of breaks, which may be a new array
+     */
+    private static int[] addLine(int[] breaks, int count, int start, int end)
+    {
+        if (count + 2 > breaks.length)
+        {
+            breaks = Arrays.copyOf(breaks, breaks.length * 2 + 2);
+        }
+
+        breaks[count] = start;
+        breaks[count + 1] = end;
+        return breaks;
+    }
+
+    /**
+     * Adds the lines of a {@link ColorString} described by the given breaks to a List.
+     *
+     * @param lines  the List to add lines to
+     * @param text   the {@link ColorString} the breaks were computed from
+     * @param breaks the start and end index of each line
+     */
+    private static void addLines(List<ColorString> lines, ColorString text, int[] breaks)
+    {
+        for (int i = 0; i < breaks.length; i += 2)
+        {
+            lines.add(text.subSequence(breaks[i], breaks[i + 1]));
+        }
+    }
+
+    /**
+     * A cache key pairing some text with the width it was wrapped to. A {@link ColorString} is compared by identity
+     * and by the count of changes to its characters, so a key never matches text whose characters have changed since,
+     * and a String is compared by value, since it cannot change. Neither comparison reads the characters of a {@link
+     * ColorString}, nor of a String that is looked up again as the same object.
+     */
+    private static final class Key
+    {
+        /**
+         * The wrapped text, either a {@link ColorString} or a String.
+         */
+        private final CharSequence text;
+
+        /**
+         * The number of changes to the characters of a {@link ColorString} when it was wrapped; 0 for a String.
+         */
+        private final int version;
+
+        /**
+         * The width the text was wrapped to.
+         */
+        private final int width;
+
+        /**
+         * The combined hash of the text and width.
+         */
+        private final int hash;
+
+        /**
+         * Creates a {@link Key} for the given text and width.
+         *
+         * @param text  the wrapped text; must be a {@link ColorString} or a String
+         * @param width the width the text was wrapped to
+         */
+        Key(CharSequence text, int width)
+        {
+            this.text = text;
+            this.width = width;
+            if (text instanceof ColorString)
+            {
+                version = ((ColorString) text).getVersion();
+                hash = 31 * (31 * System.identityHashCode(text) + version) + width;
+            }
+            else
+            {
+                version = 0;
+                hash = 31 * text.hashCode() + width;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+
+            Key cast = (Key) o;
+            if (hash != cast.hash || width != cast.width || version != cast.version)
+            {
+                return false;
+            }
+
+            return text instanceof ColorString ? text == cast.text : text.equals(cast.text);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+}
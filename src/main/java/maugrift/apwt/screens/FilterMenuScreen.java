@@ -0,0 +1,229 @@
+package maugrift.apwt.screens;
+
+import maugrift.apwt.glyphs.ColorString;
+import maugrift.apwt.util.ItemFilter;
+import maugrift.apwt.windows.Menu;
+import maugrift.apwt.windows.WindowContents;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link MenuScreen} whose items are narrowed down by typing. Printable characters are added to a query and the
+ * backspace key removes them; the {@link Menu Menu's} {@link maugrift.apwt.windows.Window} then shows only the items
+ * matching the query, as found by an {@link ItemFilter}. Since typed characters go to the query, only keys that do not
+ * type a character, such as enter and escape, confirm or cancel the {@link FilterMenuScreen}.
+ * <p>
+ * The items are taken from the {@link Menu Menu's} {@link maugrift.apwt.windows.Window} when the {@link
+ * FilterMenuScreen} is created, and its contents are replaced with the matches from then on, so {@link
+ * #getSelectedItem()} should be used to find which of the original items is selected. If the {@link Menu} has
+ * restrictions at that time, only the items they allow are matched, and the restrictions are cleared once the contents
+ * are replaced, as every match shown can then be selected.
+ *
+ * @param <MenuType> the type of {@link Menu} used in the {@link Screen}
+ * @author Maugrift
+ */
+public abstract class FilterMenuScreen<MenuType extends Menu> extends MenuScreen<MenuType>
+{
+    /**
+     * The items, as they were when the {@link FilterMenuScreen} was created.
+     */
+    private final List<ColorString> items;
+
+    /**
+     * Finds the items matching the query.
+     */
+    private final ItemFilter filter;
+
+    /**
+     * True for each item that the {@link Menu Menu's} restrictions allowed to be selected; null if the {@link Menu}
+     * had no restrictions.
+     */
+    private final boolean[] allowed;
+
+    /**
+     * The index among the original items of each line shown; null until the contents are first replaced.
+     */
+    private int[] shown;
+
+    /**
+     * The characters typed so far.
+     */
+    private final StringBuilder query;
+
+    /**
+     * The largest number of matches shown at once.
+     */
+    private int limit;
+
+    /**
+     * Creates a {@link FilterMenuScreen} for the given {@link Menu}, which will show every match.
+     *
+     * @param menu the {@link Menu} to create a {@link FilterMenuScreen} for
+     * @param mode how items must contain the query to match it
+     */
+    public FilterMenuScreen(MenuType menu, ItemFilter.Mode mode)
+    {
+        super(menu);
+        items = new ArrayList<>(menu.getWindow().getContents());
+        filter = new ItemFilter(items, mode);
+
+        if (menu.hasRestrictions())
+        {
+            allowed = new boolean[items.size()];
+            // The Menu is raw, so its restrictions are too
+            for (Object restriction : menu.getRestrictions())
+            {
+                int index = (Integer) restriction;
+                if (index >= 0 && index < allowed.length)
+                {
+                    allowed[index] = true;
+                }
+            }
+        }
+        else
+        {
+            allowed = null;
+        }
+        query = new StringBuilder();
+        limit = Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void displayOutput()
+    {
+        if (getMenu().getWindow().getContents().isEmpty())
+        {
+            // There is no selection to show
+            getMenu().getWindow().display();
+            return;
+        }
+
+        super.displayOutput();
+    }
+
+    @Override
+    public Screen processInput(KeyEvent key)
+    {
+        if (key.getKeyCode() == KeyEvent.VK_BACK_SPACE)
+        {
+            if (query.length() > 0)
+            {
+                query.setLength(query.length() - 1);
+                updateMatches();
+            }
+            return this;
+        }
+
+        char character = key.getKeyChar();
+        if (character != KeyEvent.CHAR_UNDEFINED && !Character.isISOControl(character))
+        {
+            query.append(character);
+            updateMatches();
+            return this;
+        }
+
+        return super.processInput(key);
+    }
+
+    /**
+     * Replaces the contents of the {@link Menu Menu's} {@link maugrift.apwt.windows.Window} with the allowed items
+     * matching the query, and selects the first of them.
+     */
+    private void updateMatches()
+    {
+        filter.setQuery(query.toString());
+
+        int[] matches = new int[Math.min(filter.size(), limit)];
+        int count = 0;
+        for (int match = 0; match < filter.size() && count < matches.length; match++)
+        {
+            int item = filter.getMatch(match);
+            if (allowed == null || allowed[item])
+            {
+                matches[count++] = item;
+            }
+        }
+        shown = matches.length == count ? matches : Arrays.copyOf(matches, count);
+
+        List<ColorString> lines = new ArrayList<>(count);
+        for (int item : shown)
+        {
+            lines.add(items.get(item));
+        }
+
+        // The restrictions were indices into the original items, and every match shown is allowed
+        getMenu().getRestrictions().clear();
+        WindowContents contents = getMenu().getWindow().getContents();
+        contents.clear();
+        contents.addAll(lines);
+        getMenu().selectFirst();
+    }
+
+    /**
+     * Returns the characters typed so far.
+     *
+     * @return the query
+     */
+    public String getQuery()
+    {
+        return query.toString();
+    }
+
+    /**
+     * Replaces the query, as if it had been typed.
+     *
+     * @param query the new query
+     */
+    public void setQuery(String query)
+    {
+        this.query.setLength(0);
+        this.query.append(query);
+        updateMatches();
+    }
+
+    /**
+     * Returns the largest number of matches shown at once.
+     *
+     * @return the largest number of matches shown at once
+     */
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    /**
+     * Sets the largest number of matches shown at once. Limiting the matches to the number that fit on the {@link
+     * maugrift.apwt.display.Display} keeps filtering fast for very long lists of items.
+     *
+     * @param limit the largest number of matches shown at once; must be positive
+     */
+    public void setLimit(int limit)
+    {
+        if (limit < 1)
+        {
+            throw new IllegalArgumentException("Limit must be positive; was " + limit);
+        }
+
+        this.limit = limit;
+        updateMatches();
+    }
+
+    /**
+     * Returns the index among the original items of the selected match.
+     *
+     * @return the index of the selected item among the original items, or -1 if nothing matches the query
+     */
+    public int getSelectedItem()
+    {
+        if (getMenu().getWindow().getContents().isEmpty())
+        {
+            return -1;
+        }
+
+        int selection = getMenu().getSelectionIndex();
+        return shown == null ? selection : shown[selection];
+    }
+}
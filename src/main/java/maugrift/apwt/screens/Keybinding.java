@@ -1,17 +1,18 @@
 package maugrift.apwt.screens;
 
 import asciiPanel.AsciiPanel;
+import maugrift.apwt.glyphs.CachedColorStringObject;
 import maugrift.apwt.glyphs.ColorString;
-import maugrift.apwt.glyphs.ColorStringObject;
 
 import java.awt.*;
 
 /**
- * A class containing the information in a keybinding, as well as methods to output it.
+ * A class containing the information in a keybinding, as well as methods to output it. Since a keybinding never
+ * changes, its {@link ColorString} with the default colors is rendered once and cached.
  *
  * @author Maugrift
  */
-public class Keybinding implements ColorStringObject
+public class Keybinding extends CachedColorStringObject
 {
     /**
      * The default color to use when outputting the key's function as a
@@ -43,7 +44,7 @@ public class Keybinding implements ColorStringObject
     public Keybinding(String function, String... keys)
     {
         this.function = function;
-        this.keys = keys;
+        this.keys = keys.clone();
     }
 
     /**
@@ -84,23 +85,25 @@ public class Keybinding implements ColorStringObject
     }
 
     /**
-     * Returns this {@link Keybinding}'s keys.
+     * Returns this {@link Keybinding}'s keys. The array is a copy, since the keys never change once the {@link
+     * Keybinding}'s {@link ColorString} has been cached.
      *
-     * @return this {@link Keybinding}'s keys
+     * @return a copy of this {@link Keybinding}'s keys
      */
     public String[] getKeys()
     {
-        return keys;
+        return keys.clone();
     }
 
 	/**
 	 * Convert this {@link Keybinding} to a ColorString representation using
-	 * the default colors.
+	 * the default colors. Called only once, as the result is cached by
+	 * {@link #toColorString()}.
 	 *
 	 * @return a ColorString representing this keybinding
 	 */
     @Override
-    public ColorString toColorString()
+    protected ColorString renderColorString()
     {
         return toColorString(COLOR_FUNCTION, COLOR_KEY);
     }
@@ -13,6 +13,11 @@ import java.awt.event.KeyEvent;
  */
 public abstract class MenuScreen<MenuType extends Menu> extends ConfirmationScreen
 {
+    /**
+     * The number of items moved by the page up and page down keys, unless {@link #getPageSize()} is overridden.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 10;
+
     /**
      * The {@link maugrift.apwt.windows.Menu} displayed and navigated by the {@link MenuScreen}.
      */
@@ -53,11 +58,45 @@ public abstract class MenuScreen<MenuType extends Menu> extends ConfirmationScre
                     return this;
                 }
                 break;
+            case KeyEvent.VK_PAGE_UP:
+                if (menu.selectPage(-getPageSize()))
+                {
+                    return this;
+                }
+                break;
+            case KeyEvent.VK_PAGE_DOWN:
+                if (menu.selectPage(getPageSize()))
+                {
+                    return this;
+                }
+                break;
+            case KeyEvent.VK_HOME:
+                if (menu.selectFirst())
+                {
+                    return this;
+                }
+                break;
+            case KeyEvent.VK_END:
+                if (menu.selectLast())
+                {
+                    return this;
+                }
+                break;
         }
 
         return super.processInput(key);
     }
 
+    /**
+     * Returns the number of items moved by the page up and page down keys.
+     *
+     * @return the number of items in a page
+     */
+    protected int getPageSize()
+    {
+        return DEFAULT_PAGE_SIZE;
+    }
+
     /**
      * Returns the {@link MenuScreen Screen's} {@link #menu menu}.
      *
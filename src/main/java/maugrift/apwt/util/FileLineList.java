@@ -0,0 +1,278 @@
+package maugrift.apwt.util;
+
+import maugrift.apwt.glyphs.ColorString;
+
+import java.awt.*;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A read-only List of the lines of a text file as {@link ColorString ColorStrings}, read from disk as they are needed.
+ * Opening the file scans it once to record where each line starts, after which any line can be reached directly.
+ * Lines are read and decoded a page at a time, and only the most recently used pages are kept in memory, so a window
+ * showing a few dozen lines of a very large file only ever holds those lines and their neighbors.
+ * <p>
+ * Lines are split at '\n', with any '\r' before it removed, and the file must use a character set in which '\n' is
+ * always the single byte 0x0A, such as UTF-8 or ISO-8859-1. As with {@link FileManager#toLineArray(String)}, a final
+ * newline does not start an empty line. The file must not change while it is open. Returned lines are {@link
+ * ColorString#freeze() frozen}, since they are shared with the cache. The List must be {@link #close() closed} when no
+ * longer needed.
+ *
+ * @author Maugrift
+ */
+public class FileLineList extends AbstractList<ColorString> implements RandomAccess, Closeable
+{
+    /**
+     * The number of lines read from disk at once.
+     */
+    public static final int PAGE_SIZE = 64;
+
+    /**
+     * The number of pages kept in memory by a {@link FileLineList} created without a page count.
+     */
+    public static final int DEFAULT_CACHED_PAGES = 8;
+
+    /**
+     * The size of the buffer used when scanning the file for lines.
+     */
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The open file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The character set used to decode lines.
+     */
+    private final Charset charset;
+
+    /**
+     * The foreground color given to every line.
+     */
+    private final Color foreground;
+
+    /**
+     * The background color given to every line.
+     */
+    private final Color background;
+
+    /**
+     * The byte offset at which each line starts, followed by one past the end of the last line's newline. Line i
+     * occupies the bytes from starts[i] to starts[i + 1] - 1, excluding the newline.
+     */
+    private final long[] starts;
+
+    /**
+     * The number of lines in the file.
+     */
+    private final int lines;
+
+    /**
+     * Recently read pages of lines, keyed by page number, in least-recently-used order.
+     */
+    private final Map<Integer, ColorString[]> pages;
+
+    /**
+     * Opens a file as a {@link FileLineList}, indexing its lines.
+     *
+     * @param file        the file to open
+     * @param charset     the character set used to decode lines
+     * @param foreground  the foreground color given to every line; may be null
+     * @param background  the background color given to every line; may be null
+     * @param cachedPages the number of pages of {@link #PAGE_SIZE} lines to keep in memory; must be positive
+     * @throws IOException if the file cannot be opened or read
+     */
+    public FileLineList(File file, Charset charset, Color foreground, Color background, int cachedPages)
+            throws IOException
+    {
+        if (cachedPages < 1)
+        {
+            throw new IllegalArgumentException("Cached pages must be positive; was " + cachedPages);
+        }
+
+        this.charset = charset;
+        this.foreground = foreground;
+        this.background = background;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+        try
+        {
+            long[] found = scan();
+            long size = channel.size();
+            int count = found.length;
+            if (found[count - 1] < size)
+            {
+                // The last line has no newline, so pretend it has one for the end offset
+                found = Arrays.copyOf(found, count + 1);
+                found[count] = size + 1;
+                count++;
+            }
+            starts = found;
+            lines = count - 1;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+
+        pages = new LinkedHashMap<Integer, ColorString[]>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ColorString[]> eldest)
+            {
+                return size() > cachedPages;
+            }
+        };
+    }
+
+    /**
+     * Opens a file as a {@link FileLineList} of uncolored lines decoded with the platform's default character set,
+     * keeping {@link #DEFAULT_CACHED_PAGES} pages in memory.
+     *
+     * @param file the file to open
+     * @throws IOException if the file cannot be opened or read
+     */
+    public FileLineList(File file) throws IOException
+    {
+        this(file, Charset.defaultCharset(), null, null, DEFAULT_CACHED_PAGES);
+    }
+
+    /**
+     * Returns the line at the given index, reading its page from disk if it is not in memory.
+     *
+     * @param index the index of the line, the first line being 0
+     * @return the line as a frozen {@link ColorString}
+     * @throws UncheckedIOException if the page cannot be read
+     */
+    @Override
+    public ColorString get(int index)
+    {
+        if (index < 0 || index >= lines)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + lines);
+        }
+
+        int page = index / PAGE_SIZE;
+        synchronized (pages)
+        {
+            ColorString[] pageLines = pages.get(page);
+            if (pageLines == null)
+            {
+                pageLines = readPage(page);
+                pages.put(page, pageLines);
+            }
+            return pageLines[index % PAGE_SIZE];
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return lines;
+    }
+
+    /**
+     * Closes the file. Lines still in memory can be read afterward, but reading any other line fails.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    /**
+     * Reads the file from start to end, recording the offset at which each line starts.
+     *
+     * @return the start offset of each line, followed by the file size if the file ends in a newline
+     * @throws IOException if the file cannot be read
+     */
+    private long[] scan() throws IOException
+    {
+        long[] found = new long[1024];
+        int count = 1;
+        long position = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+        while (channel.read(buffer, position) != -1)
+        {
+            buffer.flip();
+            int read = buffer.remaining();
+            for (int i = 0; i < read; i++)
+            {
+                if (buffer.get(i) == '\n')
+                {
+                    if (count == found.length)
+                    {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = position + i + 1;
+                }
+            }
+            position += read;
+            buffer.clear();
+        }
+
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Reads and decodes a page of lines.
+     *
+     * @param page the number of the page to read
+     * @return the lines on the page
+     * @throws UncheckedIOException if the page cannot be read
+     */
+    private ColorString[] readPage(int page)
+    {
+        int first = page * PAGE_SIZE;
+        int last = Math.min(first + PAGE_SIZE, lines);
+        long startByte = starts[first];
+        byte[] bytes = new byte[(int) (starts[last] - 1 - startByte)];
+
+        try
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining())
+            {
+                if (channel.read(buffer, startByte + buffer.position()) == -1)
+                {
+                    throw new IOException("File ended early; it may have changed since it was opened");
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        ColorString[] pageLines = new ColorString[last - first];
+        for (int line = first; line < last; line++)
+        {
+            int start = (int) (starts[line] - startByte);
+            int end = (int) (starts[line + 1] - 1 - startByte);
+            if (end > start && bytes[end - 1] == '\r')
+            {
+                end--;
+            }
+
+            pageLines[line - first] = new ColorString(new String(bytes, start, end - start, charset), foreground,
+                    background).freeze();
+        }
+        return pageLines;
+    }
+}
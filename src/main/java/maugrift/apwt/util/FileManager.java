@@ -1,5 +1,6 @@
 package maugrift.apwt.util;
 
+import maugrift.apwt.glyphs.ColorString;
 import squidpony.squidmath.RNG;
 
 import javax.imageio.ImageIO;
@@ -8,6 +9,7 @@ import javax.sound.sampled.Clip;
 import javax.sound.sampled.FloatControl;
 import java.awt.*;
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
@@ -256,6 +258,37 @@ public abstract class FileManager
         return lineList.toArray(new String[lineList.size()]);
     }
 
+    /**
+     * Opens a file as a List of {@link ColorString ColorStrings} that reads lines from disk only as they are accessed,
+     * rather than loading the whole file like {@link #toLineArray(String)}. The List must be closed when no longer
+     * needed.
+     *
+     * @param target     the file to open
+     * @param foreground the foreground color given to every line; may be null
+     * @param background the background color given to every line; may be null
+     * @return a {@link FileLineList} of the lines of the file
+     * @throws IOException if the file cannot be opened or read
+     */
+    public static FileLineList openLineList(String target, Color foreground, Color background) throws IOException
+    {
+        return new FileLineList(new File(path + target), Charset.defaultCharset(), foreground, background,
+                FileLineList.DEFAULT_CACHED_PAGES);
+    }
+
+    /**
+     * Opens a file as a List of uncolored {@link ColorString ColorStrings} that reads lines from disk only as they are
+     * accessed.
+     *
+     * @param target the file to open
+     * @return a {@link FileLineList} of the lines of the file
+     * @throws IOException if the file cannot be opened or read
+     * @see #openLineList(String, Color, Color)
+     */
+    public static FileLineList openLineList(String target) throws IOException
+    {
+        return openLineList(target, null, null);
+    }
+
     /**
      * Writes the given lines of text to the given file; will overwrite existing lines or create the file if necessary.
      *
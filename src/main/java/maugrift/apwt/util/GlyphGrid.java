@@ -0,0 +1,500 @@
+package maugrift.apwt.util;
+
+import java.awt.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A grid of characters and colors that can be far larger than any display, such as the map of a world. The grid is
+ * divided into square chunks that are only created, and filled by a {@link ChunkLoader}, when one of their cells is
+ * first read or written, so a mostly unvisited world takes little memory.
+ * <p>
+ * Each cell is packed into {@value #CELL_BYTES} bytes of a chunk's buffer: its character followed by its foreground
+ * and background colors as ARGB values. Grids with more than {@link #DIRECT_THRESHOLD} cells keep their chunks outside
+ * of the Java heap. A fully transparent color is stored as 0 and read back as null, meaning the default color of the
+ * {@link maugrift.apwt.display.Display}; cells that were never written are spaces in the default colors.
+ *
+ * @author Maugrift
+ */
+public class GlyphGrid
+{
+    /**
+     * Fills a newly created chunk with the cells it should start with.
+     */
+    public interface ChunkLoader
+    {
+        /**
+         * Fills a chunk with its initial cells, using {@link Chunk#set(int, int, char, Color, Color)}.
+         *
+         * @param chunk the chunk to fill, which starts with every cell blank
+         */
+        void load(Chunk chunk);
+    }
+
+    /**
+     * The default width and height of each chunk, in cells.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    /**
+     * The number of cells above which chunks are allocated outside of the Java heap.
+     */
+    public static final long DIRECT_THRESHOLD = 1L << 22;
+
+    /**
+     * The number of bytes each cell takes in a chunk's buffer.
+     */
+    public static final int CELL_BYTES = 10;
+
+    /**
+     * The offset of a cell's foreground color within its bytes.
+     */
+    private static final int FOREGROUND = 2;
+
+    /**
+     * The offset of a cell's background color within its bytes.
+     */
+    private static final int BACKGROUND = 6;
+
+    /**
+     * The width of the grid in cells.
+     */
+    private final int width;
+
+    /**
+     * The height of the grid in cells.
+     */
+    private final int height;
+
+    /**
+     * The number of bits to shift a coordinate right by to find its chunk.
+     */
+    private final int chunkShift;
+
+    /**
+     * The number of chunks in each row of chunks.
+     */
+    private final int chunksWide;
+
+    /**
+     * The chunks, in rows from top to bottom; null for chunks that have not been created.
+     */
+    private final Chunk[] chunks;
+
+    /**
+     * Fills new chunks with their initial cells; null to leave them blank.
+     */
+    private final ChunkLoader loader;
+
+    /**
+     * True if chunks are allocated outside of the Java heap.
+     */
+    private final boolean direct;
+
+    /**
+     * The number of chunks that have been created and not unloaded.
+     */
+    private int loaded;
+
+    /**
+     * The listeners notified of every change.
+     */
+    private final List<GridListener> listeners;
+
+    /**
+     * Creates a {@link GlyphGrid} with all fields defined.
+     *
+     * @param width     the width of the grid in cells; must be positive
+     * @param height    the height of the grid in cells; must be positive
+     * @param chunkSize the width and height of each chunk in cells; must be a power of 2
+     * @param loader    fills new chunks with their initial cells; null to leave them blank
+     */
+    public GlyphGrid(int width, int height, int chunkSize, ChunkLoader loader)
+    {
+        if (width < 1 || height < 1)
+        {
+            throw new IllegalArgumentException("Dimensions must be positive; were " + width + " and " + height);
+        }
+
+        if (chunkSize < 1 || Integer.bitCount(chunkSize) != 1)
+        {
+            throw new IllegalArgumentException("Chunk size must be a power of 2; was " + chunkSize);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.loader = loader;
+        chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        chunksWide = (width + chunkSize - 1) >> chunkShift;
+        chunks = new Chunk[chunksWide * ((height + chunkSize - 1) >> chunkShift)];
+        direct = (long) width * height > DIRECT_THRESHOLD;
+        listeners = new ArrayList<>(2);
+    }
+
+    /**
+     * Creates a {@link GlyphGrid} with chunks of the default size.
+     *
+     * @param width  the width of the grid in cells; must be positive
+     * @param height the height of the grid in cells; must be positive
+     * @param loader fills new chunks with their initial cells; null to leave them blank
+     */
+    public GlyphGrid(int width, int height, ChunkLoader loader)
+    {
+        this(width, height, DEFAULT_CHUNK_SIZE, loader);
+    }
+
+    /**
+     * Creates a blank {@link GlyphGrid} with chunks of the default size.
+     *
+     * @param width  the width of the grid in cells; must be positive
+     * @param height the height of the grid in cells; must be positive
+     */
+    public GlyphGrid(int width, int height)
+    {
+        this(width, height, DEFAULT_CHUNK_SIZE, null);
+    }
+
+    /**
+     * Registers a listener to be notified of every change.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(GridListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops notifying a listener of changes.
+     *
+     * @param listener the listener to remove
+     * @return true if the listener was registered
+     */
+    public boolean removeListener(GridListener listener)
+    {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Returns the width of the grid in cells.
+     *
+     * @return the width of the grid in cells
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns the height of the grid in cells.
+     *
+     * @return the height of the grid in cells
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Returns the width and height of each chunk in cells.
+     *
+     * @return the width and height of each chunk in cells
+     */
+    public int getChunkSize()
+    {
+        return 1 << chunkShift;
+    }
+
+    /**
+     * Returns true if chunks are allocated outside of the Java heap.
+     *
+     * @return true if chunks are allocated outside of the Java heap
+     */
+    public boolean isDirect()
+    {
+        return direct;
+    }
+
+    /**
+     * Returns the number of chunks that have been created and not unloaded.
+     *
+     * @return the number of chunks in memory
+     */
+    public int getLoadedChunks()
+    {
+        return loaded;
+    }
+
+    /**
+     * Returns true if the grid contains the given cell.
+     *
+     * @param x the x value of the cell
+     * @param y the y value of the cell
+     * @return true if the cell is within the grid
+     */
+    public boolean contains(int x, int y)
+    {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * Returns the character in a cell.
+     *
+     * @param x the x value of the cell; must be within the grid
+     * @param y the y value of the cell; must be within the grid
+     * @return the character in the cell
+     */
+    public char getChar(int x, int y)
+    {
+        Chunk chunk = getChunk(x, y);
+        char c = chunk.buffer.getChar(chunk.offset(x, y));
+        return c == 0 ? ' ' : c;
+    }
+
+    /**
+     * Returns the foreground color of a cell as an ARGB value, without creating a Color.
+     *
+     * @param x the x value of the cell; must be within the grid
+     * @param y the y value of the cell; must be within the grid
+     * @return the foreground color of the cell, or 0 for the default color
+     */
+    public int getForegroundARGB(int x, int y)
+    {
+        Chunk chunk = getChunk(x, y);
+        return chunk.buffer.getInt(chunk.offset(x, y) + FOREGROUND);
+    }
+
+    /**
+     * Returns the background color of a cell as an ARGB value, without creating a Color.
+     *
+     * @param x the x value of the cell; must be within the grid
+     * @param y the y value of the cell; must be within the grid
+     * @return the background color of the cell, or 0 for the default color
+     */
+    public int getBackgroundARGB(int x, int y)
+    {
+        Chunk chunk = getChunk(x, y);
+        return chunk.buffer.getInt(chunk.offset(x, y) + BACKGROUND);
+    }
+
+    /**
+     * Returns the foreground color of a cell.
+     *
+     * @param x the x value of the cell; must be within the grid
+     * @param y the y value of the cell; must be within the grid
+     * @return the foreground color of the cell, or null for the default color
+     */
+    public Color getForeground(int x, int y)
+    {
+        return toColor(getForegroundARGB(x, y));
+    }
+
+    /**
+     * Returns the background color of a cell.
+     *
+     * @param x the x value of the cell; must be within the grid
+     * @param y the y value of the cell; must be within the grid
+     * @return the background color of the cell, or null for the default color
+     */
+    public Color getBackground(int x, int y)
+    {
+        return toColor(getBackgroundARGB(x, y));
+    }
+
+    /**
+     * Changes a cell and notifies the listeners.
+     *
+     * @param x          the x value of the cell; must be within the grid
+     * @param y          the y value of the cell; must be within the grid
+     * @param c          the new character
+     * @param foreground the new foreground color; null for the default color
+     * @param background the new background color; null for the default color
+     */
+    public void set(int x, int y, char c, Color foreground, Color background)
+    {
+        getChunk(x, y).set(x, y, c, foreground, background);
+        for (GridListener listener : listeners)
+        {
+            listener.cellsChanged(x, y, 1, 1);
+        }
+    }
+
+    /**
+     * Discards every chunk that lies entirely outside of a rectangle, freeing its memory. Discarded chunks are loaded
+     * again by the {@link ChunkLoader} when next needed, so changes made to them are lost unless the loader restores
+     * them.
+     *
+     * @param x      the x value of the left side of the rectangle
+     * @param y      the y value of the top of the rectangle
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    public void unloadOutside(int x, int y, int width, int height)
+    {
+        int size = getChunkSize();
+        for (int index = 0; index < chunks.length; index++)
+        {
+            Chunk chunk = chunks[index];
+            if (chunk != null && (chunk.x + size <= x || chunk.y + size <= y || chunk.x >= x + width ||
+                                  chunk.y >= y + height))
+            {
+                chunks[index] = null;
+                loaded--;
+            }
+        }
+    }
+
+    /**
+     * Returns the chunk containing a cell, creating and loading it if needed.
+     *
+     * @param x the x value of the cell; must be within the grid
+     * @param y the y value of the cell; must be within the grid
+     * @return the chunk containing the cell
+     */
+    private Chunk getChunk(int x, int y)
+    {
+        if (!contains(x, y))
+        {
+            throw new IndexOutOfBoundsException("Cell must be within the grid; was " + x + ", " + y);
+        }
+
+        int index = (y >> chunkShift) * chunksWide + (x >> chunkShift);
+        Chunk chunk = chunks[index];
+        if (chunk == null)
+        {
+            chunk = new Chunk((x >> chunkShift) << chunkShift, (y >> chunkShift) << chunkShift);
+            chunks[index] = chunk;
+            loaded++;
+            if (loader != null)
+            {
+                loader.load(chunk);
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Converts a color to the ARGB value stored for it.
+     *
+     * @param color the color; null for the default color
+     * @return the ARGB value of the color, or 0 for the default color
+     */
+    private static int toARGB(Color color)
+    {
+        return color == null ? 0 : color.getRGB();
+    }
+
+    /**
+     * Converts a stored ARGB value to a color.
+     *
+     * @param argb the ARGB value
+     * @return the color, or null if the value is 0
+     */
+    public static Color toColor(int argb)
+    {
+        return argb == 0 ? null : new Color(argb, true);
+    }
+
+    /**
+     * A square block of cells in a {@link GlyphGrid}, stored in a single buffer.
+     */
+    public final class Chunk
+    {
+        /**
+         * The x value of the chunk's left column in the grid.
+         */
+        private final int x;
+
+        /**
+         * The y value of the chunk's top row in the grid.
+         */
+        private final int y;
+
+        /**
+         * The packed cells, in rows from top to bottom.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Creates a blank {@link Chunk}.
+         *
+         * @param x the x value of the chunk's left column in the grid
+         * @param y the y value of the chunk's top row in the grid
+         */
+        private Chunk(int x, int y)
+        {
+            this.x = x;
+            this.y = y;
+            int bytes = CELL_BYTES << (chunkShift * 2);
+            buffer = (direct ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes)).order(
+                    ByteOrder.nativeOrder());
+        }
+
+        /**
+         * Returns the x value of the chunk's left column in the grid.
+         *
+         * @return the x value of the chunk's left column
+         */
+        public int getX()
+        {
+            return x;
+        }
+
+        /**
+         * Returns the y value of the chunk's top row in the grid.
+         *
+         * @return the y value of the chunk's top row
+         */
+        public int getY()
+        {
+            return y;
+        }
+
+        /**
+         * Returns the width and height of the chunk in cells. Chunks along the right and bottom edges of the grid
+         * may extend past it; cells beyond the grid are never read.
+         *
+         * @return the width and height of the chunk in cells
+         */
+        public int getSize()
+        {
+            return 1 << chunkShift;
+        }
+
+        /**
+         * Changes a cell of the chunk without notifying the grid's listeners, as is done while loading it.
+         *
+         * @param x          the x value of the cell in the grid; must be within the chunk
+         * @param y          the y value of the cell in the grid; must be within the chunk
+         * @param c          the new character
+         * @param foreground the new foreground color; null for the default color
+         * @param background the new background color; null for the default color
+         */
+        public void set(int x, int y, char c, Color foreground, Color background)
+        {
+            if (x < this.x || y < this.y || x >= this.x + getSize() || y >= this.y + getSize())
+            {
+                throw new IndexOutOfBoundsException("Cell must be within the chunk; was " + x + ", " + y);
+            }
+
+            int offset = offset(x, y);
+            buffer.putChar(offset, c);
+            buffer.putInt(offset + FOREGROUND, toARGB(foreground));
+            buffer.putInt(offset + BACKGROUND, toARGB(background));
+        }
+
+        /**
+         * Returns the offset of a cell's bytes in the buffer.
+         *
+         * @param x the x value of the cell in the grid
+         * @param y the y value of the cell in the grid
+         * @return the offset of the cell's first byte
+         */
+        private int offset(int x, int y)
+        {
+            return (((y - this.y) << chunkShift) + x - this.x) * CELL_BYTES;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package maugrift.apwt.util;
+
+/**
+ * Receives notice of changes to the cells of a {@link GlyphGrid}.
+ *
+ * @author Maugrift
+ */
+public interface GridListener
+{
+    /**
+     * Called after cells in a rectangle of the {@link GlyphGrid} are changed.
+     *
+     * @param x      the x value of the left side of the rectangle
+     * @param y      the y value of the top of the rectangle
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     */
+    void cellsChanged(int x, int y, int width, int height);
+}
@@ -0,0 +1,410 @@
+package maugrift.apwt.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the items in a fixed list that match a query typed one character at a time, ignoring case. Items match by
+ * prefix, substring or fuzzy match, where the characters of the query must appear in the item in order but not
+ * necessarily together.
+ * <p>
+ * The matches of every query are kept until the query changes in a way that could make them wrong, so that typing
+ * another character only checks the previous matches, and deleting one returns matches already found. A query that
+ * cannot be answered this way is answered from an index of the three-character sequences in each item, which narrows
+ * prefix and substring queries of three or more characters to the items containing their rarest sequence. Every mode
+ * also skips items lacking any of the query's characters using a bit mask of the characters in each item.
+ * <p>
+ * Matches are listed in the order of the items. Null items only match the empty query.
+ *
+ * @author Maugrift
+ */
+public class ItemFilter
+{
+    /**
+     * How an item must contain a query to match it.
+     */
+    public enum Mode
+    {
+        /**
+         * The item must start with the query.
+         */
+        PREFIX,
+
+        /**
+         * The item must contain the query.
+         */
+        SUBSTRING,
+
+        /**
+         * The item must contain the characters of the query in order, with any characters between them.
+         */
+        FUZZY
+    }
+
+    /**
+     * The length of the character sequences in the index.
+     */
+    private static final int GRAM = 3;
+
+    /**
+     * How items must contain the query to match it.
+     */
+    private final Mode mode;
+
+    /**
+     * The items in lower case; null for null items.
+     */
+    private final String[] keys;
+
+    /**
+     * A mask of the characters in each item, as given by {@link #mask(CharSequence)}.
+     */
+    private final long[] masks;
+
+    /**
+     * For each sequence of {@link #GRAM} characters, the ascending indices of the items that contain it.
+     */
+    private final Map<Long, int[]> index;
+
+    /**
+     * The queries whose matches are kept, each a prefix of the next and of the current query.
+     */
+    private final List<String> queries;
+
+    /**
+     * The matches of each query in {@link #queries}, each in ascending order.
+     */
+    private final List<int[]> results;
+
+    /**
+     * Creates an {@link ItemFilter} for the given items with an empty query, which every item matches. The items are
+     * read only while creating the {@link ItemFilter}, so later changes to them are not seen.
+     *
+     * @param items the items to filter; may contain null
+     * @param mode  how items must contain the query to match it
+     */
+    public ItemFilter(List<? extends CharSequence> items, Mode mode)
+    {
+        this.mode = mode;
+        keys = new String[items.size()];
+        masks = new long[items.size()];
+        Map<Long, IntList> postings = new HashMap<>();
+        for (int item = 0; item < keys.length; item++)
+        {
+            CharSequence text = items.get(item);
+            if (text == null)
+            {
+                continue;
+            }
+
+            keys[item] = toLowerCase(text);
+            masks[item] = mask(keys[item]);
+            for (int start = 0; start + GRAM <= keys[item].length(); start++)
+            {
+                postings.computeIfAbsent(gram(keys[item], start), gram -> new IntList()).add(item);
+            }
+        }
+
+        index = new HashMap<>(postings.size() * 2);
+        for (Map.Entry<Long, IntList> posting : postings.entrySet())
+        {
+            index.put(posting.getKey(), posting.getValue().toArray());
+        }
+
+        queries = new ArrayList<>();
+        results = new ArrayList<>();
+        int[] all = new int[keys.length];
+        for (int item = 0; item < all.length; item++)
+        {
+            all[item] = item;
+        }
+        queries.add("");
+        results.add(all);
+    }
+
+    /**
+     * Returns how items must contain the query to match it.
+     *
+     * @return how items must contain the query to match it
+     */
+    public Mode getMode()
+    {
+        return mode;
+    }
+
+    /**
+     * Returns the number of items, including those that do not match.
+     *
+     * @return the number of items
+     */
+    public int getItemCount()
+    {
+        return keys.length;
+    }
+
+    /**
+     * Returns the current query.
+     *
+     * @return the current query, in lower case
+     */
+    public String getQuery()
+    {
+        return queries.get(queries.size() - 1);
+    }
+
+    /**
+     * Changes the query and finds the items that match it. Matches of queries that the new query begins with are
+     * reused, so adding to the end of the query or removing from it only checks items that are already known to be
+     * close.
+     *
+     * @param query the new query
+     */
+    public void setQuery(String query)
+    {
+        String key = toLowerCase(query == null ? "" : query);
+
+        // Forget every query that the new one does not begin with; the empty query always remains
+        while (!key.startsWith(queries.get(queries.size() - 1)))
+        {
+            queries.remove(queries.size() - 1);
+            results.remove(results.size() - 1);
+        }
+
+        String base = queries.get(queries.size() - 1);
+        if (base.length() == key.length())
+        {
+            return;
+        }
+
+        int[] candidates = results.get(results.size() - 1);
+        if (base.isEmpty() && mode != Mode.FUZZY && key.length() >= GRAM)
+        {
+            candidates = indexed(key);
+        }
+
+        queries.add(key);
+        results.add(refine(candidates, key));
+    }
+
+    /**
+     * Returns the number of items matching the current query.
+     *
+     * @return the number of matches
+     */
+    public int size()
+    {
+        return results.get(results.size() - 1).length;
+    }
+
+    /**
+     * Returns the index of an item matching the current query.
+     *
+     * @param match the index of the match, in the order of the items
+     * @return the index of the item among all items
+     */
+    public int getMatch(int match)
+    {
+        return results.get(results.size() - 1)[match];
+    }
+
+    /**
+     * Returns the indices of every item matching the current query.
+     *
+     * @return the indices of the matching items, in ascending order
+     */
+    public int[] getMatches()
+    {
+        return results.get(results.size() - 1).clone();
+    }
+
+    /**
+     * Returns the items that match a query among the given candidates.
+     *
+     * @param candidates the indices of the items that may match, in ascending order
+     * @param key        the query in lower case
+     * @return the indices of the matching items, in ascending order
+     */
+    private int[] refine(int[] candidates, String key)
+    {
+        long mask = mask(key);
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int item : candidates)
+        {
+            if ((masks[item] & mask) == mask && matches(keys[item], key))
+            {
+                matches[count++] = item;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Returns the items containing the least common of a query's character sequences, according to the index.
+     *
+     * @param key the query in lower case; must be at least {@link #GRAM} characters long
+     * @return the indices of the items containing the sequence, in ascending order; these must still be checked
+     */
+    private int[] indexed(String key)
+    {
+        int[] rarest = null;
+        for (int start = 0; start + GRAM <= key.length(); start++)
+        {
+            int[] posting = index.get(gram(key, start));
+            if (posting == null)
+            {
+                return new int[0];
+            }
+
+            if (rarest == null || posting.length < rarest.length)
+            {
+                rarest = posting;
+            }
+
+            if (mode == Mode.PREFIX)
+            {
+                // Only the first sequence is known to be at the same place in every match
+                break;
+            }
+        }
+        return rarest;
+    }
+
+    /**
+     * Returns true if an item matches a query.
+     *
+     * @param item the item in lower case; may be null
+     * @param key  the query in lower case
+     * @return true if the item matches the query
+     */
+    private boolean matches(String item, String key)
+    {
+        if (item == null)
+        {
+            return key.isEmpty();
+        }
+
+        switch (mode)
+        {
+            case PREFIX:
+                return item.startsWith(key);
+            case SUBSTRING:
+                return item.contains(key);
+            default:
+                int next = 0;
+                for (int i = 0; i < item.length() && next < key.length(); i++)
+                {
+                    if (item.charAt(i) == key.charAt(next))
+                    {
+                        next++;
+                    }
+                }
+                return next == key.length();
+        }
+    }
+
+    /**
+     * Returns a sequence of {@link #GRAM} characters packed into a single value.
+     *
+     * @param text  the text containing the sequence
+     * @param start the index of the first character of the sequence
+     * @return the packed sequence
+     */
+    private static long gram(String text, int start)
+    {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+
+    /**
+     * Returns a mask with one bit for each character in some text. Letters and digits have a bit of their own, and
+     * every other character shares a bit with others.
+     *
+     * @param text the text in lower case
+     * @return a mask of the characters in the text
+     */
+    private static long mask(CharSequence text)
+    {
+        long mask = 0;
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'z')
+            {
+                mask |= 1L << (c - 'a');
+            }
+            else if (c >= '0' && c <= '9')
+            {
+                mask |= 1L << (26 + c - '0');
+            }
+            else
+            {
+                mask |= 1L << (36 + c % 28);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Converts text to lower case one character at a time, so that its length does not change.
+     *
+     * @param text the text to convert
+     * @return the text in lower case
+     */
+    private static String toLowerCase(CharSequence text)
+    {
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++)
+        {
+            chars[i] = Character.toLowerCase(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * A growable list of ints, used while building the index.
+     */
+    private static class IntList
+    {
+        /**
+         * The ints in the list, followed by unused space.
+         */
+        private int[] values = new int[4];
+
+        /**
+         * The number of ints in the list.
+         */
+        private int size;
+
+        /**
+         * Adds an item index, unless it was the last one added.
+         *
+         * @param value the item index to add
+         */
+        public void add(int value)
+        {
+            if (size > 0 && values[size - 1] == value)
+            {
+                return;
+            }
+
+            if (size == values.length)
+            {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        /**
+         * Returns the ints in the list.
+         *
+         * @return a new array of the ints in the list
+         */
+        public int[] toArray()
+        {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
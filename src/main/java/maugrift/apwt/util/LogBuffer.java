@@ -0,0 +1,326 @@
+package maugrift.apwt.util;
+
+import maugrift.apwt.glyphs.ColorString;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-capacity log of {@link ColorString} messages that any number of threads can append to without locking,
+ * while another thread reads the most recent messages. Each message is given the next number in sequence and stored in
+ * the slot for that number, so appending never waits on a lock, and only retries if another thread stores a message in
+ * the same slot at the same moment. A slot never goes back from a newer message to an older one.
+ * <p>
+ * Reads return a consistent snapshot: a run of messages with consecutive numbers, ending before the first message
+ * that has been numbered but not yet stored. A message appended while a read is in progress may therefore appear in
+ * the next read instead. Messages are {@link ColorString#toFrozen() frozen} when appended, so they can be shared with
+ * readers safely.
+ *
+ * @author Maugrift
+ */
+public class LogBuffer
+{
+    /**
+     * What a {@link LogBuffer} does with a message appended when it is full.
+     */
+    public enum Overflow
+    {
+        /**
+         * Keep the new message, replacing the oldest one.
+         */
+        DISCARD_OLDEST,
+
+        /**
+         * Refuse the new message until the {@link LogBuffer} is cleared.
+         */
+        DISCARD_NEWEST
+    }
+
+    /**
+     * The slots holding the messages, each message stored at its sequence number modulo the capacity.
+     */
+    private final AtomicReferenceArray<Entry> slots;
+
+    /**
+     * The maximum number of messages held.
+     */
+    private final int capacity;
+
+    /**
+     * What is done with messages appended when the {@link LogBuffer} is full.
+     */
+    private final Overflow overflow;
+
+    /**
+     * The sequence number that will be given to the next message.
+     */
+    private final AtomicLong next;
+
+    /**
+     * The sequence number of the first message appended since the {@link LogBuffer} was last cleared.
+     */
+    private final AtomicLong start;
+
+    /**
+     * The number of messages refused because the {@link LogBuffer} was full.
+     */
+    private final AtomicLong dropped;
+
+    /**
+     * Creates an empty {@link LogBuffer}.
+     *
+     * @param capacity the maximum number of messages held; must be positive
+     * @param overflow what is done with messages appended when the {@link LogBuffer} is full
+     */
+    public LogBuffer(int capacity, Overflow overflow)
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("Capacity must be positive; was " + capacity);
+        }
+
+        if (overflow == null)
+        {
+            throw new NullPointerException("Overflow may not be null");
+        }
+
+        this.capacity = capacity;
+        this.overflow = overflow;
+        slots = new AtomicReferenceArray<>(capacity);
+        next = new AtomicLong();
+        start = new AtomicLong();
+        dropped = new AtomicLong();
+    }
+
+    /**
+     * Creates an empty {@link LogBuffer} that replaces its oldest message when full.
+     *
+     * @param capacity the maximum number of messages held; must be positive
+     */
+    public LogBuffer(int capacity)
+    {
+        this(capacity, Overflow.DISCARD_OLDEST);
+    }
+
+    /**
+     * Appends a message. May be called from any thread.
+     *
+     * @param message the message to append
+     * @return true if the message was appended, false if it was refused because the {@link LogBuffer} is full
+     */
+    public boolean append(ColorString message)
+    {
+        if (message == null)
+        {
+            throw new NullPointerException("Message may not be null");
+        }
+
+        long sequence;
+        if (overflow == Overflow.DISCARD_OLDEST)
+        {
+            sequence = next.getAndIncrement();
+        }
+        else
+        {
+            do
+            {
+                sequence = next.get();
+                if (sequence - start.get() >= capacity)
+                {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+            } while (!next.compareAndSet(sequence, sequence + 1));
+        }
+
+        store(new Entry(sequence, message.toFrozen()));
+        return true;
+    }
+
+    /**
+     * Stores an entry in its slot, unless the slot already holds a newer one. A thread that numbers a message and is
+     * then delayed can find that a message numbered a full capacity later was stored first; the older message counts
+     * as replaced, so it is dropped rather than hiding the newer one from readers.
+     *
+     * @param entry the entry to store
+     */
+    private void store(Entry entry)
+    {
+        int slot = slot(entry.sequence);
+        Entry current;
+        do
+        {
+            current = slots.get(slot);
+            if (current != null && current.sequence > entry.sequence)
+            {
+                return;
+            }
+        } while (!slots.compareAndSet(slot, current, entry));
+    }
+
+    /**
+     * Appends a message in the given colors. May be called from any thread.
+     *
+     * @param message    the message to append
+     * @param foreground the foreground color of the message; may be null
+     * @param background the background color of the message; may be null
+     * @return true if the message was appended, false if it was refused because the {@link LogBuffer} is full
+     */
+    public boolean append(String message, Color foreground, Color background)
+    {
+        return append(new ColorString(message, foreground, background));
+    }
+
+    /**
+     * Removes every message. Messages being appended at the same time may or may not be kept.
+     */
+    public void clear()
+    {
+        start.set(next.get());
+    }
+
+    /**
+     * Copies the most recent messages into the given array, oldest first, without allocating.
+     *
+     * @param messages the array to fill; at most its length in messages are copied
+     * @return the number of messages copied, which fill the array from index 0
+     */
+    public int snapshot(ColorString[] messages)
+    {
+        long end = next.get();
+        long first = Math.max(start.get(), end - Math.min(capacity, messages.length));
+        int count = 0;
+        for (long sequence = first; sequence < end; sequence++)
+        {
+            Entry entry = slots.get(slot(sequence));
+            if (entry == null || entry.sequence < sequence)
+            {
+                // Numbered but not yet stored; later messages are left for the next read
+                break;
+            }
+
+            if (entry.sequence > sequence)
+            {
+                // Already replaced by a newer message, so the messages copied so far are older still
+                count = 0;
+                continue;
+            }
+
+            messages[count++] = entry.message;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the most recent messages, oldest first.
+     *
+     * @param limit the maximum number of messages to return
+     * @return a new List of up to the given number of messages
+     */
+    public List<ColorString> snapshot(int limit)
+    {
+        ColorString[] messages = new ColorString[Math.max(0, Math.min(limit, capacity))];
+        int count = snapshot(messages);
+        List<ColorString> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            list.add(messages[i]);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the maximum number of messages held.
+     *
+     * @return the maximum number of messages held
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Returns what is done with messages appended when the {@link LogBuffer} is full.
+     *
+     * @return what is done with messages appended when the {@link LogBuffer} is full
+     */
+    public Overflow getOverflow()
+    {
+        return overflow;
+    }
+
+    /**
+     * Returns the number of messages currently held.
+     *
+     * @return the number of messages currently held
+     */
+    public int size()
+    {
+        return (int) Math.min(capacity, Math.max(0, next.get() - start.get()));
+    }
+
+    /**
+     * Returns the number of messages refused because the {@link LogBuffer} was full. Messages replaced under {@link
+     * Overflow#DISCARD_OLDEST} are not counted.
+     *
+     * @return the number of messages refused
+     */
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the total number of messages appended, including any that have since been replaced or cleared. This
+     * changes whenever a message is appended, so it can be compared between frames to tell whether to redraw.
+     *
+     * @return the total number of messages appended
+     */
+    public long getAppended()
+    {
+        return next.get();
+    }
+
+    /**
+     * Returns the slot in which the message with the given sequence number is stored.
+     *
+     * @param sequence the sequence number of the message
+     * @return the index of the message's slot
+     */
+    private int slot(long sequence)
+    {
+        return (int) (sequence % capacity);
+    }
+
+    /**
+     * A message and its sequence number, stored together so that readers can tell whether a slot holds the message
+     * they expect.
+     */
+    private static final class Entry
+    {
+        /**
+         * The sequence number of the message.
+         */
+        final long sequence;
+
+        /**
+         * The message.
+         */
+        final ColorString message;
+
+        /**
+         * Creates an {@link Entry}.
+         *
+         * @param sequence the sequence number of the message
+         * @param message  the message
+         */
+        Entry(long sequence, ColorString message)
+        {
+            this.sequence = sequence;
+            this.message = message;
+        }
+    }
+}
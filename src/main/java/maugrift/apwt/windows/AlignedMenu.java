@@ -1,7 +1,5 @@
 package maugrift.apwt.windows;
 
-import maugrift.apwt.glyphs.ColorString;
-
 import java.awt.*;
 
 /**
@@ -38,16 +36,16 @@ public class AlignedMenu extends ColoredMenu<AlignedWindow>
     }
 
     @Override
-    public AlignedWindow getOutput()
+    protected AlignedWindow createOutput()
     {
-        AlignedWindow copy = new AlignedWindow(getWindow());
-        copy.getContents().clear();
-        for (ColorString content : getWindow().getContents())
-        {
-            copy.getContents().add(content == null ? null : new ColorString(content));
-        }
+        AlignedWindow output = new AlignedWindow(getWindow());
+        output.getContents().clear();
+        return output;
+    }
 
-        applySelectionColors(copy.getContents().get(getSelectionIndex()));
-        return copy;
+    @Override
+    protected void updateOutput(AlignedWindow output)
+    {
+        output.setLocation(getWindow().getX(), getWindow().getY());
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,12 @@
 package maugrift.apwt.windows;
 
 import maugrift.apwt.display.Display;
+import maugrift.apwt.display.MergingDisplay;
 import maugrift.apwt.glyphs.ColorString;
 
+import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -17,13 +20,13 @@ public class AlignedWindow extends CoordWindow
 {
     /**
      * The x value of right edge of the {@link AlignedWindow}, including its {@link Border}. Stored as it is
-     * recalculated on each repaint, yet hard to calculate on its own.
+     * recalculated whenever the layout changes, yet hard to calculate on its own.
      */
     private int right;
 
     /**
      * The y value of the bottom edge of the {@link AlignedWindow}, including its {@link Border}. Stored as it is
-     * recalculated on each repaint, yet hard to calculate on its own.
+     * recalculated whenever the layout changes, yet hard to calculate on its own.
      */
     private int bottom;
 
@@ -32,6 +35,19 @@ public class AlignedWindow extends CoordWindow
      */
     private List<Line> separators;
 
+    /**
+     * The layout computed by the last call to {@link #display()}, updated as the contents change and reused while the
+     * separators, border and location stay the same; null if the {@link AlignedWindow} has not been displayed.
+     */
+    private Layout layout;
+
+    /**
+     * The {@link MergingDisplay#shared(Display) shared} {@link MergingDisplay} through which separators are drawn, held
+     * so that it is kept while the {@link AlignedWindow} is in use; null until the {@link AlignedWindow} is displayed
+     * with separators on a {@link Display} that does not merge lines itself.
+     */
+    private MergingDisplay merger;
+
     /**
      * Creates an {@link AlignedWindow} with all fields defined.
      *
@@ -47,6 +63,10 @@ public class AlignedWindow extends CoordWindow
     {
         super(display, border, contents, x, y);
         this.separators = separators;
+        if (getContents() != null)
+        {
+            getContents().addListener(new LayoutUpdater());
+        }
     }
 
     /**
@@ -134,60 +154,383 @@ public class AlignedWindow extends CoordWindow
             return;
         }
 
-        try
+        Display display = prepareDisplay(getBounds());
+        if (display == null)
+        {
+            return;
+        }
+
+        // Separators are drawn through a MergingDisplay so that they join each other and the border in one pass; one
+        // given as the Display is shared with other windows and reset by its owner, so lines also join across windows
+        Display lines = display;
+        if (hasSeparators() && !(display instanceof MergingDisplay))
         {
-            if (!getDisplay().contains(getX() - 1, getY() - 1))
+            if (merger == null || merger.getTarget() != display)
             {
-                throw new IndexOutOfBoundsException(
-                        "Top left coordinates must be >= 1; were " + getX() + " and " + getY());
+                merger = MergingDisplay.shared(display);
             }
 
-            if (getContents() == null || getContents().isEmpty())
+            merger.reset();
+            lines = merger;
+        }
+
+        if (isBordered())
+        {
+            lines.drawBorder(getX() - 1, getY() - 1, right, bottom, getBorder());
+        }
+
+        if (hasSeparators())
+        {
+            for (int separator = 0; separator < separators.size(); separator++)
             {
-                throw new IllegalArgumentException("At least 1 line of text must be provided");
+                Line line = separators.get(separator);
+                if (line != null)
+                {
+                    drawSeparator(lines, layout.endX[separator * 2], layout.endY[separator * 2],
+                            line.horizontal ? layout.separatorRight : layout.endX[separator * 2 + 1],
+                            layout.endY[separator * 2 + 1], line);
+                }
             }
+        }
 
-            int nBlocks = 1;
+        int block = 0;
+        int row = 0;
+        for (ColorString line : getContents())
+        {
+            if (line == null)
+            {
+                block++;
+                row = 0;
+                continue;
+            }
 
-            for (ColorString line : getContents())
+            display.write(layout.textX[block], layout.textY[block] + row, line);
+            row++;
+        }
+    }
+
+    /**
+     * Draws a separator between two endpoints, unless they do not form a line in the separator's direction, as happens
+     * when the blocks around the separator are empty.
+     *
+     * @param display   the {@link Display} to draw on
+     * @param x1        the x value of the first endpoint
+     * @param y1        the y value of the first endpoint
+     * @param x2        the x value of the second endpoint
+     * @param y2        the y value of the second endpoint
+     * @param separator the separator to draw
+     */
+    private static void drawSeparator(Display display, int x1, int y1, int x2, int y2, Line separator)
+    {
+        if (separator.horizontal ? y1 == y2 && x1 != x2 : x1 == x2 && y1 != y2)
+        {
+            display.drawLine(x1, y1, x2, y2, separator);
+        }
+    }
+
+    /**
+     * Brings the {@link Layout} up to date with the {@link AlignedWindow}, and updates the right and bottom coordinates
+     * from it.
+     */
+    private void layOut()
+    {
+        if (layout == null || !layout.matches(this))
+        {
+            layout = new Layout(this);
+        }
+        else if (!layout.placed)
+        {
+            layout.place();
+        }
+
+        right = layout.right;
+        bottom = layout.bottom;
+    }
+
+    /**
+     * Returns the area that the {@link AlignedWindow} covers when displayed, laying it out if needed. This also updates
+     * the values returned by {@link #getRight()} and {@link #getBottom()}.
+     *
+     * @return the area covered by the {@link AlignedWindow}, or null if it has no contents
+     */
+    @Override
+    public Rectangle getBounds()
+    {
+        if (getContents() == null || getContents().isEmpty())
+        {
+            return null;
+        }
+
+        layOut();
+
+        // Separators reach the cells a border would cover, even without a border
+        boolean framed = isBordered() || hasSeparators();
+        int extra = framed && !isBordered() ? 1 : 0;
+        int left = framed ? getX() - 1 : getX();
+        int top = framed ? getY() - 1 : getY();
+        return new Rectangle(left, top, right + extra - left + 1, bottom + extra - top + 1);
+    }
+
+    /**
+     * Returns the x coordinate of the right side of the {@link AlignedWindow}. For best accuracy when drawing
+     * subsequent windows based on this, call {@link #display()} before calling this method.
+     *
+     * @return the x coordinate of the right side of the {@link AlignedWindow}
+     */
+    public int getRight()
+    {
+        return right;
+    }
+
+    /**
+     * Returns the y coordinate of the bottom of the {@link AlignedWindow}. For best accuracy when drawing
+     * subsequent windows based on this, call {@link #display()} before calling this method.
+     *
+     * @return the y coordinate of the bottom of the {@link AlignedWindow}
+     */
+    public int getBottom()
+    {
+        return bottom;
+    }
+
+    /**
+     * Returns the List of Lines used to separate the {@link AlignedWindow}.
+     *
+     * @return the List of Lines used to separate the {@link AlignedWindow}
+     */
+    public List<Line> getSeparators()
+    {
+        return separators;
+    }
+
+    /**
+     * Returns true if the {@link AlignedWindow} has separators.
+     *
+     * @return true if the {@link AlignedWindow}'s List of separators is not null or empty
+     */
+    public boolean hasSeparators()
+    {
+        return hasSeparators(1);
+    }
+
+    /**
+     * Returns true if the {@link AlignedWindow} has at least the given number of separators.
+     *
+     * @param amount the amount of separators required for the method to return true
+     * @return true if the {@link AlignedWindow}'s List of separators has at least the given number of separators in it
+     */
+    public boolean hasSeparators(int amount)
+    {
+        return separators != null && separators.size() >= amount;
+    }
+
+    /**
+     * Adds a separator associated with the provided {@link Line}.
+     *
+     * @param separator the {@link Line} to add as a separator
+     */
+    public void addSeparator(Line separator)
+    {
+        getContents().add(null);
+        separators.add(separator);
+    }
+
+    /**
+     * Sets the separator at the given index to the provided {@link Line}.
+     *
+     * @param index     the index to update
+     * @param separator the {@link Line} to set as the new separator
+     */
+    public void setSeparator(int index, Line separator)
+    {
+        if (index >= separators.size() || index < 0)
+        {
+            throw new IndexOutOfBoundsException("Index must be between 0 and " + separators.size());
+        }
+
+        separators.set(index, separator);
+    }
+
+    /**
+     * The positions of every block of text and separator in an {@link AlignedWindow}, along with what they were
+     * computed from. The length of every line and the size and width of every block are kept up to date from {@link
+     * ContentsListener} events, so a changed line only costs work in its own block, and positions are then derived
+     * from the blocks alone. Inserting or removing a separator, or changing what the layout was computed from in any
+     * other way, requires a new {@link Layout}.
+     */
+    private static final class Layout
+    {
+        /**
+         * The x coordinate of the window when laid out.
+         */
+        final int x;
+
+        /**
+         * The y coordinate of the window when laid out.
+         */
+        final int y;
+
+        /**
+         * True if the window had a {@link Border} when laid out.
+         */
+        final boolean bordered;
+
+        /**
+         * The separators when laid out; null if the window had none.
+         */
+        final Line[] separators;
+
+        /**
+         * The direction of each separator when laid out.
+         */
+        final boolean[] horizontal;
+
+        /**
+         * The length of each line, -1 for null lines; only the first {@link #count} are used.
+         */
+        int[] lengths;
+
+        /**
+         * The number of lines.
+         */
+        int count;
+
+        /**
+         * The index of each null line, in ascending order.
+         */
+        final int[] nulls;
+
+        /**
+         * The number of lines in each block.
+         */
+        final int[] blockSizes;
+
+        /**
+         * The length of the longest line in each block.
+         */
+        final int[] blockWidths;
+
+        /**
+         * The {@link WindowContents#getChangeCount() change count} of the contents that the layout reflects.
+         */
+        int changes;
+
+        /**
+         * False if the contents changed in a way the layout cannot follow, so that a new {@link Layout} is needed.
+         */
+        boolean valid;
+
+        /**
+         * False if the blocks changed since the positions below were computed.
+         */
+        boolean placed;
+
+        /**
+         * The x coordinate of the first line of each block.
+         */
+        final int[] textX;
+
+        /**
+         * The y coordinate of the first line of each block.
+         */
+        final int[] textY;
+
+        /**
+         * The x coordinates of the endpoints of each separator, two per separator.
+         */
+        final int[] endX;
+
+        /**
+         * The y coordinates of the endpoints of each separator, two per separator.
+         */
+        final int[] endY;
+
+        /**
+         * The x coordinate at which horizontal separators end.
+         */
+        int separatorRight;
+
+        /**
+         * The x value of the right edge of the window.
+         */
+        int right;
+
+        /**
+         * The y value of the bottom edge of the window.
+         */
+        int bottom;
+
+        /**
+         * Computes the layout of an {@link AlignedWindow}.
+         *
+         * @param window the {@link AlignedWindow} to lay out
+         */
+        Layout(AlignedWindow window)
+        {
+            x = window.getX();
+            y = window.getY();
+            bordered = window.isBordered();
+
+            WindowContents contents = window.getContents();
+            changes = contents.getChangeCount();
+            count = contents.size();
+            lengths = new int[count];
+            int nBlocks = 1;
+            int index = 0;
+            for (ColorString line : contents)
             {
                 if (line == null)
                 {
+                    lengths[index] = -1;
                     nBlocks++;
                 }
+                else
+                {
+                    lengths[index] = line.length();
+                }
+                index++;
             }
 
-            List<ColorString>[] blocks = new ArrayList[nBlocks];
+            List<Line> separatorList = window.separators;
+            if (separatorList == null)
+            {
+                separators = null;
+                horizontal = null;
+            }
+            else
+            {
+                separators = separatorList.toArray(new Line[separatorList.size()]);
+                horizontal = new boolean[separators.length];
+                for (int i = 0; i < separators.length; i++)
+                {
+                    horizontal[i] = separators[i] != null && separators[i].horizontal;
+                }
+            }
 
+            nulls = new int[nBlocks - 1];
+            blockSizes = new int[nBlocks];
+            blockWidths = new int[nBlocks];
             int curBlock = 0;
-            blocks[0] = new ArrayList<>();
-
-            for (ColorString line : getContents())
+            for (int i = 0; i < count; i++)
             {
-                if (line != null)
+                if (lengths[i] == -1)
                 {
-                    blocks[curBlock].add(line);
+                    nulls[curBlock] = i;
+                    curBlock++;
                 }
                 else
                 {
-                    curBlock++;
-                    blocks[curBlock] = new ArrayList<>();
+                    blockSizes[curBlock]++;
+                    blockWidths[curBlock] = Math.max(blockWidths[curBlock], lengths[i]);
                 }
             }
 
-            int curLine = getY();
-            int curIndent = getX();
-            int overallMaxLength = 0;
-            int curMaxLines = blocks[0].size();
-            int overallLines = blocks[0].size();
-            int[] textX = new int[nBlocks];
-            int[] textY = new int[nBlocks];
-
-            int[] endX, endY;
-            if (hasSeparators())
+            textX = new int[nBlocks];
+            textY = new int[nBlocks];
+            if (window.hasSeparators())
             {
-                endX = new int[separators.size() * 2];
-                endY = new int[separators.size() * 2];
+                endX = new int[separators.length * 2];
+                endY = new int[separators.length * 2];
             }
             else
             {
@@ -195,71 +538,76 @@ public class AlignedWindow extends CoordWindow
                 endY = null;
             }
 
-            for (int block = 0; block < blocks.length; block++)
+            valid = true;
+            place();
+        }
+
+        /**
+         * Computes the positions of every block and separator from the size and width of each block.
+         */
+        void place()
+        {
+            int nBlocks = blockSizes.length;
+            int curLine = y;
+            int curIndent = x;
+            int overallMaxLength = 0;
+            int curMaxLines = blockSizes[0];
+            int overallLines = blockSizes[0];
+            boolean hasSeparators = endX != null;
+
+            for (int block = 0; block < nBlocks; block++)
             {
                 textX[block] = curIndent;
                 textY[block] = curLine;
 
-                int curMaxLength = 0;
-                for (ColorString line : blocks[block])
-                {
-                    if (line.getCharacters().size() > curMaxLength)
-                    {
-                        curMaxLength = line.getCharacters().size();
-                    }
-                }
-
-                curMaxLength += curIndent - getX();
+                int curMaxLength = blockWidths[block] + curIndent - x;
 
                 if (curMaxLength > overallMaxLength)
                 {
                     overallMaxLength = curMaxLength;
                 }
 
-                blockCheck:
-                if (blocks[block].size() > curMaxLines)
+                if (blockSizes[block] > curMaxLines)
                 {
                     overallLines -= curMaxLines;
-                    curMaxLines = blocks[block].size();
+                    curMaxLines = blockSizes[block];
                     overallLines += curMaxLines;
 
-                    if (separators == null)
+                    if (separators != null)
                     {
-                        break blockCheck;
-                    }
-
-                    int checkingBlock = block - 1;
-                    while (separators.size() - 1 >= checkingBlock && checkingBlock >= 0 && separators.get(
-                            checkingBlock) != null && !separators.get(checkingBlock).horizontal)
-                    {
-                        endY[checkingBlock * 2 + 1] = curLine + curMaxLines;
-                        checkingBlock--;
+                        int checkingBlock = block - 1;
+                        while (separators.length - 1 >= checkingBlock && checkingBlock >= 0 &&
+                               separators[checkingBlock] != null && !horizontal[checkingBlock])
+                        {
+                            endY[checkingBlock * 2 + 1] = curLine + curMaxLines;
+                            checkingBlock--;
+                        }
                     }
                 }
 
-                if (block == blocks.length - 1)
+                if (block == nBlocks - 1)
                 {
                     break;
                 }
 
-                if (hasSeparators(block + 1) && separators.get(block) != null)
+                if (hasSeparators && separators.length >= block + 1 && separators[block] != null)
                 {
-                    if (separators.get(block).horizontal)
+                    if (horizontal[block])
                     {
-                        curIndent = getX();
+                        curIndent = x;
 
-                        endX[block * 2] = getX() - 1;
+                        endX[block * 2] = x - 1;
                         endY[block * 2] = curLine + curMaxLines;
                         endX[block * 2 + 1] = curIndent + overallMaxLength;
                         endY[block * 2 + 1] = curLine + curMaxLines;
 
                         curLine += curMaxLines + 1;
-                        curMaxLines = blocks[block + 1].size();
-                        overallLines += blocks[block + 1].size() + 1;
+                        curMaxLines = blockSizes[block + 1];
+                        overallLines += blockSizes[block + 1] + 1;
                     }
                     else
                     {
-                        curIndent = getX() + curMaxLength + 1;
+                        curIndent = x + curMaxLength + 1;
 
                         endX[block * 2] = curIndent - 1;
                         endY[block * 2] = curLine - 1;
@@ -269,142 +617,249 @@ public class AlignedWindow extends CoordWindow
                 }
                 else
                 {
-                    curIndent = getX();
+                    curIndent = x;
                     curLine += curMaxLines + 1;
-                    curMaxLines = blocks[block + 1].size();
-                    overallLines += blocks[block + 1].size() + 1;
+                    curMaxLines = blockSizes[block + 1];
+                    overallLines += blockSizes[block + 1] + 1;
                 }
             }
 
-            right = getX() + overallMaxLength;
-            bottom = getY() + overallLines;
+            separatorRight = x + overallMaxLength;
+            // Borderless windows end one cell sooner, as no border is drawn around them
+            right = x + overallMaxLength - (bordered ? 0 : 1);
+            bottom = y + overallLines - (bordered ? 0 : 1);
+            placed = true;
+        }
+
+        /**
+         * Returns the block containing the line at the given index.
+         *
+         * @param index the index of a line
+         * @return the number of null lines before the index
+         */
+        int blockOf(int index)
+        {
+            int found = Arrays.binarySearch(nulls, index);
+            return found >= 0 ? found : -found - 1;
+        }
 
-            if (isBordered())
+        /**
+         * Recomputes the width of a block from the lengths of its lines.
+         *
+         * @param block the block to measure
+         */
+        void measure(int block)
+        {
+            int start = block == 0 ? 0 : nulls[block - 1] + 1;
+            int end = block == nulls.length ? count : nulls[block];
+            int width = 0;
+            for (int i = start; i < end; i++)
             {
-                getDisplay().drawBorder(getX() - 1, getY() - 1, right, bottom, getBorder());
+                width = Math.max(width, lengths[i]);
             }
-            else
+            blockWidths[block] = width;
+        }
+
+        /**
+         * Follows lines that were replaced or changed in place.
+         *
+         * @param contents the contents of the window
+         * @param start    the index of the first changed line
+         * @param end      the index after the last changed line
+         */
+        void updated(List<ColorString> contents, int start, int end)
+        {
+            for (int i = start; i < end && valid; i++)
             {
-                right--;
-                bottom--;
+                ColorString line = contents.get(i);
+                valid = resize(i, line == null ? -1 : line.length());
             }
+        }
 
-            if (hasSeparators())
+        /**
+         * Records the current length of a line, remeasuring its block if the line was or has become its widest.
+         *
+         * @param index  the index of the line
+         * @param length the length of the line, -1 if it is null
+         * @return false if the line has become or stopped being null, which the layout cannot follow
+         */
+        boolean resize(int index, int length)
+        {
+            int previous = lengths[index];
+            if ((length == -1) != (previous == -1))
             {
-                // Must be done as 2 loops so that vertical separators can
-                // overwrite horizontal ones
+                return false;
+            }
 
-                for (int separator = 0; separator < separators.size(); separator++)
+            if (length != previous)
+            {
+                int block = blockOf(index);
+                lengths[index] = length;
+                if (length > blockWidths[block])
                 {
-                    if (separators.size() - 1 >= separator && separators.get(separator) != null && separators.get(
-                            separator).horizontal)
-                    {
-                        getDisplay().drawLine(endX[separator * 2], endY[separator * 2], getX() + overallMaxLength,
-                                endY[separator * 2 + 1], separators.get(separator));
-                    }
+                    blockWidths[block] = length;
+                }
+                else if (previous == blockWidths[block])
+                {
+                    measure(block);
                 }
+                placed = false;
+            }
+            return true;
+        }
 
-                for (int separator = 0; separator < separators.size(); separator++)
+        /**
+         * Follows lines that were inserted.
+         *
+         * @param contents the contents of the window
+         * @param start    the index of the first inserted line
+         * @param end      the index after the last inserted line
+         */
+        void inserted(List<ColorString> contents, int start, int end)
+        {
+            int inserted = end - start;
+            for (int i = start; i < end; i++)
+            {
+                if (contents.get(i) == null)
                 {
-                    if (separators.size() - 1 >= separator && separators.get(separator) != null && !separators.get(
-                            separator).horizontal)
-                    {
-                        getDisplay().drawLine(endX[separator * 2], endY[separator * 2], endX[separator * 2 + 1],
-                                endY[separator * 2 + 1], separators.get(separator));
-                    }
+                    valid = false;
+                    return;
                 }
             }
 
-            for (int block = 0; block < nBlocks; block++)
+            if (count + inserted > lengths.length)
             {
-                getDisplay().write(textX[block], textY[block],
-                        blocks[block].toArray(new ColorString[blocks[block].size()]));
+                lengths = Arrays.copyOf(lengths, Math.max(count + inserted, lengths.length * 2));
             }
+            System.arraycopy(lengths, start, lengths, end, count - start);
+            count += inserted;
+
+            int block = blockOf(start);
+            for (int i = block; i < nulls.length; i++)
+            {
+                nulls[i] += inserted;
+            }
+
+            for (int i = start; i < end; i++)
+            {
+                lengths[i] = contents.get(i).length();
+                blockWidths[block] = Math.max(blockWidths[block], lengths[i]);
+            }
+            blockSizes[block] += inserted;
+            placed = false;
         }
-        catch (IllegalArgumentException | IndexOutOfBoundsException e)
+
+        /**
+         * Follows lines that were removed.
+         *
+         * @param start the index of the first removed line
+         * @param end   the index after the last removed line
+         */
+        void removed(int start, int end)
         {
-            // Do not print the Window if exceptions are encountered
-            return;
-        }
-    }
+            int block = blockOf(start);
+            if (block != blockOf(end) || (block < nulls.length && nulls[block] < end))
+            {
+                // A separator was removed
+                valid = false;
+                return;
+            }
 
-    /**
-     * Returns the x coordinate of the right side of the {@link AlignedWindow}. For best accuracy when drawing
-     * subsequent windows based on this, call {@link #display()} before calling this method.
-     *
-     * @return the x coordinate of the right side of the {@link AlignedWindow}
-     */
-    public int getRight()
-    {
-        return right;
-    }
+            boolean widest = false;
+            for (int i = start; i < end; i++)
+            {
+                widest |= lengths[i] == blockWidths[block];
+            }
 
-    /**
-     * Returns the y coordinate of the bottom of the {@link AlignedWindow}. For best accuracy when drawing
-     * subsequent windows based on this, call {@link #display()} before calling this method.
-     *
-     * @return the y coordinate of the bottom of the {@link AlignedWindow}
-     */
-    public int getBottom()
-    {
-        return bottom;
-    }
+            int removed = end - start;
+            System.arraycopy(lengths, end, lengths, start, count - end);
+            count -= removed;
+            for (int i = block; i < nulls.length; i++)
+            {
+                nulls[i] -= removed;
+            }
 
-    /**
-     * Returns the List of Lines used to separate the {@link AlignedWindow}.
-     *
-     * @return the List of Lines used to separate the {@link AlignedWindow}
-     */
-    public List<Line> getSeparators()
-    {
-        return separators;
-    }
+            blockSizes[block] -= removed;
+            if (widest)
+            {
+                measure(block);
+            }
+            placed = false;
+        }
 
-    /**
-     * Returns true if the {@link AlignedWindow} has separators.
-     *
-     * @return true if the {@link AlignedWindow}'s List of separators is not null or empty
-     */
-    public boolean hasSeparators()
-    {
-        return hasSeparators(1);
-    }
+        /**
+         * Returns true if this layout still applies to the given {@link AlignedWindow}. Line lengths are kept up to
+         * date by events, so only the number of lines and the number of changes reported are compared here, which
+         * catches lines added to or removed from the List the {@link WindowContents} wrap in constant time. A {@link
+         * ColorString} changed in place must be reported with {@link WindowContents#update(int)}.
+         *
+         * @param window the {@link AlignedWindow} this layout was computed for
+         * @return true if the window has not changed in any way that affects its layout
+         */
+        boolean matches(AlignedWindow window)
+        {
+            if (!valid || window.getX() != x || window.getY() != y || window.isBordered() != bordered ||
+                window.getContents().size() != count || window.getContents().getChangeCount() != changes)
+            {
+                return false;
+            }
 
-    /**
-     * Returns true if the {@link AlignedWindow} has at least the given number of separators.
-     *
-     * @param amount the amount of separators required for the method to return true
-     * @return true if the {@link AlignedWindow}'s List of separators has at least the given number of separators in it
-     */
-    public boolean hasSeparators(int amount)
-    {
-        return separators != null && separators.size() >= amount;
-    }
+            List<Line> separatorList = window.separators;
+            if (separatorList == null ? separators != null :
+                separators == null || separatorList.size() != separators.length)
+            {
+                return false;
+            }
 
-    /**
-     * Adds a separator associated with the provided {@link Line}.
-     *
-     * @param separator the {@link Line} to add as a separator
-     */
-    public void addSeparator(Line separator)
-    {
-        getContents().add(null);
-        separators.add(separator);
+            if (separators != null)
+            {
+                for (int i = 0; i < separators.length; i++)
+                {
+                    Line separator = separatorList.get(i);
+                    if (separator != separators[i] || (separator != null && separator.horizontal != horizontal[i]))
+                    {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
     }
 
     /**
-     * Sets the separator at the given index to the provided {@link Line}.
-     *
-     * @param index     the index to update
-     * @param separator the {@link Line} to set as the new separator
+     * Keeps the {@link Layout} up to date with changes to the contents.
      */
-    public void setSeparator(int index, Line separator)
+    private class LayoutUpdater implements ContentsListener
     {
-        if (index >= separators.size() || index < 0)
+        @Override
+        public void contentsInserted(int start, int end)
         {
-            throw new IndexOutOfBoundsException("Index must be between 0 and " + separators.size());
+            if (layout != null && layout.valid)
+            {
+                layout.inserted(getContents(), start, end);
+                layout.changes = getContents().getChangeCount();
+            }
         }
 
-        separators.set(index, separator);
+        @Override
+        public void contentsRemoved(int start, int end)
+        {
+            if (layout != null && layout.valid)
+            {
+                layout.removed(start, end);
+                layout.changes = getContents().getChangeCount();
+            }
+        }
+
+        @Override
+        public void contentsUpdated(int start, int end)
+        {
+            if (layout != null && layout.valid)
+            {
+                layout.updated(getContents(), start, end);
+                layout.changes = getContents().getChangeCount();
+            }
+        }
     }
 }
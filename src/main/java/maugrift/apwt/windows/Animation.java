@@ -0,0 +1,444 @@
+package maugrift.apwt.windows;
+
+import maugrift.apwt.glyphs.ColorString;
+
+import java.awt.*;
+import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A change to a property over time, run by an {@link AnimationScheduler}. Each tick, the scheduler advances the
+ * {@link Animation} by the time that has passed, and the {@link Animation} applies the value of its property at that
+ * time. Only when the value has actually changed is the {@link Animation}'s change callback run, which usually
+ * invalidates the {@link SceneNode} of the animated {@link Window}, so windows are only rendered again when they look
+ * different.
+ * <p>
+ * The static methods create the common animations: moving a {@link CoordWindow}, fading between colors, blinking, and
+ * scrolling text through a fixed width like a marquee.
+ *
+ * @author Maugrift
+ */
+public abstract class Animation
+{
+    /**
+     * The duration of an {@link Animation} that runs until it is cancelled.
+     */
+    public static final long FOREVER = -1;
+
+    /**
+     * Progresses at a constant rate.
+     */
+    public static final DoubleUnaryOperator LINEAR = t -> t;
+
+    /**
+     * Starts slowly and speeds up.
+     */
+    public static final DoubleUnaryOperator EASE_IN = t -> t * t;
+
+    /**
+     * Starts quickly and slows down.
+     */
+    public static final DoubleUnaryOperator EASE_OUT = t -> t * (2 - t);
+
+    /**
+     * Starts and ends slowly.
+     */
+    public static final DoubleUnaryOperator EASE_IN_OUT = t -> t * t * (3 - 2 * t);
+
+    /**
+     * The length of the {@link Animation} in milliseconds, or {@link #FOREVER}.
+     */
+    private final long duration;
+
+    /**
+     * The number of milliseconds the {@link Animation} has run for.
+     */
+    private long elapsed;
+
+    /**
+     * True if the {@link Animation} has been started by an {@link AnimationScheduler}.
+     */
+    private boolean started;
+
+    /**
+     * True if the {@link Animation} has run for its whole duration or been cancelled.
+     */
+    private boolean finished;
+
+    /**
+     * Run after every tick in which the {@link Animation} changed its property; null if nothing needs to be told.
+     */
+    private Runnable onChange;
+
+    /**
+     * Run once when the {@link Animation} runs for its whole duration; null if nothing needs to be told.
+     */
+    private Runnable onFinish;
+
+    /**
+     * Creates an {@link Animation} of the given length.
+     *
+     * @param duration the length of the {@link Animation} in milliseconds; must be positive, or {@link #FOREVER}
+     */
+    protected Animation(long duration)
+    {
+        if (duration < 1 && duration != FOREVER)
+        {
+            throw new IllegalArgumentException("Duration must be positive; was " + duration);
+        }
+
+        this.duration = duration;
+    }
+
+    /**
+     * Called when the {@link Animation} is started, before its first update, to capture any starting values.
+     */
+    protected void start()
+    {
+    }
+
+    /**
+     * Applies the value of the property at the given time.
+     *
+     * @param elapsed the number of milliseconds the {@link Animation} has run for, no more than its duration
+     * @return true if the property changed
+     */
+    protected abstract boolean update(long elapsed);
+
+    /**
+     * Sets a callback run after every tick in which the {@link Animation} changed its property.
+     *
+     * @param onChange the callback; null for none
+     * @return this for convenient chaining
+     */
+    public Animation onChange(Runnable onChange)
+    {
+        this.onChange = onChange;
+        return this;
+    }
+
+    /**
+     * Invalidates the given {@link SceneNode} after every tick in which the {@link Animation} changed its property, so
+     * that its {@link Window} is rendered again the next time its {@link Scene} is displayed.
+     *
+     * @param node the node of the animated {@link Window}
+     * @return this for convenient chaining
+     */
+    public Animation invalidating(SceneNode node)
+    {
+        return onChange(node::invalidate);
+    }
+
+    /**
+     * Sets a callback run once when the {@link Animation} runs for its whole duration. It is not run if the {@link
+     * Animation} is cancelled.
+     *
+     * @param onFinish the callback; null for none
+     * @return this for convenient chaining
+     */
+    public Animation onFinish(Runnable onFinish)
+    {
+        this.onFinish = onFinish;
+        return this;
+    }
+
+    /**
+     * Returns the length of the {@link Animation} in milliseconds.
+     *
+     * @return the length of the {@link Animation}, or {@link #FOREVER}
+     */
+    public long getDuration()
+    {
+        return duration;
+    }
+
+    /**
+     * Returns the number of milliseconds the {@link Animation} has run for.
+     *
+     * @return the number of milliseconds the {@link Animation} has run for
+     */
+    public long getElapsed()
+    {
+        return elapsed;
+    }
+
+    /**
+     * Returns true if the {@link Animation} has run for its whole duration or been cancelled.
+     *
+     * @return true if the {@link Animation} has finished
+     */
+    public boolean isFinished()
+    {
+        return finished;
+    }
+
+    /**
+     * Stops the {@link Animation}, leaving its property as it is. Its {@link AnimationScheduler} drops it on the next
+     * tick.
+     */
+    public void cancel()
+    {
+        finished = true;
+    }
+
+    /**
+     * Starts the {@link Animation} and applies its starting value.
+     *
+     * @return true if the property changed
+     */
+    boolean begin()
+    {
+        if (started)
+        {
+            throw new IllegalStateException("Animation has already been started");
+        }
+
+        started = true;
+        start();
+        return apply(update(0));
+    }
+
+    /**
+     * Advances the {@link Animation} by the given time and applies the value of its property.
+     *
+     * @param millis the number of milliseconds that have passed
+     * @return true if the property changed
+     */
+    boolean advance(long millis)
+    {
+        if (finished)
+        {
+            return false;
+        }
+
+        elapsed = duration == FOREVER ? elapsed + millis : Math.min(duration, elapsed + millis);
+        boolean changed = apply(update(elapsed));
+        if (elapsed == duration)
+        {
+            finished = true;
+            if (onFinish != null)
+            {
+                onFinish.run();
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Runs the change callback if the property changed.
+     *
+     * @param changed true if the property changed
+     * @return changed
+     */
+    private boolean apply(boolean changed)
+    {
+        if (changed && onChange != null)
+        {
+            onChange.run();
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the fraction of the duration that has passed, eased.
+     *
+     * @param elapsed the number of milliseconds the {@link Animation} has run for
+     * @param easing  maps the fraction of time passed to the fraction of the change made
+     * @return the fraction of the change made, from 0.0 to 1.0
+     */
+    protected double progress(long elapsed, DoubleUnaryOperator easing)
+    {
+        return duration == FOREVER ? 0 : easing.applyAsDouble((double) elapsed / duration);
+    }
+
+    /**
+     * Creates an {@link Animation} that moves a {@link CoordWindow} from wherever it is when started to the given
+     * coordinates.
+     *
+     * @param window   the {@link Window} to move
+     * @param x        the x coordinate to move to
+     * @param y        the y coordinate to move to
+     * @param duration the length of the move in milliseconds; must be positive
+     * @param easing   maps the fraction of time passed to the fraction of the distance moved
+     * @return a new {@link Animation} moving the {@link Window}
+     */
+    public static Animation move(CoordWindow window, int x, int y, long duration, DoubleUnaryOperator easing)
+    {
+        return new Animation(duration)
+        {
+            private int fromX;
+            private int fromY;
+
+            @Override
+            protected void start()
+            {
+                fromX = window.getX();
+                fromY = window.getY();
+            }
+
+            @Override
+            protected boolean update(long elapsed)
+            {
+                double progress = progress(elapsed, easing);
+                int nextX = fromX + (int) Math.round((x - fromX) * progress);
+                int nextY = fromY + (int) Math.round((y - fromY) * progress);
+                if (nextX == window.getX() && nextY == window.getY())
+                {
+                    return false;
+                }
+
+                window.setLocation(nextX, nextY);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Creates an {@link Animation} that moves a {@link CoordWindow} at a constant rate.
+     *
+     * @param window   the {@link Window} to move
+     * @param x        the x coordinate to move to
+     * @param y        the y coordinate to move to
+     * @param duration the length of the move in milliseconds; must be positive
+     * @return a new {@link Animation} moving the {@link Window}
+     */
+    public static Animation move(CoordWindow window, int x, int y, long duration)
+    {
+        return move(window, x, y, duration, LINEAR);
+    }
+
+    /**
+     * Creates an {@link Animation} that fades between two colors, passing each new color to a setter.
+     *
+     * @param from     the color at the start; may not be null
+     * @param to       the color at the end; may not be null
+     * @param duration the length of the fade in milliseconds; must be positive
+     * @param easing   maps the fraction of time passed to the fraction of the second color in the result
+     * @param setter   applies each new color, such as to a {@link ColorString} or {@link Border}
+     * @return a new {@link Animation} fading between the colors
+     */
+    public static Animation fade(Color from, Color to, long duration, DoubleUnaryOperator easing,
+            Consumer<Color> setter)
+    {
+        return new Animation(duration)
+        {
+            private Color current;
+
+            @Override
+            protected boolean update(long elapsed)
+            {
+                Color next = ColorString.mix(from, to, progress(elapsed, easing));
+                if (next.equals(current))
+                {
+                    return false;
+                }
+
+                current = next;
+                setter.accept(next);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Creates an {@link Animation} that fades between two colors at a constant rate.
+     *
+     * @param from     the color at the start; may not be null
+     * @param to       the color at the end; may not be null
+     * @param duration the length of the fade in milliseconds; must be positive
+     * @param setter   applies each new color
+     * @return a new {@link Animation} fading between the colors
+     */
+    public static Animation fade(Color from, Color to, long duration, Consumer<Color> setter)
+    {
+        return fade(from, to, duration, LINEAR, setter);
+    }
+
+    /**
+     * Creates an {@link Animation} that turns something, such as a cursor, on and off, starting on. It is left on when
+     * the {@link Animation} finishes.
+     *
+     * @param period   the number of milliseconds it stays on or off at a time; must be positive
+     * @param duration the length of the {@link Animation} in milliseconds; must be positive, or {@link #FOREVER}
+     * @param setter   turns it on when given true, and off when given false
+     * @return a new {@link Animation} blinking it
+     */
+    public static Animation blink(long period, long duration, Consumer<Boolean> setter)
+    {
+        if (period < 1)
+        {
+            throw new IllegalArgumentException("Period must be positive; was " + period);
+        }
+
+        return new Animation(duration)
+        {
+            private boolean applied;
+            private boolean on;
+
+            @Override
+            protected boolean update(long elapsed)
+            {
+                boolean next = elapsed == getDuration() || (elapsed / period) % 2 == 0;
+                if (applied && next == on)
+                {
+                    return false;
+                }
+
+                applied = true;
+                on = next;
+                setter.accept(next);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Creates an {@link Animation} that scrolls text leftward through a fixed width until cancelled, passing each
+     * visible part to a setter. The text enters from the right, and is followed by a gap as wide as the visible part
+     * before it enters again.
+     *
+     * @param text   the text to scroll
+     * @param width  the number of characters visible at once; must be positive
+     * @param period the number of milliseconds between each step of one character; must be positive
+     * @param setter applies each visible part, which is always width characters long
+     * @return a new {@link Animation} scrolling the text
+     */
+    public static Animation marquee(ColorString text, int width, long period, Consumer<ColorString> setter)
+    {
+        if (width < 1 || period < 1)
+        {
+            throw new IllegalArgumentException("Width and period must be positive; were " + width + " and " + period);
+        }
+
+        ColorString loop = new ColorString();
+        for (int i = 0; i < width; i++)
+        {
+            loop.add(' ');
+        }
+        loop.add(text);
+
+        return new Animation(FOREVER)
+        {
+            private int offset = -1;
+
+            @Override
+            protected boolean update(long elapsed)
+            {
+                int next = (int) ((elapsed / period) % loop.length());
+                if (next == offset)
+                {
+                    return false;
+                }
+
+                offset = next;
+                ColorString visible = new ColorString();
+                for (int i = 0; i < width; i++)
+                {
+                    visible.add(loop.getColorCharAt((offset + i) % loop.length()));
+                }
+                setter.accept(visible);
+                return true;
+            }
+        };
+    }
+}
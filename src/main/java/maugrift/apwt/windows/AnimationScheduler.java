@@ -0,0 +1,186 @@
+package maugrift.apwt.windows;
+
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs {@link Animation Animations} on a Swing Timer at a fixed tick rate. Each tick advances every running {@link
+ * Animation} by the time that has passed since the last tick, then, if any of them changed, runs the repaint callback
+ * once, such as {@link maugrift.apwt.display.AsciiPanelDisplay#repaint()}. The {@link Animation Animations} invalidate
+ * only the windows they change, so a {@link Scene} renders those windows again and copies the rest from its buffers.
+ * <p>
+ * The timer only runs while there are {@link Animation Animations} to run; once the last one finishes, it stops, and
+ * the scheduler uses no CPU until another is started. Ticks run on the Swing event dispatch thread, like key presses,
+ * so {@link Animation Animations} can change windows without synchronization, and should be started from that thread.
+ *
+ * @author Maugrift
+ */
+public class AnimationScheduler
+{
+    /**
+     * The default number of milliseconds between ticks.
+     */
+    public static final int DEFAULT_TICK = 40;
+
+    /**
+     * Calls {@link #tick()} at the tick rate while there are {@link Animation Animations} running.
+     */
+    private final Timer timer;
+
+    /**
+     * Redraws whatever the {@link Animation Animations} changed.
+     */
+    private final Runnable repaint;
+
+    /**
+     * The running {@link Animation Animations}, in the order they were started.
+     */
+    private final List<Animation> animations;
+
+    /**
+     * The value of System.nanoTime() at the last tick, or when the timer was started.
+     */
+    private long lastTick;
+
+    /**
+     * Creates an idle {@link AnimationScheduler} with all fields defined.
+     *
+     * @param tick    the number of milliseconds between ticks; must be positive
+     * @param repaint redraws whatever the {@link Animation Animations} changed; run at most once per tick
+     */
+    public AnimationScheduler(int tick, Runnable repaint)
+    {
+        if (tick < 1)
+        {
+            throw new IllegalArgumentException("Tick must be positive; was " + tick);
+        }
+
+        this.repaint = repaint;
+        animations = new ArrayList<>();
+        timer = new Timer(tick, e -> tick());
+        timer.setCoalesce(true);
+    }
+
+    /**
+     * Creates an idle {@link AnimationScheduler} that ticks every {@value #DEFAULT_TICK} milliseconds.
+     *
+     * @param repaint redraws whatever the {@link Animation Animations} changed; run at most once per tick
+     */
+    public AnimationScheduler(Runnable repaint)
+    {
+        this(DEFAULT_TICK, repaint);
+    }
+
+    /**
+     * Starts an {@link Animation}, applying its starting value immediately, and starts the timer if it was idle. If
+     * the starting value changed anything, the repaint callback is run at once, rather than waiting for the next tick.
+     *
+     * @param animation the {@link Animation} to start; must not have been started before
+     * @return the {@link Animation}, for convenient chaining
+     */
+    public Animation start(Animation animation)
+    {
+        boolean changed = animation.begin();
+        animations.add(animation);
+        if (!timer.isRunning())
+        {
+            lastTick = System.nanoTime();
+            timer.start();
+        }
+
+        if (changed && repaint != null)
+        {
+            repaint.run();
+        }
+        return animation;
+    }
+
+    /**
+     * Cancels every running {@link Animation} and stops the timer.
+     */
+    public void cancelAll()
+    {
+        for (Animation animation : animations)
+        {
+            animation.cancel();
+        }
+        animations.clear();
+        timer.stop();
+    }
+
+    /**
+     * Returns the number of {@link Animation Animations} that have not yet finished.
+     *
+     * @return the number of running {@link Animation Animations}
+     */
+    public int getRunningCount()
+    {
+        return animations.size();
+    }
+
+    /**
+     * Returns true if the timer is stopped because no {@link Animation Animations} are running.
+     *
+     * @return true if the {@link AnimationScheduler} is idle
+     */
+    public boolean isIdle()
+    {
+        return !timer.isRunning();
+    }
+
+    /**
+     * Returns the number of milliseconds between ticks.
+     *
+     * @return the number of milliseconds between ticks
+     */
+    public int getTick()
+    {
+        return timer.getDelay();
+    }
+
+    /**
+     * Advances every running {@link Animation} by the time that has passed since the last tick. Called by the timer.
+     */
+    private void tick()
+    {
+        long now = System.nanoTime();
+        long millis = (now - lastTick) / 1_000_000;
+        lastTick += millis * 1_000_000;
+        advance(millis);
+    }
+
+    /**
+     * Advances every running {@link Animation} by the given time, drops those that finish, and runs the repaint
+     * callback if any of them changed. The timer calls this with the time that has really passed, but it may also be
+     * called directly, such as to step through {@link Animation Animations} without a timer.
+     *
+     * @param millis the number of milliseconds to advance by; must not be negative
+     */
+    public void advance(long millis)
+    {
+        if (millis < 0)
+        {
+            throw new IllegalArgumentException("Time must not be negative; was " + millis);
+        }
+
+        boolean changed = false;
+        // Indexed so that animations started by callbacks during the tick are kept, and first advanced next tick
+        int count = animations.size();
+        for (int i = 0; i < count; i++)
+        {
+            changed |= animations.get(i).advance(millis);
+        }
+
+        animations.removeIf(Animation::isFinished);
+        if (animations.isEmpty())
+        {
+            timer.stop();
+        }
+
+        if (changed && repaint != null)
+        {
+            repaint.run();
+        }
+    }
+}
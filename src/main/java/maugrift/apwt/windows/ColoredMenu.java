@@ -3,6 +3,8 @@ package maugrift.apwt.windows;
 import maugrift.apwt.glyphs.ColorString;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A Menu that uses color to show which item is currently selected.
@@ -22,6 +24,17 @@ public abstract class ColoredMenu<WindowType extends Window> extends Menu<Window
      */
     private Color selectionBackground;
 
+    /**
+     * The {@link Window} returned by {@link #getOutput()}, kept between calls and updated as the {@link Menu}'s
+     * {@link Window} and selection change; null until first needed.
+     */
+    private WindowType output;
+
+    /**
+     * The index of the line colored as selected on the output, or -1 if no line is.
+     */
+    private int highlighted;
+
     /**
      * Creates a {@link ColoredMenu} from a {@link Window}, initial selection, and selection colors.
      *
@@ -35,6 +48,7 @@ public abstract class ColoredMenu<WindowType extends Window> extends Menu<Window
         super(window, initialSelection);
         selectionForeground = foreground;
         selectionBackground = background;
+        highlighted = -1;
     }
 
     /**
@@ -91,4 +105,154 @@ public abstract class ColoredMenu<WindowType extends Window> extends Menu<Window
             selection.setBackground(getBackground());
         }
     }
+
+    /**
+     * Returns the {@link Menu}'s {@link Window} with the selected item colored. The same output {@link Window} is
+     * returned every time; it mirrors the changes made through the {@link Menu}'s {@link WindowContents}, and only the
+     * previously and currently selected lines are recolored when the selection changes. A line of the {@link Menu}'s
+     * {@link Window} changed in place must be reported with {@link WindowContents#update(int)} to be mirrored.
+     *
+     * @return the {@link Menu}'s {@link Window}, modified to show which item is selected
+     */
+    @Override
+    public WindowType getOutput()
+    {
+        WindowContents source = getWindow().getContents();
+        if (output == null)
+        {
+            output = createOutput();
+            for (ColorString line : source)
+            {
+                output.getContents().add(copy(line));
+            }
+            source.addListener(new OutputMirror());
+        }
+        else
+        {
+            mirrorChanges(source);
+        }
+
+        updateOutput(output);
+
+        int selection = getSelectionIndex();
+        if (highlighted != selection)
+        {
+            WindowContents lines = output.getContents();
+            if (highlighted >= 0 && highlighted < lines.size())
+            {
+                lines.set(highlighted, copy(source.get(highlighted)));
+            }
+
+            ColorString selected = copy(source.get(selection));
+            applySelectionColors(selected);
+            lines.set(selection, selected);
+            highlighted = selection;
+        }
+
+        return output;
+    }
+
+    /**
+     * Creates the {@link Window} returned by {@link #getOutput()}: a {@link Window} with the same appearance as the
+     * {@link Menu}'s {@link Window}, but with empty contents of its own.
+     *
+     * @return a new, empty {@link Window} like the {@link Menu}'s {@link Window}
+     */
+    protected abstract WindowType createOutput();
+
+    /**
+     * Called each time {@link #getOutput()} is called, before the output is returned, to copy any state besides the
+     * contents from the {@link Menu}'s {@link Window}. Does nothing by default.
+     *
+     * @param output the output {@link Window} to update
+     */
+    protected void updateOutput(WindowType output)
+    {
+    }
+
+    /**
+     * Copies every line of the {@link Menu}'s {@link Window} to the output again if the two differ in size, as happens
+     * when lines are added to or removed from the List the {@link WindowContents} wrap without an event. Other changes
+     * are mirrored by events, so this takes constant time while the sizes match.
+     *
+     * @param source the contents of the {@link Menu}'s {@link Window}
+     */
+    private void mirrorChanges(WindowContents source)
+    {
+        WindowContents lines = output.getContents();
+        if (lines.size() != source.size())
+        {
+            List<ColorString> copies = new ArrayList<>(source.size());
+            for (ColorString line : source)
+            {
+                copies.add(copy(line));
+            }
+            lines.clear();
+            lines.addAll(copies);
+            highlighted = -1;
+        }
+    }
+
+    /**
+     * Copies a line for use on the output, so that coloring the selection does not change the {@link Menu}'s {@link
+     * Window}.
+     *
+     * @param line the line to copy; may be null
+     * @return a copy of the line, or null if the line is null
+     */
+    private static ColorString copy(ColorString line)
+    {
+        return line == null ? null : new ColorString(line);
+    }
+
+    /**
+     * Applies each change to the {@link Menu}'s {@link WindowContents} to the output.
+     */
+    private class OutputMirror implements ContentsListener
+    {
+        @Override
+        public void contentsInserted(int start, int end)
+        {
+            List<ColorString> lines = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++)
+            {
+                lines.add(copy(getWindow().getContents().get(i)));
+            }
+            output.getContents().addAll(start, lines);
+
+            if (highlighted >= start)
+            {
+                highlighted += end - start;
+            }
+        }
+
+        @Override
+        public void contentsRemoved(int start, int end)
+        {
+            output.getContents().subList(start, end).clear();
+
+            if (highlighted >= end)
+            {
+                highlighted -= end - start;
+            }
+            else if (highlighted >= start)
+            {
+                highlighted = -1;
+            }
+        }
+
+        @Override
+        public void contentsUpdated(int start, int end)
+        {
+            for (int i = start; i < end; i++)
+            {
+                output.getContents().set(i, copy(getWindow().getContents().get(i)));
+            }
+
+            if (highlighted >= start && highlighted < end)
+            {
+                highlighted = -1;
+            }
+        }
+    }
 }
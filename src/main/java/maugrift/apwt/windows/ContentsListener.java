@@ -0,0 +1,36 @@
+package maugrift.apwt.windows;
+
+/**
+ * Receives notice of changes to {@link WindowContents}. Each change is reported as a range of indices, from the first
+ * index affected to the index after the last.
+ *
+ * @author Maugrift
+ */
+public interface ContentsListener
+{
+    /**
+     * Called after lines are inserted. The new lines occupy the given range; lines previously at start or later have
+     * moved down by the size of the range.
+     *
+     * @param start the index of the first inserted line
+     * @param end   the index after the last inserted line
+     */
+    void contentsInserted(int start, int end);
+
+    /**
+     * Called after lines are removed. The removed lines occupied the given range; lines previously at end or later
+     * have moved up by the size of the range.
+     *
+     * @param start the index of the first removed line
+     * @param end   the index after the last removed line
+     */
+    void contentsRemoved(int start, int end);
+
+    /**
+     * Called after lines are replaced or changed in place.
+     *
+     * @param start the index of the first changed line
+     * @param end   the index after the last changed line
+     */
+    void contentsUpdated(int start, int end);
+}
@@ -0,0 +1,410 @@
+package maugrift.apwt.windows;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link LayoutNode} that arranges its children in a row, left to right, or a column, top to bottom.
+ * <p>
+ * Each child is first given its preferred size along the box's direction. Space left over is shared among the
+ * weighted children in proportion to their weights, up to their maximum sizes; if no child is weighted, the children
+ * are justified within the box as a group instead. When there is too little space, weighted children shrink first, in
+ * proportion to their weights, then every child shrinks toward its minimum size. Across the box's direction, each
+ * child is placed according to its own {@link LayoutNode.Alignment Alignment}.
+ *
+ * @author Maugrift
+ */
+public class LayoutBox extends LayoutNode
+{
+    /**
+     * True if children are arranged left to right; false if top to bottom.
+     */
+    private final boolean horizontal;
+
+    /**
+     * The children, in order.
+     */
+    private final List<LayoutNode> children;
+
+    /**
+     * The number of cells between adjacent children; may be negative so that their borders overlap.
+     */
+    private int gap;
+
+    /**
+     * Where the children are placed as a group along the box's direction when none are weighted and they do not fill
+     * the box; {@link LayoutNode.Alignment#STRETCH} acts as {@link LayoutNode.Alignment#START}.
+     */
+    private Alignment justification;
+
+    /**
+     * Creates an empty {@link LayoutBox}.
+     *
+     * @param horizontal if true, children are arranged left to right; otherwise, top to bottom
+     */
+    public LayoutBox(boolean horizontal)
+    {
+        this.horizontal = horizontal;
+        children = new ArrayList<>();
+        justification = Alignment.START;
+    }
+
+    /**
+     * Creates an empty {@link LayoutBox} that arranges its children left to right.
+     *
+     * @return a new {@link LayoutBox} arranging its children in a row
+     */
+    public static LayoutBox row()
+    {
+        return new LayoutBox(true);
+    }
+
+    /**
+     * Creates an empty {@link LayoutBox} that arranges its children top to bottom.
+     *
+     * @return a new {@link LayoutBox} arranging its children in a column
+     */
+    public static LayoutBox column()
+    {
+        return new LayoutBox(false);
+    }
+
+    /**
+     * Adds a child after every other child.
+     *
+     * @param child the node to add; must not already have a parent
+     * @return this for convenient chaining
+     */
+    public LayoutBox add(LayoutNode child)
+    {
+        return add(children.size(), child);
+    }
+
+    /**
+     * Adds a child at the given position.
+     *
+     * @param index the position among the children
+     * @param child the node to add; must not already have a parent
+     * @return this for convenient chaining
+     */
+    public LayoutBox add(int index, LayoutNode child)
+    {
+        if (child.parent != null)
+        {
+            throw new IllegalArgumentException("Node already has a parent");
+        }
+
+        for (LayoutNode ancestor = this; ancestor != null; ancestor = ancestor.parent)
+        {
+            if (ancestor == child)
+            {
+                throw new IllegalArgumentException("A node cannot contain itself");
+            }
+        }
+
+        children.add(index, child);
+        child.parent = this;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Removes a child.
+     *
+     * @param child the node to remove
+     * @return true if the node was a child of this one
+     */
+    public boolean remove(LayoutNode child)
+    {
+        if (!children.remove(child))
+        {
+            return false;
+        }
+
+        child.parent = null;
+        invalidate();
+        return true;
+    }
+
+    /**
+     * Returns the children, in order.
+     *
+     * @return an unmodifiable view of the children
+     */
+    public List<LayoutNode> getChildren()
+    {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Returns true if children are arranged left to right.
+     *
+     * @return true if children are arranged left to right; false if top to bottom
+     */
+    public boolean isHorizontal()
+    {
+        return horizontal;
+    }
+
+    /**
+     * Returns the number of cells between adjacent children.
+     *
+     * @return the number of cells between adjacent children
+     */
+    public int getGap()
+    {
+        return gap;
+    }
+
+    /**
+     * Sets the number of cells between adjacent children. A gap of -1 makes the borders of adjacent windows overlap.
+     *
+     * @param gap the number of cells between adjacent children
+     * @return this for convenient chaining
+     */
+    public LayoutBox setGap(int gap)
+    {
+        this.gap = gap;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Returns where the children are placed as a group when none are weighted and they do not fill the box.
+     *
+     * @return where the children are placed along the box's direction
+     */
+    public Alignment getJustification()
+    {
+        return justification;
+    }
+
+    /**
+     * Sets where the children are placed as a group along the box's direction when none are weighted and they do not
+     * fill the box.
+     *
+     * @param justification where the children are placed along the box's direction
+     * @return this for convenient chaining
+     */
+    public LayoutBox setJustification(Alignment justification)
+    {
+        this.justification = justification;
+        invalidate();
+        return this;
+    }
+
+    @Override
+    Dimension measure()
+    {
+        int along = 0;
+        int across = 0;
+        for (LayoutNode child : children)
+        {
+            along += main(child.getPreferredWidth(), child.getPreferredHeight());
+            across = Math.max(across, cross(child.getPreferredWidth(), child.getPreferredHeight()));
+        }
+
+        if (!children.isEmpty())
+        {
+            along += gap * (children.size() - 1);
+        }
+
+        return horizontal ? new Dimension(Math.max(0, along), across) : new Dimension(across, Math.max(0, along));
+    }
+
+    @Override
+    void arrange(Rectangle area)
+    {
+        int count = children.size();
+        if (count == 0)
+        {
+            return;
+        }
+
+        int[] sizes = new int[count];
+        int used = gap * (count - 1);
+        int totalWeight = 0;
+        for (int i = 0; i < count; i++)
+        {
+            LayoutNode child = children.get(i);
+            sizes[i] = main(child.getPreferredWidth(), child.getPreferredHeight());
+            used += sizes[i];
+            totalWeight += child.getWeight();
+        }
+
+        int space = main(area.width, area.height);
+        int extra = space - used;
+        if (extra > 0 && totalWeight > 0)
+        {
+            extra = distribute(sizes, extra, true);
+        }
+        else if (extra < 0)
+        {
+            extra = distribute(sizes, extra, true);
+            if (extra < 0)
+            {
+                extra = distribute(sizes, extra, false);
+            }
+        }
+
+        int position = main(area.x, area.y);
+        if (extra > 0)
+        {
+            if (justification == Alignment.CENTER)
+            {
+                position += extra / 2;
+            }
+            else if (justification == Alignment.END)
+            {
+                position += extra;
+            }
+        }
+
+        int crossStart = cross(area.x, area.y);
+        int crossSpace = cross(area.width, area.height);
+        for (int i = 0; i < count; i++)
+        {
+            LayoutNode child = children.get(i);
+            int maxCross = cross(child.getMaxWidth(), child.getMaxHeight());
+            int minCross = cross(child.getMinWidth(), child.getMinHeight());
+            int crossSize = child.getAlignment() == Alignment.STRETCH ?
+                    clamp(crossSpace, minCross, maxCross) :
+                    Math.max(minCross, Math.min(crossSpace, cross(child.getPreferredWidth(),
+                            child.getPreferredHeight())));
+
+            int offset = 0;
+            if (child.getAlignment() == Alignment.CENTER)
+            {
+                offset = (crossSpace - crossSize) / 2;
+            }
+            else if (child.getAlignment() == Alignment.END)
+            {
+                offset = crossSpace - crossSize;
+            }
+
+            if (horizontal)
+            {
+                child.layOut(position, crossStart + offset, sizes[i], crossSize);
+            }
+            else
+            {
+                child.layOut(crossStart + offset, position, crossSize, sizes[i]);
+            }
+
+            position += sizes[i] + gap;
+        }
+    }
+
+    /**
+     * Grows or shrinks the children's sizes along the box's direction to use up space, in proportion to their weights,
+     * without passing their maximum or minimum sizes.
+     *
+     * @param sizes    the size of each child, updated in place
+     * @param extra    the space to give out if positive, or to take away if negative
+     * @param weighted if true, only weighted children change size; otherwise every child does, equally
+     * @return the space that could not be given out or taken away
+     */
+    private int distribute(int[] sizes, int extra, boolean weighted)
+    {
+        boolean[] done = new boolean[sizes.length];
+        while (extra != 0)
+        {
+            long totalWeight = 0;
+            for (int i = 0; i < sizes.length; i++)
+            {
+                if (!done[i])
+                {
+                    int weight = weighted ? children.get(i).getWeight() : 1;
+                    if (weight == 0 || sizes[i] == limit(i, extra))
+                    {
+                        done[i] = true;
+                    }
+                    else
+                    {
+                        totalWeight += weight;
+                    }
+                }
+            }
+
+            if (totalWeight == 0)
+            {
+                break;
+            }
+
+            // Give each child its share, rounding down, then hand out what rounding left one cell at a time
+            int remaining = extra;
+            for (int i = 0; i < sizes.length && remaining != 0; i++)
+            {
+                if (done[i])
+                {
+                    continue;
+                }
+
+                int weight = weighted ? children.get(i).getWeight() : 1;
+                int share = (int) ((long) extra * weight / totalWeight);
+                if (share == 0)
+                {
+                    share = extra > 0 ? 1 : -1;
+                }
+
+                int next = extra > 0 ? Math.min(sizes[i] + share, limit(i, extra)) :
+                        Math.max(sizes[i] + share, limit(i, extra));
+                if (extra > 0 ? next - sizes[i] > remaining : next - sizes[i] < remaining)
+                {
+                    next = sizes[i] + remaining;
+                }
+
+                remaining -= next - sizes[i];
+                sizes[i] = next;
+            }
+
+            if (remaining == extra)
+            {
+                break;
+            }
+            extra = remaining;
+        }
+        return extra;
+    }
+
+    /**
+     * Returns the size that a child may grow or shrink to along the box's direction.
+     *
+     * @param index the index of the child
+     * @param extra positive if the child is growing, negative if shrinking
+     * @return the child's maximum size if growing, or its minimum size if shrinking
+     */
+    private int limit(int index, int extra)
+    {
+        LayoutNode child = children.get(index);
+        return extra > 0 ? main(child.getMaxWidth(), child.getMaxHeight()) :
+                main(child.getMinWidth(), child.getMinHeight());
+    }
+
+    /**
+     * Returns whichever of a width and height lies along the box's direction.
+     *
+     * @param width  the width
+     * @param height the height
+     * @return the width if the box is horizontal, otherwise the height
+     */
+    private int main(int width, int height)
+    {
+        return horizontal ? width : height;
+    }
+
+    /**
+     * Returns whichever of a width and height lies across the box's direction.
+     *
+     * @param width  the width
+     * @param height the height
+     * @return the height if the box is horizontal, otherwise the width
+     */
+    private int cross(int width, int height)
+    {
+        return horizontal ? height : width;
+    }
+}
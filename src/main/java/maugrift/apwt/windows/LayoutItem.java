@@ -0,0 +1,152 @@
+package maugrift.apwt.windows;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+
+/**
+ * A {@link LayoutNode} that places a single {@link CoordWindow}, measuring it with {@link Window#getBounds()} rather
+ * than by displaying it. The {@link Window} is moved so that its bounds, including any {@link Border}, start at the
+ * top left of the area it is given.
+ * <p>
+ * A {@link Window} that is {@link Resizable} is also resized to fill its area; its preferred size is the size it had
+ * when the {@link LayoutItem} was created, unless changed with {@link #setPreferredViewport(int, int)}. Any other
+ * {@link Window} keeps its own size, which follows its contents, so changes made through its {@link WindowContents}
+ * invalidate the {@link LayoutItem} automatically. Any other change to its size must be followed by a call to {@link
+ * #invalidate()}.
+ *
+ * @author Maugrift
+ */
+public class LayoutItem extends LayoutNode
+{
+    /**
+     * The {@link Window} placed by this node.
+     */
+    private final CoordWindow window;
+
+    /**
+     * The preferred width of a {@link Resizable} {@link Window}'s viewport.
+     */
+    private int viewportWidth;
+
+    /**
+     * The preferred height of a {@link Resizable} {@link Window}'s viewport.
+     */
+    private int viewportHeight;
+
+    /**
+     * Creates a {@link LayoutItem} that places the given {@link Window}.
+     *
+     * @param window the {@link Window} to place
+     */
+    public LayoutItem(CoordWindow window)
+    {
+        this.window = window;
+        if (window instanceof Resizable)
+        {
+            viewportWidth = ((Resizable) window).getWidth();
+            viewportHeight = ((Resizable) window).getHeight();
+        }
+        else if (window.getContents() != null)
+        {
+            window.getContents().addListener(new Invalidator());
+        }
+    }
+
+    /**
+     * Returns the {@link Window} placed by this node.
+     *
+     * @return the {@link Window} placed by this node
+     */
+    public CoordWindow getWindow()
+    {
+        return window;
+    }
+
+    /**
+     * Sets the size that a {@link Resizable} {@link Window}'s viewport would like to have. Has no effect on other
+     * windows.
+     *
+     * @param width  the preferred width of the viewport, not including any {@link Border}; must be positive
+     * @param height the preferred height of the viewport, not including any {@link Border}; must be positive
+     * @return this for convenient chaining
+     */
+    public LayoutItem setPreferredViewport(int width, int height)
+    {
+        if (width < 1 || height < 1)
+        {
+            throw new IllegalArgumentException("Width and height must be positive; were " + width + " and " + height);
+        }
+
+        viewportWidth = width;
+        viewportHeight = height;
+        invalidate();
+        return this;
+    }
+
+    @Override
+    Dimension measure()
+    {
+        Rectangle bounds = window.getBounds();
+        if (bounds == null)
+        {
+            return new Dimension(0, 0);
+        }
+
+        if (window instanceof Resizable)
+        {
+            Resizable resizable = (Resizable) window;
+            return new Dimension(bounds.width - resizable.getWidth() + viewportWidth,
+                    bounds.height - resizable.getHeight() + viewportHeight);
+        }
+
+        return bounds.getSize();
+    }
+
+    @Override
+    void arrange(Rectangle area)
+    {
+        Rectangle bounds = window.getBounds();
+        if (bounds == null)
+        {
+            return;
+        }
+
+        if (window instanceof Resizable)
+        {
+            Resizable resizable = (Resizable) window;
+            int width = Math.max(1, area.width - (bounds.width - resizable.getWidth()));
+            int height = Math.max(1, area.height - (bounds.height - resizable.getHeight()));
+            if (width != resizable.getWidth() || height != resizable.getHeight())
+            {
+                resizable.setSize(width, height);
+                bounds = window.getBounds();
+            }
+        }
+
+        window.setLocation(window.getX() + area.x - bounds.x, window.getY() + area.y - bounds.y);
+    }
+
+    /**
+     * Invalidates the node whenever the {@link Window}'s contents change, since its size may have changed.
+     */
+    private class Invalidator implements ContentsListener
+    {
+        @Override
+        public void contentsInserted(int start, int end)
+        {
+            invalidate();
+        }
+
+        @Override
+        public void contentsRemoved(int start, int end)
+        {
+            invalidate();
+        }
+
+        @Override
+        public void contentsUpdated(int start, int end)
+        {
+            invalidate();
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package maugrift.apwt.windows;
+
+import java.awt.*;
+
+/**
+ * A node in a tree that arranges windows on a {@link maugrift.apwt.display.Display} without displaying them: either a
+ * {@link LayoutBox} arranging other nodes in a row or column, or a {@link LayoutItem} placing a single {@link Window}.
+ * <p>
+ * Each node has a preferred size, measured from the windows it contains, which is kept until the node is {@link
+ * #invalidate() invalidated}. When laid out, a node is given an area, which it divides among its children; nodes given
+ * the same area as last time and not invalidated since are skipped along with their subtrees, so changing one {@link
+ * Window} only arranges again the nodes its size affects.
+ * <p>
+ * Within its parent, a node may be given a weight, which lets it take a share of any space left after every node is
+ * given its preferred size, or give up space when there is too little; minimum and maximum sizes, which its size
+ * never exceeds; and an {@link Alignment} across its parent's direction.
+ *
+ * @author Maugrift
+ */
+public abstract class LayoutNode
+{
+    /**
+     * Where a node is placed across its parent's direction when it does not fill the parent.
+     */
+    public enum Alignment
+    {
+        /**
+         * At the top or left of the parent.
+         */
+        START,
+
+        /**
+         * In the middle of the parent.
+         */
+        CENTER,
+
+        /**
+         * At the bottom or right of the parent.
+         */
+        END,
+
+        /**
+         * Filling the parent, within the node's maximum size.
+         */
+        STRETCH
+    }
+
+    /**
+     * The box containing this node; null if this node is a root.
+     */
+    LayoutBox parent;
+
+    /**
+     * The node's share of the space left over or lacking in its parent's direction; 0 to always use the preferred
+     * size if possible.
+     */
+    private int weight;
+
+    /**
+     * The smallest width the node is given.
+     */
+    private int minWidth;
+
+    /**
+     * The smallest height the node is given.
+     */
+    private int minHeight;
+
+    /**
+     * The largest width the node is given.
+     */
+    private int maxWidth;
+
+    /**
+     * The largest height the node is given.
+     */
+    private int maxHeight;
+
+    /**
+     * Where the node is placed across its parent's direction.
+     */
+    private Alignment alignment;
+
+    /**
+     * The preferred width, within the minimum and maximum, when last measured.
+     */
+    private int preferredWidth;
+
+    /**
+     * The preferred height, within the minimum and maximum, when last measured.
+     */
+    private int preferredHeight;
+
+    /**
+     * True if the preferred size is up to date.
+     */
+    private boolean measured;
+
+    /**
+     * The area the node was last laid out in; null if it has not been laid out.
+     */
+    private Rectangle area;
+
+    /**
+     * True if the node's contents are arranged in {@link #area}.
+     */
+    private boolean arranged;
+
+    /**
+     * Creates a {@link LayoutNode} with no weight or size limits, aligned to the start of its parent.
+     */
+    LayoutNode()
+    {
+        maxWidth = Integer.MAX_VALUE;
+        maxHeight = Integer.MAX_VALUE;
+        alignment = Alignment.START;
+    }
+
+    /**
+     * Measures the size that the node's contents would like to have, before the node's size limits are applied.
+     *
+     * @return the preferred size of the node's contents
+     */
+    abstract Dimension measure();
+
+    /**
+     * Arranges the node's contents in the given area.
+     *
+     * @param area the area to arrange the contents in
+     */
+    abstract void arrange(Rectangle area);
+
+    /**
+     * Lays the node out in the given area, arranging its contents again only if the area changed or the node was
+     * invalidated since it was last laid out.
+     *
+     * @param x      the x value of the left side of the area
+     * @param y      the y value of the top of the area
+     * @param width  the width of the area
+     * @param height the height of the area
+     */
+    public void layOut(int x, int y, int width, int height)
+    {
+        Rectangle next = new Rectangle(x, y, width, height);
+        if (arranged && next.equals(area))
+        {
+            return;
+        }
+
+        area = next;
+        arrange(area);
+        arranged = true;
+    }
+
+    /**
+     * Lays the node out again in the area it was last laid out in, which updates any part of it that was invalidated.
+     * Does nothing if the node has never been laid out.
+     */
+    public void layOut()
+    {
+        if (area != null && !arranged)
+        {
+            arrange(area);
+            arranged = true;
+        }
+    }
+
+    /**
+     * Marks the node as changed, so that it and every node containing it are measured and arranged again the next time
+     * they are laid out.
+     */
+    public void invalidate()
+    {
+        for (LayoutNode node = this; node != null; node = node.parent)
+        {
+            node.measured = false;
+            node.arranged = false;
+        }
+    }
+
+    /**
+     * Returns true if the node has been invalidated or never laid out, and so must be laid out before its windows are
+     * displayed.
+     *
+     * @return true if the node must be laid out
+     */
+    public boolean needsLayout()
+    {
+        return !arranged;
+    }
+
+    /**
+     * Returns the size the node would like to have, measuring it only if the node was invalidated since it was last
+     * measured.
+     *
+     * @return the preferred size, within the node's minimum and maximum sizes
+     */
+    public Dimension getPreferredSize()
+    {
+        ensureMeasured();
+        return new Dimension(preferredWidth, preferredHeight);
+    }
+
+    /**
+     * Returns the area the node was last laid out in.
+     *
+     * @return the area the node was last laid out in, or null if it has never been laid out
+     */
+    public Rectangle getArea()
+    {
+        return area == null ? null : new Rectangle(area);
+    }
+
+    /**
+     * Returns the preferred width, measuring the node if needed.
+     *
+     * @return the preferred width, within the node's minimum and maximum widths
+     */
+    int getPreferredWidth()
+    {
+        ensureMeasured();
+        return preferredWidth;
+    }
+
+    /**
+     * Returns the preferred height, measuring the node if needed.
+     *
+     * @return the preferred height, within the node's minimum and maximum heights
+     */
+    int getPreferredHeight()
+    {
+        ensureMeasured();
+        return preferredHeight;
+    }
+
+    /**
+     * Measures the node if it has been invalidated since it was last measured.
+     */
+    private void ensureMeasured()
+    {
+        if (!measured)
+        {
+            Dimension size = measure();
+            preferredWidth = clamp(size.width, minWidth, maxWidth);
+            preferredHeight = clamp(size.height, minHeight, maxHeight);
+            measured = true;
+        }
+    }
+
+    /**
+     * Limits a value to a range.
+     *
+     * @param value the value to limit
+     * @param min   the smallest allowed value
+     * @param max   the largest allowed value
+     * @return the closest value in the range
+     */
+    static int clamp(int value, int min, int max)
+    {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Returns the node's share of the space left over or lacking in its parent's direction.
+     *
+     * @return the node's weight; 0 if it always uses its preferred size if possible
+     */
+    public int getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Sets the node's share of the space left over or lacking in its parent's direction. Space is divided among the
+     * weighted nodes in proportion to their weights.
+     *
+     * @param weight the node's weight; 0 if it always uses its preferred size if possible
+     * @return this for convenient chaining
+     */
+    public LayoutNode setWeight(int weight)
+    {
+        if (weight < 0)
+        {
+            throw new IllegalArgumentException("Weight must not be negative; was " + weight);
+        }
+
+        this.weight = weight;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Returns the smallest width the node is given.
+     *
+     * @return the smallest width the node is given
+     */
+    public int getMinWidth()
+    {
+        return minWidth;
+    }
+
+    /**
+     * Returns the smallest height the node is given.
+     *
+     * @return the smallest height the node is given
+     */
+    public int getMinHeight()
+    {
+        return minHeight;
+    }
+
+    /**
+     * Returns the largest width the node is given.
+     *
+     * @return the largest width the node is given
+     */
+    public int getMaxWidth()
+    {
+        return maxWidth;
+    }
+
+    /**
+     * Returns the largest height the node is given.
+     *
+     * @return the largest height the node is given
+     */
+    public int getMaxHeight()
+    {
+        return maxHeight;
+    }
+
+    /**
+     * Sets the smallest size the node is given, even if its parent lacks the space.
+     *
+     * @param minWidth  the smallest width; must not be negative
+     * @param minHeight the smallest height; must not be negative
+     * @return this for convenient chaining
+     */
+    public LayoutNode setMinSize(int minWidth, int minHeight)
+    {
+        if (minWidth < 0 || minHeight < 0 || minWidth > maxWidth || minHeight > maxHeight)
+        {
+            throw new IllegalArgumentException("Minimum size must not be negative or above the maximum; was " +
+                                               minWidth + " by " + minHeight);
+        }
+
+        this.minWidth = minWidth;
+        this.minHeight = minHeight;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Sets the largest size the node is given, even if its weight or alignment would give it more.
+     *
+     * @param maxWidth  the largest width; must not be below the smallest width
+     * @param maxHeight the largest height; must not be below the smallest height
+     * @return this for convenient chaining
+     */
+    public LayoutNode setMaxSize(int maxWidth, int maxHeight)
+    {
+        if (maxWidth < minWidth || maxHeight < minHeight)
+        {
+            throw new IllegalArgumentException("Maximum size must not be below the minimum; was " + maxWidth +
+                                               " by " + maxHeight);
+        }
+
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Returns where the node is placed across its parent's direction.
+     *
+     * @return where the node is placed across its parent's direction
+     */
+    public Alignment getAlignment()
+    {
+        return alignment;
+    }
+
+    /**
+     * Sets where the node is placed across its parent's direction when it does not fill the parent.
+     *
+     * @param alignment where the node is placed across its parent's direction
+     * @return this for convenient chaining
+     */
+    public LayoutNode setAlignment(Alignment alignment)
+    {
+        this.alignment = alignment;
+        invalidate();
+        return this;
+    }
+}
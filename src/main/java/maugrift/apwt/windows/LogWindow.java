@@ -0,0 +1,267 @@
+package maugrift.apwt.windows;
+
+import maugrift.apwt.display.Display;
+import maugrift.apwt.glyphs.ColorString;
+import maugrift.apwt.glyphs.TextWrapper;
+import maugrift.apwt.util.LogBuffer;
+
+import java.awt.Rectangle;
+
+/**
+ * A {@link CoordWindow} of fixed size that shows the most recent messages of a {@link LogBuffer}, newest at the bottom.
+ * Messages can be appended to the {@link LogBuffer} from any thread while the {@link LogWindow} is displayed from
+ * another; each call to {@link #display()} shows a consistent snapshot of the log. The {@link LogWindow} has no
+ * contents of its own.
+ * <p>
+ * Like {@link AlignedWindow}, the coordinates of a {@link LogWindow} are those of its top left line, with any {@link
+ * Border} drawn around it. Messages longer than the width are either wrapped onto several lines or cut off.
+ *
+ * @author Maugrift
+ */
+public class LogWindow extends CoordWindow implements Resizable
+{
+    /**
+     * The log whose messages are shown.
+     */
+    private final LogBuffer log;
+
+    /**
+     * The number of characters shown on each line.
+     */
+    private int width;
+
+    /**
+     * The number of lines shown at once.
+     */
+    private int height;
+
+    /**
+     * If true, messages longer than the width are wrapped onto several lines rather than cut off.
+     */
+    private boolean wrapped;
+
+    /**
+     * Remembers where messages are wrapped, so that messages still on screen are not wrapped again every frame.
+     */
+    private final TextWrapper wrapper;
+
+    /**
+     * The messages most recently read from the log, reused between frames.
+     */
+    private ColorString[] recent;
+
+    /**
+     * Creates a {@link LogWindow} with all fields defined.
+     *
+     * @param display the {@link Window}'s {@link Display}
+     * @param log     the log whose messages are shown
+     * @param x       the {@link Window}'s x coordinate
+     * @param y       the {@link Window}'s y coordinate
+     * @param width   the number of characters shown on each line; must be positive
+     * @param height  the number of lines shown at once; must be positive
+     * @param border  the {@link Window}'s {@link Border}
+     * @param wrapped if true, messages longer than the width are wrapped onto several lines rather than cut off
+     */
+    public LogWindow(Display display, LogBuffer log, int x, int y, int width, int height, Border border,
+            boolean wrapped)
+    {
+        super(display, border, null, x, y);
+
+        if (log == null)
+        {
+            throw new NullPointerException("Log may not be null");
+        }
+
+        this.log = log;
+        this.wrapped = wrapped;
+        wrapper = new TextWrapper(256);
+        setSize(width, height);
+    }
+
+    /**
+     * Creates a {@link LogWindow} that wraps long messages.
+     *
+     * @param display the {@link Window}'s {@link Display}
+     * @param log     the log whose messages are shown
+     * @param x       the {@link Window}'s x coordinate
+     * @param y       the {@link Window}'s y coordinate
+     * @param width   the number of characters shown on each line; must be positive
+     * @param height  the number of lines shown at once; must be positive
+     * @param border  the {@link Window}'s {@link Border}
+     */
+    public LogWindow(Display display, LogBuffer log, int x, int y, int width, int height, Border border)
+    {
+        this(display, log, x, y, width, height, border, true);
+    }
+
+    @Override
+    public void display()
+    {
+        Display display = prepareDisplay(getBounds());
+        if (display == null)
+        {
+            return;
+        }
+
+        int x = getX();
+        int y = getY();
+
+        if (isBordered())
+        {
+            display.drawBorder(x - 1, y - 1, x + width, y + height, getBorder());
+        }
+
+        // Every message takes at least one line, so no more messages than lines can be visible
+        int count = log.snapshot(recent);
+        int row = height;
+        for (int message = count - 1; message >= 0 && row > 0; message--)
+        {
+            ColorString line = recent[message];
+            if (wrapped)
+            {
+                int[] breaks = wrapper.getBreaks(line, width);
+                for (int i = breaks.length - 2; i >= 0 && row > 0; i -= 2)
+                {
+                    writeRow(display, x, y + --row, line, breaks[i], breaks[i + 1]);
+                }
+            }
+            else
+            {
+                writeRow(display, x, y + --row, line, 0, Math.min(line.length(), width));
+            }
+            recent[message] = null;
+        }
+
+        while (row > 0)
+        {
+            writeRow(display, x, y + --row, null, 0, 0);
+        }
+    }
+
+    /**
+     * Writes part of a message on a row, filling the rest of the row with spaces.
+     *
+     * @param display the {@link Display} to draw on
+     * @param x       the x coordinate of the row
+     * @param y       the y coordinate of the row
+     * @param line    the message to write; may be null to write a blank row
+     * @param start   the index of the first character to write
+     * @param end     the index after the last character to write
+     */
+    private void writeRow(Display display, int x, int y, ColorString line, int start, int end)
+    {
+        if (line != null)
+        {
+            display.write(x, y, line, start, end);
+        }
+
+        for (int column = end - start; column < width; column++)
+        {
+            display.write(x + column, y, ' ');
+        }
+    }
+
+    /**
+     * Returns the log whose messages are shown.
+     *
+     * @return the log whose messages are shown
+     */
+    public LogBuffer getLog()
+    {
+        return log;
+    }
+
+    /**
+     * Returns the number of characters shown on each line.
+     *
+     * @return the number of characters shown on each line
+     */
+    @Override
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns the number of lines shown at once.
+     *
+     * @return the number of lines shown at once
+     */
+    @Override
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Changes the size of the {@link LogWindow}.
+     *
+     * @param width  the number of characters shown on each line; must be positive
+     * @param height the number of lines shown at once; must be positive
+     */
+    @Override
+    public void setSize(int width, int height)
+    {
+        if (width < 1 || height < 1)
+        {
+            throw new IllegalArgumentException("Width and height must be positive; were " + width + " and " + height);
+        }
+
+        this.width = width;
+        this.height = height;
+        recent = new ColorString[height];
+    }
+
+    /**
+     * Returns true if messages longer than the width are wrapped onto several lines.
+     *
+     * @return true if messages longer than the width are wrapped onto several lines rather than cut off
+     */
+    public boolean isWrapped()
+    {
+        return wrapped;
+    }
+
+    /**
+     * Sets whether messages longer than the width are wrapped onto several lines.
+     *
+     * @param wrapped if true, messages longer than the width are wrapped onto several lines rather than cut off
+     */
+    public void setWrapped(boolean wrapped)
+    {
+        this.wrapped = wrapped;
+    }
+
+    /**
+     * Returns the area that the {@link LogWindow} covers when displayed.
+     *
+     * @return the area covered by the {@link LogWindow}, including any {@link Border}
+     */
+    @Override
+    public Rectangle getBounds()
+    {
+        int border = isBordered() ? 1 : 0;
+        return new Rectangle(getX() - border, getY() - border, getRight() - getX() + border * 2,
+                height + border * 2);
+    }
+
+    /**
+     * Returns the x coordinate of the right side of the {@link LogWindow}.
+     *
+     * @return the x coordinate of the right side of the {@link LogWindow}
+     */
+    public int getRight()
+    {
+        return getX() + width;
+    }
+
+    /**
+     * Returns the y coordinate of the bottom of the {@link LogWindow}.
+     *
+     * @return the y coordinate of the bottom of the {@link LogWindow}
+     */
+    public int getBottom()
+    {
+        return getY() + height;
+    }
+}
@@ -0,0 +1,481 @@
+package maugrift.apwt.windows;
+
+import maugrift.apwt.display.Display;
+import maugrift.apwt.util.GlyphGrid;
+import maugrift.apwt.util.GridListener;
+
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link CoordWindow} that shows the part of a {@link GlyphGrid} under a camera, for maps far larger than the
+ * {@link Display}. The visible cells are copied from the grid into a viewport buffer, which is kept between frames;
+ * moving the camera by less than the size of the viewport only moves the buffer's origin and copies the rows and
+ * columns that came into view, so scrolling by one cell reads one row or column of the grid. Changes to the grid
+ * within the viewport are copied as they are made. Each frame, the rows of the buffer are written in runs of cells
+ * that share their colors, so a map of large same-colored areas takes few writes.
+ * <p>
+ * Like {@link ScrollWindow}, the coordinates of a {@link MapWindow} are those of its top left cell, with any {@link
+ * Border} drawn around it. The camera may show cells beyond the edges of the grid, which are left blank.
+ *
+ * @author Maugrift
+ */
+public class MapWindow extends CoordWindow implements Resizable
+{
+    /**
+     * The number of colors remembered before the cache of colors read from the grid is cleared.
+     */
+    private static final int MAX_COLORS = 1024;
+
+    /**
+     * The grid shown by the {@link MapWindow}.
+     */
+    private final GlyphGrid grid;
+
+    /**
+     * The number of cells shown in each row.
+     */
+    private int width;
+
+    /**
+     * The number of rows shown.
+     */
+    private int height;
+
+    /**
+     * The x value in the grid of the top left visible cell.
+     */
+    private int cameraX;
+
+    /**
+     * The y value in the grid of the top left visible cell.
+     */
+    private int cameraY;
+
+    /**
+     * The characters of the visible cells. The top left visible cell is stored at ({@link #originX}, {@link
+     * #originY}), and the rest follow it, wrapping around to the start of each row and of the buffer.
+     */
+    private char[] chars;
+
+    /**
+     * The foreground colors of the visible cells, stored like {@link #chars}.
+     */
+    private Color[] foregrounds;
+
+    /**
+     * The background colors of the visible cells, stored like {@link #chars}.
+     */
+    private Color[] backgrounds;
+
+    /**
+     * The column of the buffer holding the leftmost visible cells.
+     */
+    private int originX;
+
+    /**
+     * The row of the buffer holding the topmost visible cells.
+     */
+    private int originY;
+
+    /**
+     * True if the buffer holds every visible cell; false if it must be filled before displaying.
+     */
+    private boolean valid;
+
+    /**
+     * The colors read from the grid, by ARGB value, so that each is only created once.
+     */
+    private final Map<Integer, Color> colors;
+
+    /**
+     * Creates a {@link MapWindow} with all fields defined.
+     *
+     * @param display the {@link Window}'s {@link Display}
+     * @param grid    the grid to show
+     * @param x       the {@link Window}'s x coordinate
+     * @param y       the {@link Window}'s y coordinate
+     * @param width   the number of cells shown in each row; must be positive
+     * @param height  the number of rows shown; must be positive
+     * @param border  the {@link Window}'s {@link Border}
+     */
+    public MapWindow(Display display, GlyphGrid grid, int x, int y, int width, int height, Border border)
+    {
+        super(display, border, x, y);
+        this.grid = grid;
+        colors = new HashMap<>();
+        setSize(width, height);
+        grid.addListener(new Updater());
+    }
+
+    /**
+     * Creates a borderless {@link MapWindow}.
+     *
+     * @param display the {@link Window}'s {@link Display}
+     * @param grid    the grid to show
+     * @param x       the {@link Window}'s x coordinate
+     * @param y       the {@link Window}'s y coordinate
+     * @param width   the number of cells shown in each row; must be positive
+     * @param height  the number of rows shown; must be positive
+     */
+    public MapWindow(Display display, GlyphGrid grid, int x, int y, int width, int height)
+    {
+        this(display, grid, x, y, width, height, null);
+    }
+
+    @Override
+    public void display()
+    {
+        Display display = prepareDisplay(getBounds());
+        if (display == null)
+        {
+            return;
+        }
+
+        if (!valid)
+        {
+            for (int row = 0; row < height; row++)
+            {
+                copyRow(row);
+            }
+            valid = true;
+        }
+
+        int x = getX();
+        int y = getY();
+        if (isBordered())
+        {
+            display.drawBorder(x - 1, y - 1, x + width, y + height, getBorder());
+        }
+
+        // Each row of the buffer holds the visible row from originX onward, followed by the part before it
+        int split = width - originX;
+        for (int row = 0; row < height; row++)
+        {
+            int start = ((row + originY) % height) * width;
+            writeRun(display, x, y + row, start + originX, start + width);
+            writeRun(display, x + split, y + row, start, start + originX);
+        }
+    }
+
+    /**
+     * Writes a run of cells from the buffer, passing each group of neighboring cells with the same colors to the
+     * {@link Display} in a single write.
+     *
+     * @param display the {@link Display} to draw on
+     * @param x       the x coordinate of the first cell
+     * @param y       the y coordinate of the cells
+     * @param start   the index in the buffer of the first cell
+     * @param end     the index in the buffer after the last cell
+     */
+    private void writeRun(Display display, int x, int y, int start, int end)
+    {
+        int group = start;
+        for (int i = start + 1; i <= end; i++)
+        {
+            // Colors read from the grid are shared by ARGB value, so equal colors are almost always the same object
+            if (i == end || foregrounds[i] != foregrounds[group] || backgrounds[i] != backgrounds[group])
+            {
+                display.write(x, y, chars, group, i, foregrounds[group], backgrounds[group]);
+                x += i - group;
+                group = i;
+            }
+        }
+    }
+
+    /**
+     * Returns the grid shown by the {@link MapWindow}.
+     *
+     * @return the grid shown by the {@link MapWindow}
+     */
+    public GlyphGrid getGrid()
+    {
+        return grid;
+    }
+
+    /**
+     * Returns the x value in the grid of the top left visible cell.
+     *
+     * @return the x value in the grid of the top left visible cell
+     */
+    public int getCameraX()
+    {
+        return cameraX;
+    }
+
+    /**
+     * Returns the y value in the grid of the top left visible cell.
+     *
+     * @return the y value in the grid of the top left visible cell
+     */
+    public int getCameraY()
+    {
+        return cameraY;
+    }
+
+    /**
+     * Moves the camera so that the given cell of the grid is at the top left of the viewport.
+     *
+     * @param x the x value in the grid of the cell to show at the top left
+     * @param y the y value in the grid of the cell to show at the top left
+     */
+    public void setCamera(int x, int y)
+    {
+        long dx = (long) x - cameraX;
+        long dy = (long) y - cameraY;
+        cameraX = x;
+        cameraY = y;
+        if (!valid || (dx == 0 && dy == 0))
+        {
+            return;
+        }
+
+        if (Math.abs(dx) >= width || Math.abs(dy) >= height)
+        {
+            valid = false;
+            return;
+        }
+
+        // The cells still in view keep their place in the buffer; only the origin moves past them
+        originX = Math.floorMod(originX + (int) dx, width);
+        originY = Math.floorMod(originY + (int) dy, height);
+
+        for (int row = dy > 0 ? height - (int) dy : 0; row < (dy > 0 ? height : -dy); row++)
+        {
+            copyRow(row);
+        }
+
+        for (int column = dx > 0 ? width - (int) dx : 0; column < (dx > 0 ? width : -dx); column++)
+        {
+            copyColumn(column);
+        }
+    }
+
+    /**
+     * Moves the camera by the given number of cells.
+     *
+     * @param dx the number of cells to move right; negative numbers move left
+     * @param dy the number of cells to move down; negative numbers move up
+     */
+    public void moveCamera(int dx, int dy)
+    {
+        setCamera(cameraX + dx, cameraY + dy);
+    }
+
+    /**
+     * Moves the camera so that the given cell of the grid is at the center of the viewport.
+     *
+     * @param x the x value in the grid of the cell to center on
+     * @param y the y value in the grid of the cell to center on
+     */
+    public void centerOn(int x, int y)
+    {
+        setCamera(x - width / 2, y - height / 2);
+    }
+
+    /**
+     * Returns true if the given cell of the grid is within the viewport.
+     *
+     * @param x the x value of the cell in the grid
+     * @param y the y value of the cell in the grid
+     * @return true if the cell is visible
+     */
+    public boolean isVisible(int x, int y)
+    {
+        return x >= cameraX && y >= cameraY && x - cameraX < width && y - cameraY < height;
+    }
+
+    /**
+     * Copies every visible cell from the grid again the next time the {@link MapWindow} is displayed. Changes made
+     * through the grid are copied automatically, so this is only needed if the grid's chunks were changed without
+     * notifying it.
+     */
+    public void invalidate()
+    {
+        valid = false;
+    }
+
+    /**
+     * Returns the number of cells shown in each row.
+     *
+     * @return the number of cells shown in each row
+     */
+    @Override
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows shown.
+     *
+     * @return the number of rows shown
+     */
+    @Override
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Changes the size of the viewport, keeping the camera at the same top left cell.
+     *
+     * @param width  the number of cells shown in each row; must be positive
+     * @param height the number of rows shown; must be positive
+     */
+    @Override
+    public void setSize(int width, int height)
+    {
+        if (width < 1 || height < 1)
+        {
+            throw new IllegalArgumentException("Width and height must be positive; were " + width + " and " + height);
+        }
+
+        this.width = width;
+        this.height = height;
+        chars = new char[width * height];
+        foregrounds = new Color[width * height];
+        backgrounds = new Color[width * height];
+        originX = 0;
+        originY = 0;
+        valid = false;
+    }
+
+    /**
+     * Returns the area that the {@link MapWindow} covers when displayed.
+     *
+     * @return the area covered by the {@link MapWindow}, including any {@link Border}
+     */
+    @Override
+    public Rectangle getBounds()
+    {
+        int border = isBordered() ? 1 : 0;
+        return new Rectangle(getX() - border, getY() - border, width + border * 2, height + border * 2);
+    }
+
+    /**
+     * Returns the x coordinate of the right side of the {@link MapWindow}.
+     *
+     * @return the x coordinate of the right side of the {@link MapWindow}
+     */
+    public int getRight()
+    {
+        return getX() + width;
+    }
+
+    /**
+     * Returns the y coordinate of the bottom of the {@link MapWindow}.
+     *
+     * @return the y coordinate of the bottom of the {@link MapWindow}
+     */
+    public int getBottom()
+    {
+        return getY() + height;
+    }
+
+    /**
+     * Copies a row of visible cells from the grid into the buffer.
+     *
+     * @param row the row of the viewport, from 0 at the top
+     */
+    private void copyRow(int row)
+    {
+        for (int column = 0; column < width; column++)
+        {
+            copyCell(column, row);
+        }
+    }
+
+    /**
+     * Copies a column of visible cells from the grid into the buffer.
+     *
+     * @param column the column of the viewport, from 0 at the left
+     */
+    private void copyColumn(int column)
+    {
+        for (int row = 0; row < height; row++)
+        {
+            copyCell(column, row);
+        }
+    }
+
+    /**
+     * Copies a visible cell from the grid into the buffer, or blanks it if it is beyond the edges of the grid.
+     *
+     * @param column the column of the viewport, from 0 at the left
+     * @param row    the row of the viewport, from 0 at the top
+     */
+    private void copyCell(int column, int row)
+    {
+        int index = ((row + originY) % height) * width + (column + originX) % width;
+        int x = cameraX + column;
+        int y = cameraY + row;
+        if (grid.contains(x, y))
+        {
+            chars[index] = grid.getChar(x, y);
+            foregrounds[index] = getColor(grid.getForegroundARGB(x, y));
+            backgrounds[index] = getColor(grid.getBackgroundARGB(x, y));
+        }
+        else
+        {
+            chars[index] = ' ';
+            foregrounds[index] = null;
+            backgrounds[index] = null;
+        }
+    }
+
+    /**
+     * Returns the color with an ARGB value read from the grid, reusing it if it was read before.
+     *
+     * @param argb the ARGB value
+     * @return the color, or null if the value is 0
+     */
+    private Color getColor(int argb)
+    {
+        if (argb == 0)
+        {
+            return null;
+        }
+
+        Color color = colors.get(argb);
+        if (color == null)
+        {
+            if (colors.size() >= MAX_COLORS)
+            {
+                colors.clear();
+            }
+
+            color = GlyphGrid.toColor(argb);
+            colors.put(argb, color);
+        }
+        return color;
+    }
+
+    /**
+     * Copies cells changed in the grid into the buffer if they are visible.
+     */
+    private class Updater implements GridListener
+    {
+        @Override
+        public void cellsChanged(int x, int y, int width, int height)
+        {
+            if (!valid)
+            {
+                return;
+            }
+
+            int left = Math.max(x, cameraX);
+            int top = Math.max(y, cameraY);
+            int right = (int) Math.min((long) x + width, (long) cameraX + MapWindow.this.width);
+            int bottom = (int) Math.min((long) y + height, (long) cameraY + MapWindow.this.height);
+            for (int row = top; row < bottom; row++)
+            {
+                for (int column = left; column < right; column++)
+                {
+                    copyCell(column - cameraX, row - cameraY);
+                }
+            }
+        }
+    }
+}
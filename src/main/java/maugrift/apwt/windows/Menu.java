@@ -2,7 +2,9 @@ package maugrift.apwt.windows;
 
 import maugrift.apwt.glyphs.ColorString;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -29,6 +31,27 @@ public abstract class Menu<WindowType extends Window>
      */
     private List<Integer> restrictions;
 
+    /**
+     * The indices that can be selected, in ascending order; only the first {@link #selectableCount} are used.
+     */
+    private int[] selectable;
+
+    /**
+     * The number of indices that can be selected.
+     */
+    private int selectableCount;
+
+    /**
+     * True if {@link #selectable} must be rebuilt because the contents or restrictions have changed.
+     */
+    private boolean selectableStale;
+
+    /**
+     * The number of lines in the contents when {@link #selectable} was built. Lines added to or removed from the List
+     * the {@link WindowContents} wrap fire no event, so a change in size also makes {@link #selectable} stale.
+     */
+    private int selectableSize;
+
     /**
      * Creates a {@link Menu} from a {@link Window} and an initial selection.
      *
@@ -39,7 +62,10 @@ public abstract class Menu<WindowType extends Window>
     {
         this.window = window;
         selection = Math.max(0, Math.min(window.getContents().size() - 1, initialSelection));
-        restrictions = new ArrayList<>();
+        restrictions = new Restrictions();
+        selectable = new int[0];
+        selectableStale = true;
+        window.getContents().addListener(new SelectableUpdater());
     }
 
     /**
@@ -80,7 +106,8 @@ public abstract class Menu<WindowType extends Window>
     }
 
     /**
-     * Returns a list of allowed selection indices in the menu.
+     * Returns a list of allowed selection indices in the menu. Changes to the list take effect the next time the
+     * selection is moved.
      *
      * @return a list of allowed selection indices in the menu
      */
@@ -134,53 +161,263 @@ public abstract class Menu<WindowType extends Window>
      */
     public ColorString getSelection()
     {
+        updateSelectable();
         return window.getContents().get(selection);
     }
 
     /**
-     * Increments the selection index by the given amount, wrapping to the front or back if bounds are exceeded.
-     * Intermediate separators will not be selected.
+     * Moves the selection by the given number of selectable items, wrapping to the front or back if bounds are
+     * exceeded. Separators and restricted items are skipped without being counted.
      *
-     * @param change the amount by which to modify the selection index at each iteration
+     * @param change the number of selectable items to move by; positive numbers move down and negative numbers move up
      * @return true if the selection index was updated
      */
     public boolean select(int change)
     {
-        return change != 0 && setSelectionIndex(bypassRestrictions(change));
+        if (change == 0)
+        {
+            return false;
+        }
+
+        updateSelectable();
+        if (selectableCount == 0)
+        {
+            return false;
+        }
+
+        int position = Arrays.binarySearch(selectable, 0, selectableCount, selection);
+        if (position < 0)
+        {
+            // The selection is not selectable itself, so the first item in the direction of movement is one step
+            position = -position - 1;
+            position += change > 0 ? (change - 1) % selectableCount : change % selectableCount;
+        }
+        else
+        {
+            position += change % selectableCount;
+        }
+
+        selection = selectable[Math.floorMod(position, selectableCount)];
+        return true;
     }
 
     /**
-     * Modifies the selection index by the provided amount until it is either out of bounds, or not at a separator or
-     * restricted value.
+     * Moves the selection by the given number of items, then to the nearest selectable item in the direction of
+     * movement, without wrapping. Used to move by a page at a time.
      *
-     * @param change the amount by which to modify the selection index at each iteration
-     * @return the final value of the selection index
+     * @param change the number of items to move by; positive numbers move down and negative numbers move up
+     * @return true if the selection index was updated
      */
-    private int bypassRestrictions(int change)
+    public boolean selectPage(int change)
     {
         if (change == 0)
         {
-            return selection;
+            return false;
+        }
+
+        updateSelectable();
+        if (selectableCount == 0)
+        {
+            return false;
+        }
+
+        long target = Math.max(0, Math.min(window.getContents().size() - 1, (long) selection + change));
+        int position = Arrays.binarySearch(selectable, 0, selectableCount, (int) target);
+        if (position < 0)
+        {
+            // Round toward the direction of movement, or back if there is nothing selectable past the target
+            position = -position - 1;
+            if (change < 0 || position == selectableCount)
+            {
+                position = Math.max(0, position - 1);
+            }
+        }
+
+        selection = selectable[position];
+        return true;
+    }
+
+    /**
+     * Selects the first selectable item.
+     *
+     * @return true if the selection index was updated
+     */
+    public boolean selectFirst()
+    {
+        updateSelectable();
+        if (selectableCount == 0)
+        {
+            return false;
+        }
+
+        selection = selectable[0];
+        return true;
+    }
+
+    /**
+     * Selects the last selectable item.
+     *
+     * @return true if the selection index was updated
+     */
+    public boolean selectLast()
+    {
+        updateSelectable();
+        if (selectableCount == 0)
+        {
+            return false;
+        }
+
+        selection = selectable[selectableCount - 1];
+        return true;
+    }
+
+    /**
+     * Returns the number of items that can be selected.
+     *
+     * @return the number of items that are neither separators nor excluded by restrictions
+     */
+    public int getSelectableCount()
+    {
+        updateSelectable();
+        return selectableCount;
+    }
+
+    /**
+     * Rebuilds the sorted array of selectable indices if the contents or restrictions have changed since it was last
+     * built, and keeps the selection within the contents.
+     */
+    private void updateSelectable()
+    {
+        List<ColorString> contents = window.getContents();
+        int size = contents.size();
+        if (!selectableStale && size == selectableSize)
+        {
+            return;
         }
 
-        int nextSelection = selection;
-        boolean loop;
-        do
+        selectableCount = 0;
+        if (hasRestrictions())
         {
-            if (contentsContains(nextSelection + change))
+            if (selectable.length < restrictions.size())
             {
-                nextSelection += change;
+                selectable = new int[restrictions.size()];
             }
-            else
+
+            for (int index : restrictions)
             {
-                nextSelection = change > 0 ? 0 : getWindow().getContents().size() - 1;
+                if (contentsContains(index) && contents.get(index) != null)
+                {
+                    selectable[selectableCount++] = index;
+                }
             }
 
-            loop = getWindow().getContents().get(nextSelection) == null || (hasRestrictions() && !restrictions.contains(
-                    nextSelection));
+            Arrays.sort(selectable, 0, selectableCount);
 
-        } while (loop);
+            // Remove any indices restricted more than once
+            int unique = 0;
+            for (int i = 0; i < selectableCount; i++)
+            {
+                if (unique == 0 || selectable[unique - 1] != selectable[i])
+                {
+                    selectable[unique++] = selectable[i];
+                }
+            }
+            selectableCount = unique;
+        }
+        else
+        {
+            if (selectable.length < size)
+            {
+                selectable = new int[size];
+            }
+
+            for (int index = 0; index < size; index++)
+            {
+                if (contents.get(index) != null)
+                {
+                    selectable[selectableCount++] = index;
+                }
+            }
+        }
+
+        selection = Math.max(0, Math.min(selection, size - 1));
+        selectableSize = size;
+        selectableStale = false;
+    }
 
-        return nextSelection;
+    /**
+     * The List of restrictions, which marks the selectable indices as stale whenever it is changed.
+     */
+    private class Restrictions extends AbstractList<Integer>
+    {
+        /**
+         * The List holding the restricted indices.
+         */
+        private final List<Integer> indices = new ArrayList<>();
+
+        @Override
+        public Integer get(int index)
+        {
+            return indices.get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return indices.size();
+        }
+
+        @Override
+        public Integer set(int index, Integer element)
+        {
+            selectableStale = true;
+            return indices.set(index, element);
+        }
+
+        @Override
+        public void add(int index, Integer element)
+        {
+            selectableStale = true;
+            indices.add(index, element);
+        }
+
+        @Override
+        public Integer remove(int index)
+        {
+            selectableStale = true;
+            return indices.remove(index);
+        }
+
+        @Override
+        public void clear()
+        {
+            selectableStale = true;
+            indices.clear();
+        }
+    }
+
+    /**
+     * Marks the selectable indices as stale whenever the {@link Window}'s contents change, since lines may have become
+     * separators or been moved.
+     */
+    private class SelectableUpdater implements ContentsListener
+    {
+        @Override
+        public void contentsInserted(int start, int end)
+        {
+            selectableStale = true;
+        }
+
+        @Override
+        public void contentsRemoved(int start, int end)
+        {
+            selectableStale = true;
+        }
+
+        @Override
+        public void contentsUpdated(int start, int end)
+        {
+            selectableStale = true;
+        }
     }
-}
\ No newline at end of file
+}
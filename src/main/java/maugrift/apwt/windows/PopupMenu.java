@@ -1,7 +1,5 @@
 package maugrift.apwt.windows;
 
-import maugrift.apwt.glyphs.ColorString;
-
 import java.awt.*;
 
 /**
@@ -9,7 +7,7 @@ import java.awt.*;
  *
  * @author Maugrift
  */
-public class PopupMenu extends ColoredMenu
+public class PopupMenu extends ColoredMenu<PopupWindow>
 {
     /**
      * Creates a {@link PopupMenu} from a {@link PopupWindow}, initial selection, and selection colors.
@@ -38,16 +36,10 @@ public class PopupMenu extends ColoredMenu
     }
 
     @Override
-    public PopupWindow getOutput()
+    protected PopupWindow createOutput()
     {
-        PopupWindow copy = new PopupWindow((PopupWindow) getWindow());
-        copy.getContents().clear();
-        for (ColorString content : getWindow().getContents())
-        {
-            copy.getContents().add(content == null ? null : new ColorString(content));
-        }
-
-        applySelectionColors(copy.getContents().get(getSelectionIndex()));
-        return copy;
+        PopupWindow output = new PopupWindow(getWindow());
+        output.getContents().clear();
+        return output;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,367 @@
+package maugrift.apwt.windows;
+
+import maugrift.apwt.ExtChars;
+import maugrift.apwt.display.BufferedDisplay;
+import maugrift.apwt.display.Display;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A stack of popup windows shown over a background {@link Window}, such as a map. Only the topmost popup is displayed
+ * each frame; everything below it is composed once into a cached backdrop, which is then copied to the {@link Display}
+ * until the background or a lower popup changes. Opening and closing nested dialogs therefore never displays the
+ * background again, however long it takes to display.
+ * <p>
+ * The backdrop below each popup is kept while the popups above it are open, so closing a popup returns to the
+ * previous backdrop without composing it again. Backdrops can be darkened to draw attention to the topmost popup.
+ * Changes to the background or to a popup below the top must be followed by a call to {@link #invalidate()} or {@link
+ * #invalidate(Window)}.
+ *
+ * @author Maugrift
+ */
+public class PopupStack
+{
+    /**
+     * How the backdrop below the topmost popup is set apart from it.
+     */
+    public enum Dimming
+    {
+        /**
+         * The backdrop is shown unchanged.
+         */
+        NONE,
+
+        /**
+         * The colors of the backdrop are darkened.
+         */
+        DARKEN,
+
+        /**
+         * The colors of the backdrop are darkened and its blank cells are shaded with {@link
+         * ExtChars#BLOCK_SHADE_1}.
+         */
+        SHADE
+    }
+
+    /**
+     * The factor by which the colors of dimmed backdrops are multiplied.
+     */
+    public static final float DARKEN_FACTOR = 0.5f;
+
+    /**
+     * The {@link Display} the popups are shown on.
+     */
+    private final Display display;
+
+    /**
+     * The {@link Window} shown below every popup; null if there is none.
+     */
+    private Window background;
+
+    /**
+     * The open popups, from bottom to top.
+     */
+    private final List<Window> popups;
+
+    /**
+     * The backdrop below each popup, at the same index; may hold more backdrops than there are popups, for reuse.
+     */
+    private final List<BufferedDisplay> backdrops;
+
+    /**
+     * The number of backdrops, from the bottom, that are up to date.
+     */
+    private int validBackdrops;
+
+    /**
+     * The background displayed alone; null until first needed.
+     */
+    private BufferedDisplay base;
+
+    /**
+     * True if {@link #base} is up to date.
+     */
+    private boolean baseValid;
+
+    /**
+     * How backdrops are set apart from the topmost popup.
+     */
+    private Dimming dimming;
+
+    /**
+     * The darkened version of each color seen while dimming a backdrop.
+     */
+    private final Map<Color, Color> darkened;
+
+    /**
+     * Creates an empty {@link PopupStack}.
+     *
+     * @param display    the {@link Display} to show the popups on
+     * @param background the {@link Window} shown below every popup; may be null
+     * @param dimming    how backdrops are set apart from the topmost popup
+     */
+    public PopupStack(Display display, Window background, Dimming dimming)
+    {
+        this.display = display;
+        this.background = background;
+        this.dimming = dimming;
+        popups = new ArrayList<>();
+        backdrops = new ArrayList<>();
+        darkened = new HashMap<>();
+    }
+
+    /**
+     * Creates an empty {@link PopupStack} with darkened backdrops.
+     *
+     * @param display    the {@link Display} to show the popups on
+     * @param background the {@link Window} shown below every popup; may be null
+     */
+    public PopupStack(Display display, Window background)
+    {
+        this(display, background, Dimming.DARKEN);
+    }
+
+    /**
+     * Opens a popup above every other.
+     *
+     * @param popup the popup to open
+     */
+    public void push(Window popup)
+    {
+        popups.add(popup);
+    }
+
+    /**
+     * Closes the topmost popup.
+     *
+     * @return the popup that was closed, or null if none were open
+     */
+    public Window pop()
+    {
+        if (popups.isEmpty())
+        {
+            return null;
+        }
+
+        Window popup = popups.remove(popups.size() - 1);
+
+        // The backdrop below the closed popup will not match the next popup opened in its place
+        validBackdrops = Math.min(validBackdrops, popups.size());
+        return popup;
+    }
+
+    /**
+     * Returns the topmost popup.
+     *
+     * @return the topmost popup, or null if none are open
+     */
+    public Window peek()
+    {
+        return popups.isEmpty() ? null : popups.get(popups.size() - 1);
+    }
+
+    /**
+     * Closes every popup.
+     */
+    public void clear()
+    {
+        popups.clear();
+        validBackdrops = 0;
+    }
+
+    /**
+     * Returns the number of open popups.
+     *
+     * @return the number of open popups
+     */
+    public int size()
+    {
+        return popups.size();
+    }
+
+    /**
+     * Returns true if no popups are open.
+     *
+     * @return true if no popups are open
+     */
+    public boolean isEmpty()
+    {
+        return popups.isEmpty();
+    }
+
+    /**
+     * Returns the {@link Window} shown below every popup.
+     *
+     * @return the {@link Window} shown below every popup, or null if there is none
+     */
+    public Window getBackground()
+    {
+        return background;
+    }
+
+    /**
+     * Replaces the {@link Window} shown below every popup.
+     *
+     * @param background the {@link Window} shown below every popup; may be null
+     */
+    public void setBackground(Window background)
+    {
+        this.background = background;
+        invalidate();
+    }
+
+    /**
+     * Returns how backdrops are set apart from the topmost popup.
+     *
+     * @return how backdrops are set apart from the topmost popup
+     */
+    public Dimming getDimming()
+    {
+        return dimming;
+    }
+
+    /**
+     * Sets how backdrops are set apart from the topmost popup.
+     *
+     * @param dimming how backdrops are set apart from the topmost popup
+     */
+    public void setDimming(Dimming dimming)
+    {
+        this.dimming = dimming;
+        validBackdrops = 0;
+    }
+
+    /**
+     * Marks the background as changed, so that every backdrop is composed again when next displayed.
+     */
+    public void invalidate()
+    {
+        baseValid = false;
+        validBackdrops = 0;
+    }
+
+    /**
+     * Marks a popup as changed, so that the backdrops of the popups above it are composed again when next displayed.
+     * The topmost popup is displayed every frame, so changes to it need not be reported.
+     *
+     * @param popup the popup that changed
+     */
+    public void invalidate(Window popup)
+    {
+        int index = popups.indexOf(popup);
+        if (index >= 0)
+        {
+            validBackdrops = Math.min(validBackdrops, index + 1);
+        }
+    }
+
+    /**
+     * Displays the topmost popup over its backdrop, or the background alone if no popups are open.
+     */
+    public void display()
+    {
+        if (popups.isEmpty())
+        {
+            if (background != null)
+            {
+                background.display();
+            }
+            return;
+        }
+
+        int top = popups.size() - 1;
+        getBackdrop(top).drawTo(display, 0, 0);
+        popups.get(top).display();
+    }
+
+    /**
+     * Returns the backdrop below a popup, composing it and any out of date backdrops below it.
+     *
+     * @param index the index of the popup
+     * @return the backdrop below the popup
+     */
+    private BufferedDisplay getBackdrop(int index)
+    {
+        if (!baseValid)
+        {
+            if (base == null)
+            {
+                base = new BufferedDisplay(display);
+            }
+
+            base.clear();
+            if (background != null)
+            {
+                background.displayOn(base);
+            }
+            baseValid = true;
+        }
+
+        int width = base.getWidthInCharacters();
+        int height = base.getHeightInCharacters();
+        for (int level = validBackdrops; level <= index; level++)
+        {
+            if (level == backdrops.size())
+            {
+                backdrops.add(new BufferedDisplay(display));
+            }
+
+            BufferedDisplay backdrop = backdrops.get(level);
+            base.copyArea(backdrop, 0, 0, width, height);
+            for (int popup = 0; popup < level; popup++)
+            {
+                popups.get(popup).displayOn(backdrop);
+            }
+            dim(backdrop);
+        }
+
+        validBackdrops = Math.max(validBackdrops, index + 1);
+        return backdrops.get(index);
+    }
+
+    /**
+     * Sets a backdrop apart from the popup above it, as specified by {@link #dimming}.
+     *
+     * @param backdrop the backdrop to dim
+     */
+    private void dim(BufferedDisplay backdrop)
+    {
+        if (dimming == Dimming.NONE)
+        {
+            return;
+        }
+
+        darkened.clear();
+        for (int y = 0; y < backdrop.getHeightInCharacters(); y++)
+        {
+            for (int x = 0; x < backdrop.getWidthInCharacters(); x++)
+            {
+                char character = backdrop.getCharAt(x, y);
+                if (dimming == Dimming.SHADE && character == ' ')
+                {
+                    character = ExtChars.BLOCK_SHADE_1;
+                }
+
+                backdrop.write(x, y, character, darken(backdrop.getForegroundAt(x, y)),
+                        darken(backdrop.getBackgroundAt(x, y)));
+            }
+        }
+    }
+
+    /**
+     * Returns a color darkened by {@link #DARKEN_FACTOR}, reusing the result for colors seen before.
+     *
+     * @param color the color to darken
+     * @return the darkened color
+     */
+    private Color darken(Color color)
+    {
+        return darkened.computeIfAbsent(color, original -> new Color(
+                Math.round(original.getRed() * DARKEN_FACTOR), Math.round(original.getGreen() * DARKEN_FACTOR),
+                Math.round(original.getBlue() * DARKEN_FACTOR), original.getAlpha()));
+    }
+}
@@ -3,7 +3,9 @@ package maugrift.apwt.windows;
 import maugrift.apwt.display.Display;
 import maugrift.apwt.glyphs.ColorString;
 
+import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -18,6 +20,11 @@ public class PopupWindow extends Window
      */
     private Line separator;
 
+    /**
+     * The length of the longest line, kept up to date as the contents change.
+     */
+    private final Width width;
+
     /**
      * Creates a {@link PopupWindow} with all fields defined.
      *
@@ -30,6 +37,11 @@ public class PopupWindow extends Window
     {
         super(display, border, contents);
         this.separator = separator;
+        width = new Width();
+        if (getContents() != null)
+        {
+            getContents().addListener(width);
+        }
     }
 
     /**
@@ -106,74 +118,81 @@ public class PopupWindow extends Window
             return;
         }
 
-        try
+        Rectangle bounds = getBounds();
+        Display display = prepareDisplay(bounds);
+        if (display == null)
         {
-            if (getContents() == null || getContents().isEmpty())
-            {
-                throw new IllegalArgumentException("At least 1 line of text must be provided");
-            }
+            return;
+        }
 
-            if (!getDisplay().containsY(getContents().size() + 2))
-            {
-                throw new IndexOutOfBoundsException("Text is too tall for the display");
-            }
+        int centerX = getDisplay().getCenterX();
+        int centerY = getDisplay().getCenterY();
+        int left = bounds.x;
+        int top = bounds.y;
+        int right = bounds.x + bounds.width - 1;
+        int bottom = bounds.y + bounds.height - 1;
+
+        display.drawBorder(left, top, right, bottom, getBorder());
 
-            int maxLength = 0;
-            for (ColorString line : getContents())
+        // Separators run across the window, so a vertical one cannot be drawn and is skipped, as in AlignedWindow
+        if (separator != null && separator.horizontal)
+        {
+            for (int line = 0; line < getContents().size(); line++)
             {
-                if (line != null && line.length() > maxLength)
+                if (getContents().get(line) == null)
                 {
-                    maxLength = line.length();
+                    display.drawLine(left, top + 1 + line, right, top + 1 + line, separator);
                 }
             }
+        }
 
-            if (!getDisplay().containsX(maxLength + 2))
-            {
-                throw new IndexOutOfBoundsException("Text is too wide for the display");
-            }
-
-            int centerX = getDisplay().getCenterX();
-            int centerY = getDisplay().getCenterY();
-
-            int offsetDown = getContents().size() / 2 - 1;
-            int offsetUp = offsetDown;
-            if (getContents().size() % 2 == 1)
-            {
-                offsetDown++;
-            }
-
-            int offsetRight = maxLength / 2 - 1;
-            int offsetLeft = offsetRight;
-            if (maxLength % 2 == 1)
+        int size = getContents().size();
+        for (int line = 0; line < size; line++)
+        {
+            ColorString content = getContents().get(line);
+            if (content != null)
             {
-                offsetRight++;
+                display.write(centerX - content.length() / 2, centerY - size / 2 + line, content);
             }
+        }
+    }
 
-            int top = centerY - offsetUp - 2;
-            int bottom = centerY + offsetDown + 1;
-            int left = centerX - offsetLeft - 2;
-            int right = centerX + offsetRight + 1;
-
-            getDisplay().drawBorder(left, top, right, bottom, getBorder());
+    /**
+     * Returns the area that the {@link PopupWindow} covers when displayed, centered on its {@link Display}.
+     *
+     * @return the area covered by the {@link PopupWindow}, including its {@link Border}, or null if it has no contents
+     */
+    @Override
+    public Rectangle getBounds()
+    {
+        if (getContents() == null || getContents().isEmpty())
+        {
+            return null;
+        }
 
-            if (separator != null)
-            {
-                for (int line = 0; line < getContents().size(); line++)
-                {
-                    if (getContents().get(line) == null)
-                    {
-                        getDisplay().drawLine(left, top + 1 + line, right, top + 1 + line, separator);
-                    }
-                }
-            }
+        int maxLength = width.get();
+        int centerX = getDisplay().getCenterX();
+        int centerY = getDisplay().getCenterY();
 
-            getDisplay().writeCenter(getContents().toArray(new ColorString[getContents().size()]));
+        int offsetDown = getContents().size() / 2 - 1;
+        int offsetUp = offsetDown;
+        if (getContents().size() % 2 == 1)
+        {
+            offsetDown++;
         }
-        catch (IllegalArgumentException | IndexOutOfBoundsException e)
+
+        int offsetRight = maxLength / 2 - 1;
+        int offsetLeft = offsetRight;
+        if (maxLength % 2 == 1)
         {
-            // Do not print the Window if exceptions are encountered
-            return;
+            offsetRight++;
         }
+
+        int top = centerY - offsetUp - 2;
+        int bottom = centerY + offsetDown + 1;
+        int left = centerX - offsetLeft - 2;
+        int right = centerX + offsetRight + 1;
+        return new Rectangle(left, top, right - left + 1, bottom - top + 1);
     }
 
     /**
@@ -195,4 +214,150 @@ public class PopupWindow extends Window
     {
         return separator != null;
     }
+
+    /**
+     * Tracks the length of the longest line, along with how many lines have that length, so that the maximum is only
+     * recomputed when every line of that length is removed or shortened. Events keep the lengths in step with lines
+     * that are inserted, removed or updated; if the number of lines differs from the number tracked, because lines
+     * were added to or removed from the List the {@link WindowContents} wrap, every length is measured again.
+     */
+    private class Width implements ContentsListener
+    {
+        /**
+         * The length of each line, with null lines having a length of 0; only the first {@link #count} are used, and
+         * the rest leave room for lines to be inserted without growing the array.
+         */
+        private int[] lengths = new int[0];
+
+        /**
+         * The number of lines whose lengths are tracked.
+         */
+        private int count;
+
+        /**
+         * The length of the longest line, or -1 if it must be recomputed.
+         */
+        private int max = -1;
+
+        /**
+         * The number of lines with a length of {@link #max}.
+         */
+        private int maxCount;
+
+        /**
+         * Returns the length of the longest line, recomputing it only if needed.
+         *
+         * @return the length of the longest line
+         */
+        public int get()
+        {
+            WindowContents contents = getContents();
+            if (max == -1 || count != contents.size())
+            {
+                count = contents.size();
+                if (lengths.length < count)
+                {
+                    lengths = new int[count];
+                }
+
+                max = 0;
+                maxCount = 0;
+                int i = 0;
+                for (ColorString line : contents)
+                {
+                    lengths[i] = line == null ? 0 : line.length();
+                    count(lengths[i]);
+                    i++;
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Accounts for a line of the given length being added to the contents.
+         *
+         * @param length the length of the added line
+         */
+        private void count(int length)
+        {
+            if (length > max)
+            {
+                max = length;
+                maxCount = 1;
+            }
+            else if (length == max)
+            {
+                maxCount++;
+            }
+        }
+
+        /**
+         * Accounts for a line of the given length being removed from the contents.
+         *
+         * @param length the length of the removed line
+         */
+        private void uncount(int length)
+        {
+            if (length == max && --maxCount == 0)
+            {
+                max = -1;
+            }
+        }
+
+        @Override
+        public void contentsInserted(int start, int end)
+        {
+            if (max == -1)
+            {
+                return;
+            }
+
+            int inserted = end - start;
+            if (count + inserted > lengths.length)
+            {
+                lengths = Arrays.copyOf(lengths, Math.max(count + inserted, lengths.length * 2));
+            }
+            System.arraycopy(lengths, start, lengths, end, count - start);
+            count += inserted;
+
+            for (int i = start; i < end; i++)
+            {
+                ColorString line = getContents().get(i);
+                lengths[i] = line == null ? 0 : line.length();
+                count(lengths[i]);
+            }
+        }
+
+        @Override
+        public void contentsRemoved(int start, int end)
+        {
+            if (max == -1)
+            {
+                return;
+            }
+
+            for (int i = start; i < end && max != -1; i++)
+            {
+                uncount(lengths[i]);
+            }
+
+            System.arraycopy(lengths, end, lengths, start, count - end);
+            count -= end - start;
+        }
+
+        @Override
+        public void contentsUpdated(int start, int end)
+        {
+            for (int i = start; i < end && max != -1; i++)
+            {
+                uncount(lengths[i]);
+                ColorString line = getContents().get(i);
+                lengths[i] = line == null ? 0 : line.length();
+                if (max != -1)
+                {
+                    count(lengths[i]);
+                }
+            }
+        }
+    }
 }
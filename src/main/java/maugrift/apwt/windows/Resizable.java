@@ -0,0 +1,32 @@
+package maugrift.apwt.windows;
+
+/**
+ * A {@link Window} whose viewport can be given any size, such as a {@link ScrollWindow}. A {@link LayoutItem} resizes
+ * these windows to fill the space it is given.
+ *
+ * @author Maugrift
+ */
+public interface Resizable
+{
+    /**
+     * Returns the width of the viewport, not including any {@link Border} or scrollbar.
+     *
+     * @return the width of the viewport
+     */
+    int getWidth();
+
+    /**
+     * Returns the height of the viewport, not including any {@link Border}.
+     *
+     * @return the height of the viewport
+     */
+    int getHeight();
+
+    /**
+     * Changes the size of the viewport.
+     *
+     * @param width  the width of the viewport, not including any {@link Border} or scrollbar; must be positive
+     * @param height the height of the viewport, not including any {@link Border}; must be positive
+     */
+    void setSize(int width, int height);
+}
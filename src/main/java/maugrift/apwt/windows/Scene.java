@@ -0,0 +1,294 @@
+package maugrift.apwt.windows;
+
+import maugrift.apwt.display.BufferedDisplay;
+import maugrift.apwt.display.Display;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A retained tree of {@link SceneNode SceneNodes} drawn to a {@link Display}. The {@link Scene} composes its visible
+ * windows onto an off-screen surface, and keeps that surface until a node changes, so displaying an unchanged {@link
+ * Scene} only copies the surface to the {@link Display}.
+ * <p>
+ * When a node has changed, the surface is composed again from bottom to top. Opaque windows are rendered into their
+ * own buffers only when they have been invalidated, and are otherwise copied from those buffers; windows that are
+ * hidden, or entirely covered by opaque windows above them, are skipped without being rendered at all. Windows that
+ * are not opaque, or whose bounds are not known, are rendered directly onto the surface every time it is composed.
+ * <p>
+ * While a {@link Window} belongs to a {@link Scene}, it should only be displayed through the {@link Scene}.
+ *
+ * @author Maugrift
+ */
+public class Scene
+{
+    /**
+     * The {@link Display} the {@link Scene} is drawn to.
+     */
+    private final Display display;
+
+    /**
+     * The node containing every other node.
+     */
+    private final SceneNode root;
+
+    /**
+     * The composed {@link Scene}.
+     */
+    private final BufferedDisplay surface;
+
+    /**
+     * The visible nodes with windows, from bottom to top, as of the last composition.
+     */
+    private final List<SceneNode> order;
+
+    /**
+     * For each cell, the number of the last composition in which it was found to be covered by an opaque window.
+     */
+    private final int[] covered;
+
+    /**
+     * The number of the current composition.
+     */
+    private int composition;
+
+    /**
+     * The number of windows rendered during the last composition.
+     */
+    private int rendered;
+
+    /**
+     * The number of windows skipped during the last composition because they were covered.
+     */
+    private int culled;
+
+    /**
+     * Creates an empty {@link Scene} drawn to the given {@link Display}.
+     *
+     * @param display the {@link Display} to draw to
+     */
+    public Scene(Display display)
+    {
+        this.display = display;
+        root = new SceneNode();
+        surface = new BufferedDisplay(display.getWidthInCharacters(), display.getHeightInCharacters(),
+                display.getDefaultForegroundColor(), display.getDefaultBackgroundColor());
+        order = new ArrayList<>();
+        covered = new int[display.getWidthInCharacters() * display.getHeightInCharacters()];
+    }
+
+    /**
+     * Returns the node containing every other node. Nodes added to it, or to its descendants, are part of the {@link
+     * Scene}.
+     *
+     * @return the root node
+     */
+    public SceneNode getRoot()
+    {
+        return root;
+    }
+
+    /**
+     * Returns the {@link Display} the {@link Scene} is drawn to.
+     *
+     * @return the {@link Display} the {@link Scene} is drawn to
+     */
+    public Display getDisplay()
+    {
+        return display;
+    }
+
+    /**
+     * Creates a node for a {@link Window} and adds it above every other node.
+     *
+     * @param window the {@link Window} to add
+     * @return the node created for the {@link Window}
+     */
+    public SceneNode add(Window window)
+    {
+        SceneNode node = new SceneNode(window);
+        root.add(node);
+        return node;
+    }
+
+    /**
+     * Draws the {@link Scene} to its {@link Display}, composing it again only if a node has changed.
+     */
+    public void display()
+    {
+        if (root.changed)
+        {
+            compose();
+        }
+
+        surface.drawTo(display, 0, 0);
+    }
+
+    /**
+     * Returns the number of windows rendered the last time the {@link Scene} was composed.
+     *
+     * @return the number of windows rendered during the last composition
+     */
+    public int getRenderedCount()
+    {
+        return rendered;
+    }
+
+    /**
+     * Returns the number of windows skipped the last time the {@link Scene} was composed because opaque windows above
+     * them covered them entirely.
+     *
+     * @return the number of windows culled during the last composition
+     */
+    public int getCulledCount()
+    {
+        return culled;
+    }
+
+    /**
+     * Composes every visible, uncovered window onto the surface.
+     */
+    private void compose()
+    {
+        order.clear();
+        collect(root);
+
+        composition++;
+        if (composition == 0)
+        {
+            // The counter wrapped around, so old marks could be mistaken for current ones
+            Arrays.fill(covered, 0);
+            composition = 1;
+        }
+
+        int width = surface.getWidthInCharacters();
+        int height = surface.getHeightInCharacters();
+        boolean[] skip = new boolean[order.size()];
+        culled = 0;
+        for (int i = order.size() - 1; i >= 0; i--)
+        {
+            SceneNode node = order.get(i);
+            Rectangle bounds = node.getBounds();
+            if (bounds == null)
+            {
+                continue;
+            }
+
+            int left = Math.max(0, bounds.x);
+            int top = Math.max(0, bounds.y);
+            int right = Math.min(width, bounds.x + bounds.width);
+            int bottom = Math.min(height, bounds.y + bounds.height);
+            if (left >= right || top >= bottom || isCovered(left, top, right, bottom))
+            {
+                skip[i] = true;
+                culled++;
+                continue;
+            }
+
+            if (node.isOpaque())
+            {
+                for (int y = top; y < bottom; y++)
+                {
+                    for (int x = left; x < right; x++)
+                    {
+                        covered[y * width + x] = composition;
+                    }
+                }
+            }
+        }
+
+        surface.clear();
+        rendered = 0;
+        for (int i = 0; i < order.size(); i++)
+        {
+            if (!skip[i])
+            {
+                draw(order.get(i));
+            }
+        }
+    }
+
+    /**
+     * Adds the visible nodes with windows in a subtree to {@link #order}, from bottom to top, and marks every node in
+     * it as unchanged.
+     *
+     * @param node the root of the subtree
+     */
+    private void collect(SceneNode node)
+    {
+        node.changed = false;
+        if (!node.isVisible())
+        {
+            return;
+        }
+
+        if (node.getWindow() != null)
+        {
+            order.add(node);
+        }
+
+        for (SceneNode child : node.getChildren())
+        {
+            collect(child);
+        }
+    }
+
+    /**
+     * Returns true if every cell in an area has been covered by an opaque window during this composition.
+     *
+     * @param left   the x value of the left side of the area
+     * @param top    the y value of the top of the area
+     * @param right  the x value after the right side of the area
+     * @param bottom the y value after the bottom of the area
+     * @return true if the area is entirely covered
+     */
+    private boolean isCovered(int left, int top, int right, int bottom)
+    {
+        int width = surface.getWidthInCharacters();
+        for (int y = top; y < bottom; y++)
+        {
+            for (int x = left; x < right; x++)
+            {
+                if (covered[y * width + x] != composition)
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Draws a node's {@link Window} onto the surface, rendering it first if needed.
+     *
+     * @param node the node to draw
+     */
+    private void draw(SceneNode node)
+    {
+        Window window = node.getWindow();
+        Rectangle bounds = node.getBounds();
+        if (!node.isOpaque() || bounds == null)
+        {
+            window.displayOn(surface);
+            rendered++;
+            return;
+        }
+
+        if (node.dirty || node.rendering == null)
+        {
+            if (node.rendering == null)
+            {
+                node.rendering = new BufferedDisplay(surface.getWidthInCharacters(), surface.getHeightInCharacters(),
+                        surface.getDefaultForegroundColor(), surface.getDefaultBackgroundColor());
+            }
+
+            window.displayOn(node.rendering);
+            node.dirty = false;
+            rendered++;
+        }
+
+        node.rendering.copyArea(surface, bounds.x, bounds.y, bounds.width, bounds.height);
+    }
+}
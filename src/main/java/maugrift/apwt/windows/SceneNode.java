@@ -0,0 +1,321 @@
+package maugrift.apwt.windows;
+
+import maugrift.apwt.display.BufferedDisplay;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A node in a {@link Scene}, holding a {@link Window} and any number of child nodes. Children are drawn over their
+ * parent's {@link Window}, and later children over earlier ones, so the order of children is their z-order. Hiding a
+ * node hides its whole subtree. A node without a {@link Window} only groups its children.
+ * <p>
+ * A node remembers its {@link Window}'s bounds and, if the {@link Window} is opaque, a rendering of it, until it is
+ * {@link #invalidate() invalidated}. Changes made through the {@link Window}'s {@link WindowContents} invalidate the
+ * node automatically; any other change to the {@link Window}, such as moving it or changing its selection, must be
+ * followed by a call to {@link #invalidate()}.
+ *
+ * @author Maugrift
+ */
+public class SceneNode
+{
+    /**
+     * The {@link Window} drawn by this node; null if the node only groups its children.
+     */
+    private final Window window;
+
+    /**
+     * The node containing this one; null if this node is a root or has not been added to another.
+     */
+    private SceneNode parent;
+
+    /**
+     * The child nodes, from bottom to top.
+     */
+    private final List<SceneNode> children;
+
+    /**
+     * If false, neither this node nor any of its descendants are drawn.
+     */
+    private boolean visible;
+
+    /**
+     * If true, the {@link Window} writes every cell within its bounds, so it can hide what is below it.
+     */
+    private boolean opaque;
+
+    /**
+     * The bounds of the {@link Window} when last measured.
+     */
+    private Rectangle bounds;
+
+    /**
+     * True if {@link #bounds} is up to date.
+     */
+    private boolean measured;
+
+    /**
+     * True if the {@link Window} changed since it was last rendered.
+     */
+    boolean dirty;
+
+    /**
+     * True if anything in this subtree changed since the {@link Scene} was last composed.
+     */
+    boolean changed;
+
+    /**
+     * The last rendering of an opaque {@link Window}; null until first needed.
+     */
+    BufferedDisplay rendering;
+
+    /**
+     * Creates a {@link SceneNode} that draws the given {@link Window}. The node is opaque if the {@link Window} has a
+     * {@link Border}, since borders are drawn filled.
+     *
+     * @param window the {@link Window} to draw
+     */
+    public SceneNode(Window window)
+    {
+        this.window = window;
+        children = new ArrayList<>();
+        visible = true;
+        opaque = window != null && window.isBordered();
+        dirty = true;
+        changed = true;
+
+        if (window != null && window.getContents() != null)
+        {
+            window.getContents().addListener(new Invalidator());
+        }
+    }
+
+    /**
+     * Creates a {@link SceneNode} without a {@link Window}, which only groups its children.
+     */
+    public SceneNode()
+    {
+        this(null);
+    }
+
+    /**
+     * Returns the {@link Window} drawn by this node.
+     *
+     * @return the {@link Window} drawn by this node, or null if the node only groups its children
+     */
+    public Window getWindow()
+    {
+        return window;
+    }
+
+    /**
+     * Returns the node containing this one.
+     *
+     * @return the node containing this one, or null if there is none
+     */
+    public SceneNode getParent()
+    {
+        return parent;
+    }
+
+    /**
+     * Returns the child nodes, from bottom to top.
+     *
+     * @return an unmodifiable view of the child nodes
+     */
+    public List<SceneNode> getChildren()
+    {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Adds a child node above every other child.
+     *
+     * @param child the node to add; must not already have a parent
+     */
+    public void add(SceneNode child)
+    {
+        add(children.size(), child);
+    }
+
+    /**
+     * Adds a child node at the given position in the z-order.
+     *
+     * @param index the position among the children, 0 being the bottom
+     * @param child the node to add; must not already have a parent
+     */
+    public void add(int index, SceneNode child)
+    {
+        if (child.parent != null)
+        {
+            throw new IllegalArgumentException("Node already has a parent");
+        }
+
+        for (SceneNode ancestor = this; ancestor != null; ancestor = ancestor.parent)
+        {
+            if (ancestor == child)
+            {
+                throw new IllegalArgumentException("A node cannot contain itself");
+            }
+        }
+
+        children.add(index, child);
+        child.parent = this;
+        markChanged();
+    }
+
+    /**
+     * Removes a child node.
+     *
+     * @param child the node to remove
+     * @return true if the node was a child of this one
+     */
+    public boolean remove(SceneNode child)
+    {
+        if (!children.remove(child))
+        {
+            return false;
+        }
+
+        child.parent = null;
+        markChanged();
+        return true;
+    }
+
+    /**
+     * Moves this node above its siblings.
+     */
+    public void raise()
+    {
+        if (parent != null && parent.children.remove(this))
+        {
+            parent.children.add(this);
+            markChanged();
+        }
+    }
+
+    /**
+     * Moves this node below its siblings.
+     */
+    public void lower()
+    {
+        if (parent != null && parent.children.remove(this))
+        {
+            parent.children.add(0, this);
+            markChanged();
+        }
+    }
+
+    /**
+     * Returns true if this node is drawn. A visible node is still not drawn if one of its ancestors is hidden.
+     *
+     * @return true if this node is drawn
+     */
+    public boolean isVisible()
+    {
+        return visible;
+    }
+
+    /**
+     * Shows or hides this node and its descendants.
+     *
+     * @param visible if false, neither this node nor any of its descendants are drawn
+     */
+    public void setVisible(boolean visible)
+    {
+        if (this.visible != visible)
+        {
+            this.visible = visible;
+            markChanged();
+        }
+    }
+
+    /**
+     * Returns true if the {@link Window} writes every cell within its bounds.
+     *
+     * @return true if the {@link Window} can hide what is below it
+     */
+    public boolean isOpaque()
+    {
+        return opaque;
+    }
+
+    /**
+     * Sets whether the {@link Window} writes every cell within its bounds. Only opaque windows hide the windows below
+     * them and have their renderings kept between frames.
+     *
+     * @param opaque true if the {@link Window} writes every cell within its bounds
+     */
+    public void setOpaque(boolean opaque)
+    {
+        if (this.opaque != opaque)
+        {
+            this.opaque = opaque;
+            invalidate();
+        }
+    }
+
+    /**
+     * Marks the {@link Window} as changed, so that it is measured and rendered again the next time the {@link Scene} is
+     * displayed.
+     */
+    public void invalidate()
+    {
+        dirty = true;
+        measured = false;
+        markChanged();
+    }
+
+    /**
+     * Returns the area covered by the {@link Window}, measuring it only if the node was invalidated since it was last
+     * measured.
+     *
+     * @return the area covered by the {@link Window}, or null if there is no {@link Window} or its area is unknown
+     */
+    public Rectangle getBounds()
+    {
+        if (!measured)
+        {
+            bounds = window == null ? null : window.getBounds();
+            measured = true;
+        }
+        return bounds;
+    }
+
+    /**
+     * Marks this node and every ancestor as containing a change.
+     */
+    private void markChanged()
+    {
+        for (SceneNode node = this; node != null; node = node.parent)
+        {
+            node.changed = true;
+        }
+    }
+
+    /**
+     * Invalidates the node whenever the {@link Window}'s contents change.
+     */
+    private class Invalidator implements ContentsListener
+    {
+        @Override
+        public void contentsInserted(int start, int end)
+        {
+            invalidate();
+        }
+
+        @Override
+        public void contentsRemoved(int start, int end)
+        {
+            invalidate();
+        }
+
+        @Override
+        public void contentsUpdated(int start, int end)
+        {
+            invalidate();
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package maugrift.apwt.windows;
+
+import maugrift.apwt.ExtChars;
+import maugrift.apwt.display.Display;
+import maugrift.apwt.glyphs.ColorString;
+
+import java.awt.Rectangle;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/**
+ * A {@link CoordWindow} of fixed size that shows part of a list of lines of any length, which can be scrolled through.
+ * Only the lines within the viewport are read when displaying, so the contents can be a {@link
+ * maugrift.apwt.util.FileLineList} or a callback that produces lines as they are needed. Scrolling only changes the
+ * index of the first visible line, so scrolling by any distance takes the same time.
+ * <p>
+ * Like {@link AlignedWindow}, the coordinates of a {@link ScrollWindow} are those of its top left line, with any
+ * {@link Border} drawn around it. Lines longer than the viewport are cut off, and null lines are left blank. An
+ * optional scrollbar is drawn along the right side of the viewport.
+ *
+ * @author Maugrift
+ */
+public class ScrollWindow extends CoordWindow implements Resizable
+{
+    /**
+     * The number of characters shown on each line.
+     */
+    private int width;
+
+    /**
+     * The number of lines shown at once.
+     */
+    private int height;
+
+    /**
+     * The index of the first visible line.
+     */
+    private int top;
+
+    /**
+     * If true, a scrollbar will be drawn to the right of the lines.
+     */
+    private boolean scrollbar;
+
+    /**
+     * Creates a {@link ScrollWindow} with all fields defined.
+     *
+     * @param display   the {@link Window}'s {@link Display}
+     * @param contents  the {@link Window}'s contents; used directly rather than copied
+     * @param x         the {@link Window}'s x coordinate
+     * @param y         the {@link Window}'s y coordinate
+     * @param width     the number of characters shown on each line; must be positive
+     * @param height    the number of lines shown at once; must be positive
+     * @param border    the {@link Window}'s {@link Border}
+     * @param scrollbar if true, a scrollbar will be drawn to the right of the lines
+     */
+    public ScrollWindow(Display display, List<ColorString> contents, int x, int y, int width, int height,
+            Border border, boolean scrollbar)
+    {
+        super(display, border, contents, x, y);
+
+        if (width < 1 || height < 1)
+        {
+            throw new IllegalArgumentException("Width and height must be positive; were " + width + " and " + height);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.scrollbar = scrollbar;
+    }
+
+    /**
+     * Creates a {@link ScrollWindow} with a scrollbar.
+     *
+     * @param display  the {@link Window}'s {@link Display}
+     * @param contents the {@link Window}'s contents; used directly rather than copied
+     * @param x        the {@link Window}'s x coordinate
+     * @param y        the {@link Window}'s y coordinate
+     * @param width    the number of characters shown on each line; must be positive
+     * @param height   the number of lines shown at once; must be positive
+     * @param border   the {@link Window}'s {@link Border}
+     */
+    public ScrollWindow(Display display, List<ColorString> contents, int x, int y, int width, int height,
+            Border border)
+    {
+        this(display, contents, x, y, width, height, border, true);
+    }
+
+    /**
+     * Creates a {@link ScrollWindow} whose lines are produced by a callback as they are displayed.
+     *
+     * @param display   the {@link Window}'s {@link Display}
+     * @param lines     returns the line at a given index; may return null for a blank line
+     * @param size      returns the current number of lines
+     * @param x         the {@link Window}'s x coordinate
+     * @param y         the {@link Window}'s y coordinate
+     * @param width     the number of characters shown on each line; must be positive
+     * @param height    the number of lines shown at once; must be positive
+     * @param border    the {@link Window}'s {@link Border}
+     * @param scrollbar if true, a scrollbar will be drawn to the right of the lines
+     */
+    public ScrollWindow(Display display, IntFunction<ColorString> lines, IntSupplier size, int x, int y, int width,
+            int height, Border border, boolean scrollbar)
+    {
+        this(display, new CallbackList(lines, size), x, y, width, height, border, scrollbar);
+    }
+
+    @Override
+    public void display()
+    {
+        if (getContents() == null)
+        {
+            return;
+        }
+
+        Display display = prepareDisplay(getBounds());
+        if (display == null)
+        {
+            return;
+        }
+
+        int size = getContents().size();
+        top = clamp(top, size);
+
+        int x = getX();
+        int y = getY();
+        int right = x + width;
+        if (scrollbar)
+        {
+            right++;
+        }
+
+        if (isBordered())
+        {
+            display.drawBorder(x - 1, y - 1, right, y + height, getBorder());
+        }
+
+        for (int row = 0; row < height; row++)
+        {
+            int index = top + row;
+            ColorString line = index < size ? getContents().get(index) : null;
+            int length = line == null ? 0 : Math.min(line.length(), width);
+            if (length > 0)
+            {
+                display.write(x, y + row, line, 0, length);
+            }
+
+            for (int column = length; column < width; column++)
+            {
+                display.write(x + column, y + row, ' ');
+            }
+        }
+
+        if (scrollbar)
+        {
+            drawScrollbar(display, x + width, y, size);
+        }
+    }
+
+    /**
+     * Draws the scrollbar, with a thumb whose size and position show which part of the contents is visible.
+     *
+     * @param display the {@link Display} to draw on
+     * @param x       the x coordinate of the scrollbar
+     * @param y       the y coordinate of the top of the scrollbar
+     * @param size    the number of lines in the contents
+     */
+    private void drawScrollbar(Display display, int x, int y, int size)
+    {
+        int thumbSize = height;
+        int thumbTop = 0;
+        if (size > height)
+        {
+            thumbSize = Math.max(1, (int) ((long) height * height / size));
+            thumbTop = (int) ((long) (height - thumbSize) * top / (size - height));
+        }
+
+        for (int row = 0; row < height; row++)
+        {
+            boolean thumb = row >= thumbTop && row < thumbTop + thumbSize;
+            display.write(x, y + row, thumb ? ExtChars.BLOCK_SHADE_3 : ExtChars.BLOCK_SHADE_1);
+        }
+    }
+
+    /**
+     * Limits an index of the first visible line to those that keep the viewport within the contents.
+     *
+     * @param line the index to limit
+     * @param size the number of lines in the contents
+     * @return the closest index that keeps the viewport within the contents
+     */
+    private int clamp(int line, int size)
+    {
+        return Math.max(0, Math.min(line, size - height));
+    }
+
+    /**
+     * Returns the number of lines in the contents, or 0 if there are no contents.
+     *
+     * @return the number of lines in the contents
+     */
+    private int size()
+    {
+        return getContents() == null ? 0 : getContents().size();
+    }
+
+    /**
+     * Returns the index of the first visible line.
+     *
+     * @return the index of the first visible line
+     */
+    public int getTop()
+    {
+        return top;
+    }
+
+    /**
+     * Returns the index of the last line that can be the first visible line, which shows the end of the contents.
+     *
+     * @return the highest index to which the {@link ScrollWindow} can be scrolled
+     */
+    public int getMaxTop()
+    {
+        return Math.max(0, size() - height);
+    }
+
+    /**
+     * Scrolls so that the given line is the first visible line, or as close to it as the contents allow.
+     *
+     * @param line the index of the line to show at the top
+     */
+    public void scrollTo(int line)
+    {
+        top = clamp(line, size());
+    }
+
+    /**
+     * Scrolls only as far as needed for the given line to be visible.
+     *
+     * @param line the index of the line to show
+     */
+    public void scrollToVisible(int line)
+    {
+        if (line < top)
+        {
+            scrollTo(line);
+        }
+        else if (line >= top + height)
+        {
+            scrollTo(line - height + 1);
+        }
+    }
+
+    /**
+     * Scrolls by the given number of lines.
+     *
+     * @param lines the number of lines to scroll; positive numbers scroll down and negative numbers scroll up
+     */
+    public void scroll(int lines)
+    {
+        scrollTo((int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, (long) top + lines)));
+    }
+
+    /**
+     * Scrolls by the given number of pages, each one the height of the viewport.
+     *
+     * @param pages the number of pages to scroll; positive numbers scroll down and negative numbers scroll up
+     */
+    public void scrollPages(int pages)
+    {
+        scroll((int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, (long) pages * height)));
+    }
+
+    /**
+     * Scrolls to the first line.
+     */
+    public void scrollToTop()
+    {
+        top = 0;
+    }
+
+    /**
+     * Scrolls to the end of the contents.
+     */
+    public void scrollToBottom()
+    {
+        top = getMaxTop();
+    }
+
+    /**
+     * Returns the number of characters shown on each line.
+     *
+     * @return the number of characters shown on each line
+     */
+    @Override
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns the number of lines shown at once.
+     *
+     * @return the number of lines shown at once
+     */
+    @Override
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Changes the size of the viewport.
+     *
+     * @param width  the number of characters shown on each line; must be positive
+     * @param height the number of lines shown at once; must be positive
+     */
+    @Override
+    public void setSize(int width, int height)
+    {
+        if (width < 1 || height < 1)
+        {
+            throw new IllegalArgumentException("Width and height must be positive; were " + width + " and " + height);
+        }
+
+        this.width = width;
+        this.height = height;
+        top = clamp(top, size());
+    }
+
+    /**
+     * Returns true if a scrollbar is drawn to the right of the lines.
+     *
+     * @return true if a scrollbar is drawn to the right of the lines
+     */
+    public boolean hasScrollbar()
+    {
+        return scrollbar;
+    }
+
+    /**
+     * Returns the area that the {@link ScrollWindow} covers when displayed.
+     *
+     * @return the area covered by the {@link ScrollWindow}, including any {@link Border}
+     */
+    @Override
+    public Rectangle getBounds()
+    {
+        int border = isBordered() ? 1 : 0;
+        return new Rectangle(getX() - border, getY() - border, getRight() - getX() + border * 2,
+                height + border * 2);
+    }
+
+    /**
+     * Returns the x coordinate of the right side of the {@link ScrollWindow}, including its scrollbar.
+     *
+     * @return the x coordinate of the right side of the {@link ScrollWindow}
+     */
+    public int getRight()
+    {
+        return getX() + width + (scrollbar ? 1 : 0);
+    }
+
+    /**
+     * Returns the y coordinate of the bottom of the {@link ScrollWindow}.
+     *
+     * @return the y coordinate of the bottom of the {@link ScrollWindow}
+     */
+    public int getBottom()
+    {
+        return getY() + height;
+    }
+
+    /**
+     * A read-only List whose lines are produced by a callback.
+     */
+    private static class CallbackList extends AbstractList<ColorString> implements RandomAccess
+    {
+        /**
+         * Returns the line at a given index.
+         */
+        private final IntFunction<ColorString> lines;
+
+        /**
+         * Returns the current number of lines.
+         */
+        private final IntSupplier size;
+
+        /**
+         * Creates a {@link CallbackList} from its callbacks.
+         *
+         * @param lines returns the line at a given index
+         * @param size  returns the current number of lines
+         */
+        public CallbackList(IntFunction<ColorString> lines, IntSupplier size)
+        {
+            this.lines = lines;
+            this.size = size;
+        }
+
+        @Override
+        public ColorString get(int index)
+        {
+            if (index < 0 || index >= size())
+            {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+
+            return lines.apply(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return size.getAsInt();
+        }
+    }
+}
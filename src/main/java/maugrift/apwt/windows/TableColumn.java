@@ -0,0 +1,227 @@
+package maugrift.apwt.windows;
+
+import maugrift.apwt.glyphs.ColorString;
+
+import java.awt.*;
+import java.util.function.Function;
+
+/**
+ * A column of a {@link TableWindow}, which takes the value of each cell from a row. Values that are {@link ColorString
+ * ColorStrings} are shown in their own colors; any other value is converted to a String and shown in the column's
+ * colors. A column either has a fixed width or sizes itself to fit the values it has seen, within a minimum and
+ * maximum.
+ *
+ * @param <RowType> the type of row the column takes its values from
+ * @author Maugrift
+ */
+public class TableColumn<RowType>
+{
+    /**
+     * The title shown in the header row.
+     */
+    private final String header;
+
+    /**
+     * Returns the value of the column's cell in a row.
+     */
+    private final Function<? super RowType, ?> value;
+
+    /**
+     * The fixed width of the column, or 0 if it sizes itself.
+     */
+    private int width;
+
+    /**
+     * The smallest width the column will size itself to.
+     */
+    private int minWidth;
+
+    /**
+     * The largest width the column will size itself to.
+     */
+    private int maxWidth;
+
+    /**
+     * If true, values are aligned to the right side of the column.
+     */
+    private boolean rightAligned;
+
+    /**
+     * The foreground color of values that are not {@link ColorString ColorStrings}; null for the default.
+     */
+    private Color foreground;
+
+    /**
+     * The background color of values that are not {@link ColorString ColorStrings}; null for the default.
+     */
+    private Color background;
+
+    /**
+     * Creates a left-aligned {@link TableColumn} that sizes itself to fit its values.
+     *
+     * @param header the title shown in the header row
+     * @param value  returns the value of the column's cell in a row
+     */
+    public TableColumn(String header, Function<? super RowType, ?> value)
+    {
+        this.header = header == null ? "" : header;
+        this.value = value;
+        minWidth = 1;
+        maxWidth = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the title shown in the header row.
+     *
+     * @return the title shown in the header row
+     */
+    public String getHeader()
+    {
+        return header;
+    }
+
+    /**
+     * Returns the value of the column's cell in a row.
+     *
+     * @param row the row
+     * @return the value of the cell; may be null
+     */
+    public Object getValue(RowType row)
+    {
+        return value.apply(row);
+    }
+
+    /**
+     * Gives the column a fixed width.
+     *
+     * @param width the width of the column; must be positive
+     * @return this for convenient chaining
+     */
+    public TableColumn<RowType> setWidth(int width)
+    {
+        if (width < 1)
+        {
+            throw new IllegalArgumentException("Width must be positive; was " + width);
+        }
+
+        this.width = width;
+        return this;
+    }
+
+    /**
+     * Makes the column size itself to fit its values, within the given limits.
+     *
+     * @param minWidth the smallest width; must be positive
+     * @param maxWidth the largest width; must be at least the smallest width
+     * @return this for convenient chaining
+     */
+    public TableColumn<RowType> setAutoWidth(int minWidth, int maxWidth)
+    {
+        if (minWidth < 1 || maxWidth < minWidth)
+        {
+            throw new IllegalArgumentException("Widths must be positive and ordered; were " + minWidth + " and " +
+                                               maxWidth);
+        }
+
+        width = 0;
+        this.minWidth = minWidth;
+        this.maxWidth = maxWidth;
+        return this;
+    }
+
+    /**
+     * Returns true if the column sizes itself to fit its values.
+     *
+     * @return true if the column has no fixed width
+     */
+    public boolean isAutoWidth()
+    {
+        return width == 0;
+    }
+
+    /**
+     * Returns the fixed width of the column.
+     *
+     * @return the fixed width of the column, or 0 if it sizes itself
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns the smallest width the column will size itself to.
+     *
+     * @return the smallest width the column will size itself to
+     */
+    public int getMinWidth()
+    {
+        return minWidth;
+    }
+
+    /**
+     * Returns the largest width the column will size itself to.
+     *
+     * @return the largest width the column will size itself to
+     */
+    public int getMaxWidth()
+    {
+        return maxWidth;
+    }
+
+    /**
+     * Returns true if values are aligned to the right side of the column.
+     *
+     * @return true if values are aligned to the right side of the column
+     */
+    public boolean isRightAligned()
+    {
+        return rightAligned;
+    }
+
+    /**
+     * Sets which side of the column values are aligned to. Numbers are usually aligned to the right.
+     *
+     * @param rightAligned if true, values are aligned to the right side of the column
+     * @return this for convenient chaining
+     */
+    public TableColumn<RowType> setRightAligned(boolean rightAligned)
+    {
+        this.rightAligned = rightAligned;
+        return this;
+    }
+
+    /**
+     * Returns the foreground color of values that are not {@link ColorString ColorStrings}.
+     *
+     * @return the foreground color of plain values, or null for the default
+     */
+    public Color getForeground()
+    {
+        return foreground;
+    }
+
+    /**
+     * Returns the background color of values that are not {@link ColorString ColorStrings}.
+     *
+     * @return the background color of plain values, or null for the default
+     */
+    public Color getBackground()
+    {
+        return background;
+    }
+
+    /**
+     * Sets the colors of values that are not {@link ColorString ColorStrings}.
+     *
+     * @param foreground the foreground color; null for the default
+     * @param background the background color; null for the default
+     * @return this for convenient chaining
+     */
+    public TableColumn<RowType> setColors(Color foreground, Color background)
+    {
+        this.foreground = foreground;
+        this.background = background;
+        return this;
+    }
+}
@@ -0,0 +1,704 @@
+package maugrift.apwt.windows;
+
+import maugrift.apwt.LineChars;
+import maugrift.apwt.display.Display;
+import maugrift.apwt.glyphs.ColorString;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/**
+ * A {@link CoordWindow} of fixed size that shows a table of rows, one row per line, divided into {@link TableColumn
+ * TableColumns}. Rows are taken from a callback as they are displayed, and only the rows and columns within the
+ * viewport are read, so a table can have any number of rows. The table scrolls vertically by row and horizontally by
+ * column.
+ * <p>
+ * Columns without a fixed width size themselves to the widest value they have seen. When first displayed, the table
+ * samples rows spread evenly through it to estimate these widths, and widens them further as wider values are
+ * displayed; widths never shrink on their own, so columns do not shift while scrolling. A header row of column titles
+ * can be shown above the rows, and columns can be divided by lines, which are joined to the header rule and any line
+ * {@link Border}.
+ * <p>
+ * Like {@link AlignedWindow}, the coordinates of a {@link TableWindow} are those of its top left cell, with any {@link
+ * Border} drawn around it.
+ *
+ * @param <RowType> the type of row shown in the table
+ * @author Maugrift
+ */
+public class TableWindow<RowType> extends CoordWindow implements Resizable
+{
+    /**
+     * The number of rows sampled to estimate the widths of columns without a fixed width.
+     */
+    public static final int SAMPLE_ROWS = 256;
+
+    /**
+     * Returns the row at a given index.
+     */
+    private final IntFunction<? extends RowType> rows;
+
+    /**
+     * Returns the current number of rows.
+     */
+    private final IntSupplier rowCount;
+
+    /**
+     * The columns, from left to right.
+     */
+    private final List<TableColumn<RowType>> columns;
+
+    /**
+     * The current width of each column.
+     */
+    private final int[] widths;
+
+    /**
+     * True if the widths of columns without a fixed width have been estimated from sampled rows.
+     */
+    private boolean sampled;
+
+    /**
+     * The number of characters shown on each line.
+     */
+    private int width;
+
+    /**
+     * The number of lines shown at once, including the header.
+     */
+    private int height;
+
+    /**
+     * The index of the first visible row.
+     */
+    private int firstRow;
+
+    /**
+     * The index of the first visible column.
+     */
+    private int firstColumn;
+
+    /**
+     * If true, a row of column titles is shown above the rows.
+     */
+    private boolean headerShown;
+
+    /**
+     * The width of the lines dividing columns and separating the header; 0 for no lines.
+     */
+    private int lineWidth;
+
+    /**
+     * Creates a {@link TableWindow} whose rows are produced by a callback.
+     *
+     * @param display  the {@link Window}'s {@link Display}
+     * @param rows     returns the row at a given index
+     * @param rowCount returns the current number of rows
+     * @param columns  the columns, from left to right
+     * @param x        the {@link Window}'s x coordinate
+     * @param y        the {@link Window}'s y coordinate
+     * @param width    the number of characters shown on each line; must be positive
+     * @param height   the number of lines shown at once, including the header; must be positive
+     * @param border   the {@link Window}'s {@link Border}
+     */
+    public TableWindow(Display display, IntFunction<? extends RowType> rows, IntSupplier rowCount,
+            List<TableColumn<RowType>> columns, int x, int y, int width, int height, Border border)
+    {
+        super(display, border, null, x, y);
+        this.rows = rows;
+        this.rowCount = rowCount;
+        this.columns = new ArrayList<>(columns);
+        widths = new int[this.columns.size()];
+        headerShown = true;
+        lineWidth = 1;
+        setSize(width, height);
+        resetWidths();
+    }
+
+    /**
+     * Creates a {@link TableWindow} that shows the rows of a List, which is used directly rather than copied.
+     *
+     * @param display the {@link Window}'s {@link Display}
+     * @param rows    the rows
+     * @param columns the columns, from left to right
+     * @param x       the {@link Window}'s x coordinate
+     * @param y       the {@link Window}'s y coordinate
+     * @param width   the number of characters shown on each line; must be positive
+     * @param height  the number of lines shown at once, including the header; must be positive
+     * @param border  the {@link Window}'s {@link Border}
+     */
+    public TableWindow(Display display, List<? extends RowType> rows, List<TableColumn<RowType>> columns, int x, int y,
+            int width, int height, Border border)
+    {
+        this(display, rows::get, rows::size, columns, x, y, width, height, border);
+    }
+
+    @Override
+    public void display()
+    {
+        Display display = prepareDisplay(getBounds());
+        if (display == null)
+        {
+            return;
+        }
+
+        int count = rowCount.getAsInt();
+        if (!sampled)
+        {
+            sample(count);
+        }
+
+        int headerRows = getHeaderRows();
+        int dataRows = Math.max(0, height - headerRows);
+        firstRow = Math.max(0, Math.min(firstRow, count - dataRows));
+        int shownRows = Math.min(dataRows, count - firstRow);
+
+        // Widen columns for the visible values before laying out, so that the whole frame uses the same widths
+        List<RowType> visible = new ArrayList<>(shownRows);
+        for (int row = 0; row < shownRows; row++)
+        {
+            visible.add(rows.apply(firstRow + row));
+        }
+        int lastColumn = lastVisibleColumn();
+        for (RowType row : visible)
+        {
+            for (int column = firstColumn; column <= lastColumn; column++)
+            {
+                measure(column, row);
+            }
+        }
+        lastColumn = lastVisibleColumn();
+
+        int x = getX();
+        int y = getY();
+        if (isBordered())
+        {
+            display.drawBorder(x - 1, y - 1, x + width, y + height, getBorder());
+        }
+
+        if (headerShown)
+        {
+            writeRow(display, x, y, null, true, lastColumn);
+        }
+
+        // Lines past the last row are left blank, but are still divided into columns
+        for (int row = 0; row < dataRows; row++)
+        {
+            writeRow(display, x, y + headerRows + row, row < shownRows ? visible.get(row) : null, false, lastColumn);
+        }
+
+        if (lineWidth > 0)
+        {
+            drawLines(display, x, y, headerRows, lastColumn);
+        }
+    }
+
+    /**
+     * Writes one line of the table, filling every cell and the spaces between columns.
+     *
+     * @param display    the {@link Display} to draw on
+     * @param x          the x coordinate of the line
+     * @param y          the y coordinate of the line
+     * @param row        the row to write; null for a blank line
+     * @param header     if true, the column titles are written instead of a row
+     * @param lastColumn the index of the last visible column
+     */
+    private void writeRow(Display display, int x, int y, RowType row, boolean header, int lastColumn)
+    {
+        int cursor = 0;
+        for (int column = firstColumn; column <= lastColumn && cursor < width; column++)
+        {
+            int cellWidth = Math.min(widths[column], width - cursor);
+            Object value;
+            if (header)
+            {
+                value = columns.get(column).getHeader();
+            }
+            else
+            {
+                value = row == null ? null : columns.get(column).getValue(row);
+            }
+
+            writeCell(display, x + cursor, y, cellWidth, value, columns.get(column));
+            cursor += cellWidth;
+
+            if (cursor < width)
+            {
+                // Dividing lines are drawn over this afterward; without lines, columns are separated by a space
+                display.write(x + cursor, y, ' ');
+                cursor++;
+            }
+        }
+
+        for (; cursor < width; cursor++)
+        {
+            display.write(x + cursor, y, ' ');
+        }
+    }
+
+    /**
+     * Writes a value into a cell, aligned as the column specifies and cut off if it is too long.
+     *
+     * @param display the {@link Display} to draw on
+     * @param x       the x coordinate of the cell
+     * @param y       the y coordinate of the cell
+     * @param width   the width of the cell
+     * @param value   the value to write; may be null for an empty cell
+     * @param column  the column the cell is in
+     */
+    private void writeCell(Display display, int x, int y, int width, Object value, TableColumn<RowType> column)
+    {
+        CharSequence text = toText(value);
+        int length = Math.min(text.length(), width);
+        int start = column.isRightAligned() ? width - length : 0;
+
+        for (int i = 0; i < start; i++)
+        {
+            display.write(x + i, y, ' ');
+        }
+
+        if (text instanceof ColorString)
+        {
+            display.write(x + start, y, (ColorString) text, 0, length);
+        }
+        else
+        {
+            for (int i = 0; i < length; i++)
+            {
+                display.write(x + start + i, y, text.charAt(i), column.getForeground(), column.getBackground());
+            }
+        }
+
+        for (int i = start + length; i < width; i++)
+        {
+            display.write(x + i, y, ' ');
+        }
+    }
+
+    /**
+     * Draws the lines dividing the visible columns and separating the header, joining them to each other and to the
+     * {@link Border} if it is made of lines.
+     *
+     * @param display    the {@link Display} to draw on
+     * @param x          the x coordinate of the table
+     * @param y          the y coordinate of the table
+     * @param headerRows the number of lines taken by the header
+     * @param lastColumn the index of the last visible column
+     */
+    private void drawLines(Display display, int x, int y, int headerRows, int lastColumn)
+    {
+        char vertical = LineChars.vertical(lineWidth);
+        char horizontal = LineChars.horizontal(lineWidth);
+        int borderHorizontal = isBordered() ? lineWidthOf(getBorder().edgeT) : 0;
+        int borderVertical = isBordered() ? lineWidthOf(getBorder().edgeL) : 0;
+        boolean rule = headerShown && headerRows == 2;
+        int ruleY = y + 1;
+
+        if (rule)
+        {
+            for (int column = 0; column < width; column++)
+            {
+                display.write(x + column, ruleY, horizontal);
+            }
+
+            if (borderVertical > 0)
+            {
+                writeJunction(display, x - 1, ruleY, LineChars.splitRight(borderVertical, lineWidth));
+                writeJunction(display, x + width, ruleY, LineChars.splitLeft(borderVertical, lineWidth));
+            }
+        }
+
+        int cursor = 0;
+        for (int column = firstColumn; column < lastColumn; column++)
+        {
+            cursor += widths[column];
+            if (cursor >= width)
+            {
+                break;
+            }
+
+            for (int row = 0; row < height; row++)
+            {
+                display.write(x + cursor, y + row, vertical);
+            }
+
+            if (rule)
+            {
+                writeJunction(display, x + cursor, ruleY, LineChars.center(lineWidth));
+            }
+
+            if (borderHorizontal > 0)
+            {
+                writeJunction(display, x + cursor, y - 1, LineChars.splitDown(borderHorizontal, lineWidth));
+                writeJunction(display, x + cursor, y + height, LineChars.splitUp(borderHorizontal, lineWidth));
+            }
+
+            cursor++;
+        }
+    }
+
+    /**
+     * Writes a junction character, unless there is no character for the junction.
+     *
+     * @param display   the {@link Display} to draw on
+     * @param x         the x coordinate of the junction
+     * @param y         the y coordinate of the junction
+     * @param character the junction character
+     */
+    private void writeJunction(Display display, int x, int y, char character)
+    {
+        if (character != LineChars.UNKNOWN)
+        {
+            display.write(x, y, character, getBorder() == null ? null : getBorder().getForeground(),
+                    getBorder() == null ? null : getBorder().getBackground());
+        }
+    }
+
+    /**
+     * Returns the width of the line drawn by a character, if it is a straight line character.
+     *
+     * @param character the character to check
+     * @return 1 or 2 for single or double straight lines, or 0 for any other character
+     */
+    private static int lineWidthOf(char character)
+    {
+        if (character == LineChars.LINE1_HORIZONTAL || character == LineChars.LINE1_VERTICAL)
+        {
+            return 1;
+        }
+
+        if (character == LineChars.LINE2_HORIZONTAL || character == LineChars.LINE2_VERTICAL)
+        {
+            return 2;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Converts a cell value to the text shown for it.
+     *
+     * @param value the value of a cell; may be null
+     * @return the text shown for the value
+     */
+    private static CharSequence toText(Object value)
+    {
+        if (value == null)
+        {
+            return "";
+        }
+
+        if (value instanceof CharSequence)
+        {
+            return (CharSequence) value;
+        }
+
+        return String.valueOf(value);
+    }
+
+    /**
+     * Returns the index of the last column that is at least partly visible with the current widths.
+     *
+     * @return the index of the last visible column
+     */
+    private int lastVisibleColumn()
+    {
+        int cursor = 0;
+        int column = firstColumn;
+        for (; column < columns.size() - 1; column++)
+        {
+            cursor += widths[column] + 1;
+            if (cursor >= width)
+            {
+                break;
+            }
+        }
+        return Math.min(column, columns.size() - 1);
+    }
+
+    /**
+     * Widens a column without a fixed width, if needed, to fit its value in a row.
+     *
+     * @param column the index of the column
+     * @param row    the row
+     */
+    private void measure(int column, RowType row)
+    {
+        TableColumn<RowType> tableColumn = columns.get(column);
+        if (!tableColumn.isAutoWidth() || widths[column] >= tableColumn.getMaxWidth())
+        {
+            return;
+        }
+
+        int length = toText(tableColumn.getValue(row)).length();
+        if (length > widths[column])
+        {
+            widths[column] = Math.min(length, tableColumn.getMaxWidth());
+        }
+    }
+
+    /**
+     * Estimates the widths of columns without a fixed width from rows spread evenly through the table.
+     *
+     * @param count the number of rows
+     */
+    private void sample(int count)
+    {
+        int step = Math.max(1, count / SAMPLE_ROWS);
+        for (int index = 0; index < count; index += step)
+        {
+            RowType row = rows.apply(index);
+            for (int column = 0; column < columns.size(); column++)
+            {
+                measure(column, row);
+            }
+        }
+        sampled = true;
+    }
+
+    /**
+     * Forgets the widths that columns without a fixed width have sized themselves to, so that they are estimated
+     * again from sampled rows when next displayed. Call this after the rows change in a way that may narrow columns.
+     */
+    public void resetWidths()
+    {
+        for (int column = 0; column < columns.size(); column++)
+        {
+            TableColumn<RowType> tableColumn = columns.get(column);
+            if (tableColumn.isAutoWidth())
+            {
+                int header = headerShown ? tableColumn.getHeader().length() : 0;
+                widths[column] = Math.min(tableColumn.getMaxWidth(), Math.max(tableColumn.getMinWidth(), header));
+            }
+            else
+            {
+                widths[column] = tableColumn.getWidth();
+            }
+        }
+        sampled = false;
+    }
+
+    /**
+     * Returns the number of lines taken by the header.
+     *
+     * @return 2 if the header and its rule are shown, 1 if only the header is, or 0
+     */
+    private int getHeaderRows()
+    {
+        if (!headerShown)
+        {
+            return 0;
+        }
+
+        return lineWidth > 0 ? 2 : 1;
+    }
+
+    /**
+     * Returns the current width of a column.
+     *
+     * @param column the index of the column
+     * @return the current width of the column
+     */
+    public int getColumnWidth(int column)
+    {
+        return widths[column];
+    }
+
+    /**
+     * Returns the columns, from left to right.
+     *
+     * @return the columns, from left to right
+     */
+    public List<TableColumn<RowType>> getColumns()
+    {
+        return columns;
+    }
+
+    /**
+     * Returns the current number of rows.
+     *
+     * @return the current number of rows
+     */
+    public int getRowCount()
+    {
+        return rowCount.getAsInt();
+    }
+
+    /**
+     * Returns the index of the first visible row.
+     *
+     * @return the index of the first visible row
+     */
+    public int getFirstRow()
+    {
+        return firstRow;
+    }
+
+    /**
+     * Scrolls so that the given row is the first visible row, or as close to it as the rows allow.
+     *
+     * @param row the index of the row to show at the top
+     */
+    public void scrollTo(int row)
+    {
+        int dataRows = Math.max(0, height - getHeaderRows());
+        firstRow = Math.max(0, Math.min(row, getRowCount() - dataRows));
+    }
+
+    /**
+     * Scrolls by the given number of rows.
+     *
+     * @param rows the number of rows to scroll; positive numbers scroll down and negative numbers scroll up
+     */
+    public void scroll(int rows)
+    {
+        scrollTo((int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, (long) firstRow + rows)));
+    }
+
+    /**
+     * Scrolls by the given number of pages, each one the number of visible rows.
+     *
+     * @param pages the number of pages to scroll; positive numbers scroll down and negative numbers scroll up
+     */
+    public void scrollPages(int pages)
+    {
+        long page = Math.max(1, height - getHeaderRows());
+        scroll((int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, pages * page)));
+    }
+
+    /**
+     * Returns the index of the first visible column.
+     *
+     * @return the index of the first visible column
+     */
+    public int getFirstColumn()
+    {
+        return firstColumn;
+    }
+
+    /**
+     * Scrolls horizontally so that the given column is the first visible column.
+     *
+     * @param column the index of the column to show at the left
+     */
+    public void setFirstColumn(int column)
+    {
+        firstColumn = Math.max(0, Math.min(column, columns.size() - 1));
+    }
+
+    /**
+     * Returns true if a row of column titles is shown above the rows.
+     *
+     * @return true if the header is shown
+     */
+    public boolean isHeaderShown()
+    {
+        return headerShown;
+    }
+
+    /**
+     * Sets whether a row of column titles is shown above the rows.
+     *
+     * @param headerShown if true, the header is shown
+     */
+    public void setHeaderShown(boolean headerShown)
+    {
+        this.headerShown = headerShown;
+        resetWidths();
+    }
+
+    /**
+     * Returns the width of the lines dividing columns and separating the header.
+     *
+     * @return 1 or 2 for single or double lines, or 0 for no lines
+     */
+    public int getLineWidth()
+    {
+        return lineWidth;
+    }
+
+    /**
+     * Sets the width of the lines dividing columns and separating the header. Without lines, columns are separated by
+     * a space.
+     *
+     * @param lineWidth 1 or 2 for single or double lines, or 0 for no lines
+     */
+    public void setLineWidth(int lineWidth)
+    {
+        if (lineWidth < 0 || lineWidth > 2)
+        {
+            throw new IllegalArgumentException("Line width must be 0, 1 or 2; was " + lineWidth);
+        }
+
+        this.lineWidth = lineWidth;
+    }
+
+    /**
+     * Returns the number of characters shown on each line.
+     *
+     * @return the number of characters shown on each line
+     */
+    @Override
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns the number of lines shown at once, including the header.
+     *
+     * @return the number of lines shown at once
+     */
+    @Override
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Changes the size of the viewport.
+     *
+     * @param width  the number of characters shown on each line; must be positive
+     * @param height the number of lines shown at once, including the header; must be positive
+     */
+    @Override
+    public void setSize(int width, int height)
+    {
+        if (width < 1 || height < 1)
+        {
+            throw new IllegalArgumentException("Width and height must be positive; were " + width + " and " + height);
+        }
+
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public Rectangle getBounds()
+    {
+        int border = isBordered() ? 1 : 0;
+        return new Rectangle(getX() - border, getY() - border, width + border * 2, height + border * 2);
+    }
+
+    /**
+     * Returns the x coordinate of the right side of the {@link TableWindow}.
+     *
+     * @return the x coordinate of the right side of the {@link TableWindow}
+     */
+    public int getRight()
+    {
+        return getX() + width;
+    }
+
+    /**
+     * Returns the y coordinate of the bottom of the {@link TableWindow}.
+     *
+     * @return the y coordinate of the bottom of the {@link TableWindow}
+     */
+    public int getBottom()
+    {
+        return getY() + height;
+    }
+}
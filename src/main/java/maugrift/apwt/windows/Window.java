@@ -1,8 +1,11 @@
 package maugrift.apwt.windows;
 
+import maugrift.apwt.display.ClippingDisplay;
 import maugrift.apwt.display.Display;
 import maugrift.apwt.glyphs.ColorString;
+import maugrift.apwt.glyphs.TextWrapper;
 
+import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,6 +16,12 @@ import java.util.List;
  */
 public abstract class Window
 {
+    /**
+     * Wraps the lines passed to {@link #addWrapped(ColorString, int)}, remembering the breaks of recently wrapped
+     * lines for every {@link Window}.
+     */
+    private static final TextWrapper WRAPPER = new TextWrapper(256);
+
     /**
      * The {@link Display} on which to print the {@link Window}.
      */
@@ -24,12 +33,32 @@ public abstract class Window
     private Border border;
 
     /**
-     * The contents of the {@link Window}, with each {@link maugrift.apwt.glyphs.ColorString} as a different line.
+     * The contents of the {@link Window}, with each {@link maugrift.apwt.glyphs.ColorString} as a different line; may
+     * be null.
+     */
+    private WindowContents contents;
+
+    /**
+     * If true, the parts of the {@link Window} that fit on its {@link Display} are drawn when it does not fit
+     * entirely; otherwise nothing is drawn.
+     */
+    private boolean clipped;
+
+    /**
+     * True if the {@link Window} did not fit on its {@link Display} when last displayed.
+     */
+    private boolean overflowed;
+
+    /**
+     * Discards writes outside of the {@link Display} while displaying a clipped {@link Window}; null until first
+     * needed.
      */
-    private List<ColorString> contents;
+    private ClippingDisplay clipper;
 
     /**
-     * Creates a {@link Window} with all fields defined.
+     * Creates a {@link Window} with all fields defined. Unless the contents are already {@link WindowContents}, they
+     * are wrapped in {@link WindowContents} backed by the given List, so later changes should be made through {@link
+     * #getContents()}.
      *
      * @param display  the {@link Window}'s {@link Display}
      * @param border   the {@link Window}'s {@link Border}
@@ -39,7 +68,14 @@ public abstract class Window
     {
         this.display = display;
         this.border = border;
-        this.contents = contents;
+        if (contents == null || contents instanceof WindowContents)
+        {
+            this.contents = (WindowContents) contents;
+        }
+        else
+        {
+            this.contents = new WindowContents(contents);
+        }
     }
 
     /**
@@ -80,11 +116,12 @@ public abstract class Window
     public abstract void display();
 
     /**
-     * Returns the contents of the {@link Window} as a List.
+     * Returns the contents of the {@link Window}. Changes made through the returned {@link WindowContents} are
+     * observed by the {@link Window}; a line changed in place must be reported with {@link WindowContents#update(int)}.
      *
-     * @return the contents of the {@link Window} as a List
+     * @return the contents of the {@link Window}
      */
-    public List<ColorString> getContents()
+    public WindowContents getContents()
     {
         return contents;
     }
@@ -99,6 +136,112 @@ public abstract class Window
         return display;
     }
 
+    /**
+     * Sets the {@link Display} on which to print the {@link Window}.
+     *
+     * @param display the new {@link Display} for the {@link Window} to use
+     */
+    public void setDisplay(Display display)
+    {
+        this.display = display;
+    }
+
+    /**
+     * Displays the {@link Window} on another {@link Display}, such as a {@link
+     * maugrift.apwt.display.BufferedDisplay}, then returns it to its own {@link Display}.
+     *
+     * @param target the {@link Display} to display the {@link Window} on
+     */
+    public void displayOn(Display target)
+    {
+        Display original = display;
+        display = target;
+        try
+        {
+            display();
+        }
+        finally
+        {
+            display = original;
+        }
+    }
+
+    /**
+     * Returns the area that the {@link Window} covers when displayed, computed without displaying it. Windows whose
+     * area cannot be known in advance return null, which is the default.
+     *
+     * @return the area covered by the {@link Window}, including any {@link Border}, or null if it is not known
+     */
+    public Rectangle getBounds()
+    {
+        return null;
+    }
+
+    /**
+     * Returns true if the parts of the {@link Window} that fit on its {@link Display} are drawn when it does not fit
+     * entirely.
+     *
+     * @return true if the {@link Window} is clipped to its {@link Display}
+     */
+    public boolean isClipped()
+    {
+        return clipped;
+    }
+
+    /**
+     * Sets whether the parts of the {@link Window} that fit on its {@link Display} are drawn when it does not fit
+     * entirely. Windows that are not clipped draw nothing unless they fit. Not every type of {@link Window} can be
+     * clipped; those that cannot ignore this setting.
+     *
+     * @param clipped if true, the {@link Window} is clipped to its {@link Display}
+     */
+    public void setClipped(boolean clipped)
+    {
+        this.clipped = clipped;
+    }
+
+    /**
+     * Returns true if the {@link Window} did not fit on its {@link Display} when it was last displayed, and so was
+     * either clipped or not drawn.
+     *
+     * @return true if the {@link Window} overflowed its {@link Display} when last displayed
+     */
+    public boolean hasOverflowed()
+    {
+        return overflowed;
+    }
+
+    /**
+     * Returns the {@link Display} that a {@link Window} covering the given area should draw on, checking whether the
+     * area fits on the {@link Window}'s {@link Display} and recording the result for {@link #hasOverflowed()}.
+     *
+     * @param bounds the area the {@link Window} will cover, as returned by {@link #getBounds()}
+     * @return the {@link Window}'s {@link Display} if the area fits, a {@link ClippingDisplay} writing to it if the
+     * area does not fit but the {@link Window} is clipped, or null if nothing should be drawn
+     */
+    protected Display prepareDisplay(Rectangle bounds)
+    {
+        overflowed = bounds == null || bounds.x < 0 || bounds.y < 0 ||
+                     bounds.x + bounds.width > display.getWidthInCharacters() ||
+                     bounds.y + bounds.height > display.getHeightInCharacters();
+
+        if (!overflowed)
+        {
+            return display;
+        }
+
+        if (!clipped || bounds == null)
+        {
+            return null;
+        }
+
+        if (clipper == null || clipper.getTarget() != display)
+        {
+            clipper = new ClippingDisplay(display);
+        }
+        return clipper;
+    }
+
     /**
      * Returns the {@link Window}'s {@link Border}.
      *
@@ -119,6 +262,18 @@ public abstract class Window
         return border != null;
     }
 
+    /**
+     * Adds a line to the content, wrapped onto as many lines as needed to fit within the given width.
+     *
+     * @param line  the line to add
+     * @param width the maximum number of characters on each added line; must be positive
+     * @see TextWrapper
+     */
+    public void addWrapped(ColorString line, int width)
+    {
+        contents.addAll(WRAPPER.wrap(line, width));
+    }
+
     /**
      * Adds a null line, acting as a separator, to the content.
      */
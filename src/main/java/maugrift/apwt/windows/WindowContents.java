@@ -0,0 +1,242 @@
+package maugrift.apwt.windows;
+
+import maugrift.apwt.glyphs.ColorString;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The contents of a {@link Window}: a List of lines that tells its {@link ContentsListener ContentsListeners} which
+ * lines were inserted, removed or changed, so that windows can update only what is affected. Null lines act as
+ * separators.
+ * <p>
+ * Changes are only observed when made through the {@link WindowContents}. A {@link ColorString} already in the
+ * contents that is changed in place must be reported with {@link #update(int)}.
+ *
+ * @author Maugrift
+ */
+public class WindowContents extends AbstractList<ColorString>
+{
+    /**
+     * The List holding the lines.
+     */
+    private final List<ColorString> lines;
+
+    /**
+     * The listeners notified of every change.
+     */
+    private final List<ContentsListener> listeners;
+
+    /**
+     * The number of changes reported to the listeners.
+     */
+    private int changes;
+
+    /**
+     * Creates {@link WindowContents} backed by the given List, which is used directly rather than copied. Later changes
+     * should be made through the {@link WindowContents} so that they are observed.
+     *
+     * @param lines the List holding the lines
+     */
+    public WindowContents(List<ColorString> lines)
+    {
+        if (lines == null)
+        {
+            throw new NullPointerException("Lines may not be null");
+        }
+
+        this.lines = lines;
+        listeners = new ArrayList<>(2);
+    }
+
+    /**
+     * Creates empty {@link WindowContents}.
+     */
+    public WindowContents()
+    {
+        this(new ArrayList<>());
+    }
+
+    /**
+     * Registers a listener to be notified of every change.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(ContentsListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops notifying a listener of changes.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(ContentsListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the number of changes reported to the listeners so far, each insertion, removal or update counting as
+     * one. A listener that records this value can later tell in constant time whether it has seen every change.
+     *
+     * @return the number of changes reported so far
+     */
+    public int getChangeCount()
+    {
+        return changes;
+    }
+
+    @Override
+    public ColorString get(int index)
+    {
+        return lines.get(index);
+    }
+
+    @Override
+    public int size()
+    {
+        return lines.size();
+    }
+
+    @Override
+    public ColorString set(int index, ColorString line)
+    {
+        ColorString previous = lines.set(index, line);
+        fireUpdated(index, index + 1);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, ColorString line)
+    {
+        lines.add(index, line);
+        modCount++;
+        fireInserted(index, index + 1);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends ColorString> c)
+    {
+        if (index < 0 || index > lines.size())
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + lines.size());
+        }
+
+        int count = c.size();
+        if (count == 0)
+        {
+            return false;
+        }
+
+        lines.addAll(index, c);
+        modCount++;
+        fireInserted(index, index + count);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends ColorString> c)
+    {
+        return addAll(lines.size(), c);
+    }
+
+    @Override
+    public ColorString remove(int index)
+    {
+        ColorString removed = lines.remove(index);
+        modCount++;
+        fireRemoved(index, index + 1);
+        return removed;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex)
+    {
+        if (fromIndex >= toIndex)
+        {
+            return;
+        }
+
+        lines.subList(fromIndex, toIndex).clear();
+        modCount++;
+        fireRemoved(fromIndex, toIndex);
+    }
+
+    /**
+     * Reports that the line at the given index was changed in place.
+     *
+     * @param index the index of the changed line
+     */
+    public void update(int index)
+    {
+        update(index, index + 1);
+    }
+
+    /**
+     * Reports that the lines in the given range were changed in place.
+     *
+     * @param start the index of the first changed line
+     * @param end   the index after the last changed line
+     */
+    public void update(int start, int end)
+    {
+        if (start < 0 || end > lines.size() || start > end)
+        {
+            throw new IndexOutOfBoundsException("Range: [" + start + ", " + end + "), Size: " + lines.size());
+        }
+
+        if (start < end)
+        {
+            fireUpdated(start, end);
+        }
+    }
+
+    /**
+     * Notifies every listener of inserted lines.
+     *
+     * @param start the index of the first inserted line
+     * @param end   the index after the last inserted line
+     */
+    private void fireInserted(int start, int end)
+    {
+        changes++;
+        for (int i = 0; i < listeners.size(); i++)
+        {
+            listeners.get(i).contentsInserted(start, end);
+        }
+    }
+
+    /**
+     * Notifies every listener of removed lines.
+     *
+     * @param start the index of the first removed line
+     * @param end   the index after the last removed line
+     */
+    private void fireRemoved(int start, int end)
+    {
+        changes++;
+        for (int i = 0; i < listeners.size(); i++)
+        {
+            listeners.get(i).contentsRemoved(start, end);
+        }
+    }
+
+    /**
+     * Notifies every listener of changed lines.
+     *
+     * @param start the index of the first changed line
+     * @param end   the index after the last changed line
+     */
+    private void fireUpdated(int start, int end)
+    {
+        changes++;
+        for (int i = 0; i < listeners.size(); i++)
+        {
+            listeners.get(i).contentsUpdated(start, end);
+        }
+    }
+}
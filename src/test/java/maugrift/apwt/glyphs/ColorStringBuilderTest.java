@@ -0,0 +1,83 @@
+package maugrift.apwt.glyphs;
+
+import maugrift.apwt.display.BufferedDisplay;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a {@link ColorStringBuilder} refilled every frame stops allocating once it has grown.
+ *
+ * @author Maugrift
+ */
+public class ColorStringBuilderTest
+{
+    /**
+     * The number of frames measured.
+     */
+    private static final int FRAMES = 100_000;
+
+    /**
+     * The bytes that may be allocated over every measured frame together, for the measurement itself.
+     */
+    private static final long TOLERANCE = 1024;
+
+    @Test
+    public void steadyStateAllocatesNothing()
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        ColorStringBuilder builder = new ColorStringBuilder();
+        ColorString label = new ColorString("HP ", Color.RED, null);
+        BufferedDisplay display = new BufferedDisplay(80, 1, Color.WHITE, Color.BLACK);
+
+        // Let the builder grow to its final size and the JIT settle before measuring
+        for (int frame = 0; frame < FRAMES; frame++)
+        {
+            fill(builder, label, frame);
+            display.write(0, 0, builder);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int frame = 0; frame < FRAMES; frame++)
+        {
+            fill(builder, label, frame);
+            display.write(0, 0, builder);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue("Allocated " + allocated + " bytes over " + FRAMES + " frames", allocated < TOLERANCE);
+        assertEquals("HP " + (FRAMES - 1) + "/" + FRAMES + " 12.50%", builder.toString());
+    }
+
+    /**
+     * Refills the builder with one frame's text.
+     *
+     * @param builder the builder to refill
+     * @param label   a {@link ColorString} to start the text with
+     * @param frame   the number of the frame
+     */
+    private static void fill(ColorStringBuilder builder, ColorString label, int frame)
+    {
+        builder.clear()
+                .append(label)
+                .setForeground(Color.GREEN)
+                .append(frame)
+                .append('/')
+                .append((long) FRAMES)
+                .resetColors()
+                .append(' ')
+                .append(12.5, 2)
+                .append("%");
+    }
+}